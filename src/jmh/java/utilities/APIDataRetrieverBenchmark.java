@@ -0,0 +1,77 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks unpacking the API's JSON responses into data objects, exactly as APIDataRetriever does once a response
+ * body arrives, but reading from memory so the network plays no part.
+ *
+ * Sizes stop at a million debts, since the JSON text for the payments of ten million alone would not fit comfortably
+ * in the heap next to the objects decoded from it.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class APIDataRetrieverBenchmark {
+    /**
+     * The number of debts in the generated portfolio whose responses are unpacked.
+     */
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private byte[] debtsJson;
+    private byte[] paymentPlansJson;
+    private byte[] paymentsJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ByteArrayOutputStream debts = new ByteArrayOutputStream();
+        ByteArrayOutputStream paymentPlans = new ByteArrayOutputStream();
+        ByteArrayOutputStream payments = new ByteArrayOutputStream();
+        new PortfolioGenerator(size).writeJson(size,
+                new OutputStreamWriter(debts, StandardCharsets.UTF_8),
+                new OutputStreamWriter(paymentPlans, StandardCharsets.UTF_8),
+                new OutputStreamWriter(payments, StandardCharsets.UTF_8));
+        debtsJson = debts.toByteArray();
+        paymentPlansJson = paymentPlans.toByteArray();
+        paymentsJson = payments.toByteArray();
+    }
+
+    @Benchmark
+    public List<Debt> unpackDebts() throws ParseException {
+        return APIDataRetriever.debtReader(new ByteArrayInputStream(debtsJson)).readAll();
+    }
+
+    @Benchmark
+    public List<PaymentPlan> unpackPaymentPlans() throws ParseException {
+        return APIDataRetriever.paymentPlanReader(new ByteArrayInputStream(paymentPlansJson)).readAll();
+    }
+
+    @Benchmark
+    public List<Payment> unpackPayments() throws ParseException {
+        return APIDataRetriever.paymentReader(new ByteArrayInputStream(paymentsJson)).readAll();
+    }
+}
@@ -0,0 +1,83 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks retrieving a portfolio over HTTP with APIDataRetriever, from a MockPaymentsServer on the loopback
+ * interface, so the whole path from request to data objects is measured without the network's noise. Latency is
+ * injected per response, which shows how well paginated retrieval hides it by keeping several pages in flight.
+ *
+ * Tail latency is best seen in sample mode, which reports percentiles of the individual calls:
+ * > gradle jmh -PjmhArgs="APIDataRetrieverHttpBenchmark -bm sample"
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class APIDataRetrieverHttpBenchmark {
+    /**
+     * The number of debts in the generated portfolio.
+     */
+    @Param({"1000", "100000"})
+    public int size;
+
+    /**
+     * The number of records requested per page, or 0 to request each collection in one response.
+     */
+    @Param({"0", "1000"})
+    public int pageSize;
+
+    /**
+     * How long the server waits before answering each request.
+     */
+    @Param({"0", "20"})
+    public int latencyMillis;
+
+    private static final int MAX_PAGES_IN_FLIGHT = 4;
+
+    private MockPaymentsServer server;
+    private APIDataRetriever apiDataRetriever;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = new MockPaymentsServer(new PortfolioGenerator(size).generate(size));
+        server.setLatencyMillis(latencyMillis, latencyMillis);
+        apiDataRetriever = new APIDataRetriever(server.getRootUrl(), pageSize, MAX_PAGES_IN_FLIGHT, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public List<Payment> getAllPayments() throws Exception {
+        return apiDataRetriever.getAllPayments();
+    }
+
+    @Benchmark
+    public int getAllCollectionsAsync() {
+        CompletableFuture<List<Debt>> debts = apiDataRetriever.getAllDebtsAsync();
+        CompletableFuture<List<PaymentPlan>> paymentPlans = apiDataRetriever.getAllPaymentPlansAsync();
+        CompletableFuture<List<Payment>> payments = apiDataRetriever.getAllPaymentsAsync();
+        return debts.join().size() + paymentPlans.join().size() + payments.join().size();
+    }
+}
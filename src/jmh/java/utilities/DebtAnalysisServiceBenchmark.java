@@ -0,0 +1,85 @@
+package utilities;
+
+import data.Debt;
+import data.DebtInfo;
+import data.PaymentPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks DebtAnalysisService, both computing every DebtInfo at once and the single-debt calculations it exposes.
+ *
+ * The single-debt benchmarks look up a different debt on each call, cycling through the whole portfolio, so they
+ * measure lookups spread across the maps rather than one lookup that always hits the cache. Since a due date can only
+ * be calculated for a debt with a payment plan, calculateNextPaymentDueDate only cycles through those debts.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class DebtAnalysisServiceBenchmark {
+    /**
+     * The number of debts in the generated portfolio. About three out of four have a payment plan.
+     */
+    @Param({"100", "1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private DebtAnalysisService debtAnalysisService;
+    private Debt[] debts;
+    private Debt[] debtsInPaymentPlans;
+    private int nextDebt;
+    private int nextDebtInPaymentPlan;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PortfolioGenerator.Portfolio portfolio = new PortfolioGenerator(size).generate(size);
+        debtAnalysisService = new DebtAnalysisService(portfolio.getAllDebts(), portfolio.getAllPaymentPlans(),
+                portfolio.getAllPayments());
+        debts = portfolio.getAllDebts().toArray(new Debt[0]);
+        debtsInPaymentPlans = portfolio.getAllDebts().stream()
+                .filter(debt -> debtAnalysisService.findPaymentPlan(debt) != null)
+                .toArray(Debt[]::new);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<DebtInfo> generateDebtInfos() {
+        return debtAnalysisService.generateDebtInfos();
+    }
+
+    @Benchmark
+    public PaymentPlan findPaymentPlan() {
+        return debtAnalysisService.findPaymentPlan(nextDebt());
+    }
+
+    @Benchmark
+    public double calculateRemainingAmount() {
+        return debtAnalysisService.calculateRemainingAmount(nextDebt());
+    }
+
+    @Benchmark
+    public LocalDate calculateNextPaymentDueDate() {
+        Debt debt = debtsInPaymentPlans[nextDebtInPaymentPlan];
+        nextDebtInPaymentPlan = nextDebtInPaymentPlan + 1 < debtsInPaymentPlans.length ? nextDebtInPaymentPlan + 1 : 0;
+        return debtAnalysisService.calculateNextPaymentDueDate(debt);
+    }
+
+    private Debt nextDebt() {
+        Debt debt = debts[nextDebt];
+        nextDebt = nextDebt + 1 < debts.length ? nextDebt + 1 : 0;
+        return debt;
+    }
+}
@@ -0,0 +1,73 @@
+package utilities;
+
+import data.DebtInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks formatting DebtInfos as output lines, with DebtInfo.print and with DebtInfoWriter, which the application
+ * uses. Output goes to a stream that discards it, so only the cost of formatting is measured.
+ *
+ * Sizes stop at a million lines, since printing ten million lines one String.format at a time takes long enough to
+ * make each iteration impractically slow.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DebtInfoOutputBenchmark {
+    /**
+     * The number of DebtInfos written per call.
+     */
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private List<DebtInfo> debtInfos;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PortfolioGenerator.Portfolio portfolio = new PortfolioGenerator(size).generate(size);
+        debtInfos = new DebtAnalysisService(portfolio.getAllDebts(), portfolio.getAllPaymentPlans(),
+                portfolio.getAllPayments()).generateDebtInfos();
+
+        // print always writes to System.out, so it is pointed somewhere harmless for the length of the benchmark.
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void print() {
+        for (DebtInfo debtInfo : debtInfos) {
+            debtInfo.print();
+        }
+    }
+
+    @Benchmark
+    public void debtInfoWriter() throws IOException {
+        DebtInfoWriter writer = new DebtInfoWriter(OutputStream.nullOutputStream());
+        writer.writeAll(debtInfos);
+        writer.flush();
+    }
+}
@@ -1,47 +1,274 @@
 import data.Debt;
-import data.DebtInfo;
 import data.Payment;
 import data.PaymentPlan;
 import org.json.JSONException;
 import utilities.APIDataRetriever;
 import utilities.DebtAnalysisService;
+import utilities.DebtInfoServer;
+import utilities.DebtInfoWriter;
+import utilities.DiskResponseCache;
+import utilities.Futures;
+import utilities.RunMetrics;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.FileSystemException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.text.ParseException;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class App {
-    public static void main(String[] args) {
-        APIDataRetriever apiDataRetriever = new APIDataRetriever(
-                "https://my-json-server.typicode.com/druska/trueaccord-mock-payments-api/");
+    /**
+     * The longest the application will wait for the payment plans and payments to be retrieved, across both endpoints.
+     */
+    private static final long RETRIEVAL_TIMEOUT_SECONDS = 60;
+
+    /**
+     * Where API responses are cached between runs, so unchanged data is not downloaded again.
+     */
+    private static final Path RESPONSE_CACHE_DIRECTORY =
+            Paths.get(System.getProperty("java.io.tmpdir"), "true-accord-challenge", "responses");
+
+    /**
+     * How often the server mode refreshes its data, unless told otherwise.
+     */
+    private static final long DEFAULT_REFRESH_INTERVAL_SECONDS = 300;
+
+    private static final String API_ROOT_URL =
+            "https://my-json-server.typicode.com/druska/trueaccord-mock-payments-api/";
 
-        List<Debt> allDebts = new ArrayList<>();
-        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
-        List<Payment> allPayments = new ArrayList<>();
+    /**
+     * The API's collections are small enough to come whole, so the command line turns paging off and asks for each
+     * collection in a single response.
+     */
+    private static final int PAGE_SIZE = 0;
 
+    /**
+     * Without paging, each collection is one request, so there is never a page to request ahead of the one being read.
+     * Debts retrieved by id are still split into batches, which are requested one at a time.
+     */
+    private static final int MAX_PAGES_IN_FLIGHT = 1;
+
+    /**
+     * Each request is made once, so an unreachable API is reported straight away rather than after a round of retries.
+     * A run is quick to repeat by hand.
+     */
+    private static final int MAX_ATTEMPTS_PER_REQUEST = 1;
+
+    private static final String OFFLINE_ARGUMENT = "--offline";
+    private static final String MAX_STALENESS_ARGUMENT = "--max-staleness=";
+    private static final String SERVE_ARGUMENT = "--serve=";
+    private static final String REFRESH_INTERVAL_ARGUMENT = "--refresh-interval=";
+    private static final String DEBT_IDS_ARGUMENT = "--debt-ids=";
+
+    /**
+     * Runs the analysis and prints a line for every debt.
+     * @param args Optional flags. '--offline' reads only from the response cache, never the network.
+     * '--max-staleness=N' uses cached responses up to N seconds old without asking the API whether they have changed.
+     * By default every cached response is revalidated.
+     * '--serve=PORT' runs as a server on the given port of the loopback interface instead, serving the DebtInfos from
+     * memory until the process is stopped (see DebtInfoServer). '--refresh-interval=N' refreshes the served data every
+     * N seconds, 300 by default.
+     * '--debt-ids=ID,ID,...' prints only the given debts, retrieving just their records rather than every record.
+     *
+     * The run is measured in a RunMetrics, which can be watched over JMX while the run is in progress, and whose
+     * summary is printed to standard error once it finishes, so it never mixes with the output itself.
+     */
+    public static void main(String[] args) {
+        // Payment plans and payments are needed in full before any debt can be analyzed, so they are fetched together
+        // up front. Debts are then streamed through the analysis, and each one is written out as soon as it is
+        // computed. Output is buffered, and flushed once at the end, or before any error is reported if the analysis
+        // fails.
+        RunMetrics metrics = new RunMetrics();
         try {
-            allDebts = apiDataRetriever.getAllDebts();
-            allPaymentPlans = apiDataRetriever.getAllPaymentPlans();
-            allPayments = apiDataRetriever.getAllPayments();
-        } catch (ConnectException e) {
-            System.out.println("Error executing application: Could not connect to the database URL.");
+            metrics.register();
+        } catch (JMException e) {
+            // The metrics are still summarized at the end, they just cannot be watched while the run is in progress.
+        }
+
+        DebtInfoWriter debtInfoWriter = new DebtInfoWriter(metrics.timeOutput(System.out));
+        try {
+            DiskResponseCache responseCache = createResponseCache(args);
+            APIDataRetriever apiDataRetriever = new APIDataRetriever(API_ROOT_URL, PAGE_SIZE, MAX_PAGES_IN_FLIGHT,
+                    MAX_ATTEMPTS_PER_REQUEST, responseCache, metrics);
+
+            String serveArgument = findArgument(args, SERVE_ARGUMENT);
+            if (serveArgument != null) {
+                serve(apiDataRetriever, Integer.parseInt(serveArgument), args);
+                return;
+            }
+
+            List<Integer> debtIds = parseDebtIds(findArgument(args, DEBT_IDS_ARGUMENT));
+            CompletableFuture<List<PaymentPlan>> paymentPlansFuture;
+            CompletableFuture<List<Payment>> paymentsFuture;
+            CompletableFuture<List<Debt>> debtsFuture = null;
+            if (debtIds == null) {
+                paymentPlansFuture = apiDataRetriever.getAllPaymentPlansAsync();
+                paymentsFuture = apiDataRetriever.getAllPaymentsAsync();
+            } else {
+                // Only the given debts, their payment plans, and the payments against those plans are retrieved. The
+                // payments can only be asked for once the payment plans are known.
+                debtsFuture = apiDataRetriever.getDebtsByIdsAsync(debtIds);
+                paymentPlansFuture = apiDataRetriever.getPaymentPlansByDebtIdsAsync(debtIds);
+                paymentsFuture = paymentPlansFuture.thenCompose(paymentPlans ->
+                        apiDataRetriever.getPaymentsByPaymentPlanIdsAsync(paymentPlans.stream()
+                                .map(PaymentPlan::getId)
+                                .collect(Collectors.toList())));
+                Futures.awaitAll(RETRIEVAL_TIMEOUT_SECONDS, debtsFuture, paymentPlansFuture, paymentsFuture);
+            }
+
+            try (Stream<Debt> debts = debtsFuture != null
+                    ? debtsFuture.join().stream()
+                    : apiDataRetriever.streamAllDebts()) {
+                Futures.awaitAll(RETRIEVAL_TIMEOUT_SECONDS, paymentPlansFuture, paymentsFuture);
+
+                List<PaymentPlan> paymentPlans = paymentPlansFuture.join();
+                List<Payment> payments = paymentsFuture.join();
+                long indexingStart = System.nanoTime();
+                DebtAnalysisService debtAnalysisService = new DebtAnalysisService(paymentPlans, payments);
+                metrics.recordIndexing(System.nanoTime() - indexingStart, paymentPlans.size(), payments.size(),
+                        debtAnalysisService.countOrphanedPayments());
+                try {
+                    debtInfoWriter.writeAll(debtAnalysisService.streamDebtInfos(debts, metrics));
+                } finally {
+                    debtInfoWriter.flush();
+                }
+            }
+        } catch (TimeoutException e) {
+            reportFailure(metrics, e, "Could not retrieve data from the database URL within "
+                    + RETRIEVAL_TIMEOUT_SECONDS + " seconds.");
+        } catch (ConnectException | FileSystemException e) {
+            reportFailure(metrics, e, describeIOFailure(e));
+        } catch (UncheckedIOException e) {
+            // Streamed debts fail this way, whether the network or the response cache was at fault.
+            reportFailure(metrics, e, describeIOFailure(e.getCause()));
         } catch (InterruptedException e) {
-            System.out.println("Error executing application: Process interrupted mid-way through running. Try running" +
-                    " it again.");
+            reportFailure(metrics, e, "Process interrupted mid-way through running. Try running it again.");
         } catch (ParseException | JSONException e) {
-            System.out.println("Error executing application: Data received from database is malformed and could not " +
-                    "be parsed.");
+            reportFailure(metrics, e, "Data received from database is malformed and could not be parsed.");
         } catch (Exception e) { // A catch-all for exceptions
-            System.out.println("Error executing application, receive exception with the following message: "
+            metrics.recordFailure(e);
+            System.err.println("Error executing application, receive exception with the following message: "
                     + e.getMessage());
         }
+        System.err.print(metrics.getSummary());
+    }
+
+    /**
+     * Starts a DebtInfoServer, which goes on serving from its own threads after this returns. Metrics keep
+     * accumulating over every refresh, and can be watched over JMX; no summary is printed, since the server never
+     * finishes by itself.
+     * @param apiDataRetriever Where the server retrieves its data from.
+     * @param port The port to listen on.
+     * @param args The command line arguments, for the refresh interval.
+     * @throws Exception If the data could not be retrieved the first time, or the server could not be started.
+     */
+    private static void serve(APIDataRetriever apiDataRetriever, int port, String[] args) throws Exception {
+        String refreshIntervalArgument = findArgument(args, REFRESH_INTERVAL_ARGUMENT);
+        Duration refreshInterval = Duration.ofSeconds(refreshIntervalArgument != null
+                ? Long.parseLong(refreshIntervalArgument)
+                : DEFAULT_REFRESH_INTERVAL_SECONDS);
+
+        DebtInfoServer server = new DebtInfoServer(apiDataRetriever,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), refreshInterval);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println("Serving " + server.getDebtInfos().size() + " debt infos at " + server.getRootUrl()
+                + "debt_infos, refreshing every " + refreshInterval.toSeconds() + " seconds");
+    }
 
-        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
-        List<DebtInfo> debtInfos = debtAnalysisService.generateDebtInfos();
+    /**
+     * Prints the message for an error that stopped the application to standard error, so it never mixes with the
+     * output, and records the error in the run's metrics.
+     * @param metrics The run's metrics.
+     * @param e The exception the run failed with.
+     * @param message What went wrong, in terms the user can act on.
+     */
+    private static void reportFailure(RunMetrics metrics, Exception e, String message) {
+        metrics.recordFailure(e);
+        System.err.println("Error executing application: " + message);
+    }
+
+    /**
+     * Describes an I/O error that stopped the application. Errors reading or writing local files come from the
+     * response cache, and any other is taken to be a problem reaching the API.
+     * @param e The I/O error.
+     * @return What went wrong, in terms the user can act on.
+     */
+    private static String describeIOFailure(IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return "Running offline, but the data has not been cached yet.";
+        }
+        if (e instanceof FileSystemException) {
+            return "Could not read or write the response cache in " + RESPONSE_CACHE_DIRECTORY + ".";
+        }
+        return "Could not connect to the database URL.";
+    }
+
+    /**
+     * Creates the response cache as configured by the command line arguments.
+     * @param args The command line arguments.
+     * @return The response cache.
+     * @throws IOException If the cache directory could not be created.
+     * @throws IllegalArgumentException If an argument is not recognized.
+     */
+    private static DiskResponseCache createResponseCache(String[] args) throws IOException {
+        boolean offline = false;
+        Duration maxStaleness = Duration.ZERO;
+        for (String arg : args) {
+            if (arg.equals(OFFLINE_ARGUMENT)) {
+                offline = true;
+            } else if (arg.startsWith(MAX_STALENESS_ARGUMENT)) {
+                maxStaleness = Duration.ofSeconds(Long.parseLong(arg.substring(MAX_STALENESS_ARGUMENT.length())));
+            } else if (arg.startsWith(SERVE_ARGUMENT) || arg.startsWith(REFRESH_INTERVAL_ARGUMENT)
+                    || arg.startsWith(DEBT_IDS_ARGUMENT)) {
+                // These arguments are read by findArgument.
+            } else {
+                throw new IllegalArgumentException("Unrecognized argument '" + arg + "'");
+            }
+        }
+        return new DiskResponseCache(RESPONSE_CACHE_DIRECTORY, maxStaleness, offline);
+    }
+
+    /**
+     * Parses the debt ids of a '--debt-ids' argument.
+     * @param debtIdsArgument The argument's value, a comma separated list of ids, or null if it was not given.
+     * @return The ids, or null if the argument was not given.
+     * @throws NumberFormatException If an id is not a whole number.
+     */
+    private static List<Integer> parseDebtIds(String debtIdsArgument) {
+        if (debtIdsArgument == null) {
+            return null;
+        }
+        return Arrays.stream(debtIdsArgument.split(","))
+                .map(id -> Integer.parseInt(id.trim()))
+                .collect(Collectors.toList());
+    }
 
-        for (DebtInfo debtInfo : debtInfos) {
-            debtInfo.print();
+    /**
+     * Finds the value of a '--name=value' argument.
+     * @param args The command line arguments.
+     * @param prefix The argument's name, including the '='.
+     * @return The value of the last argument with the given name, or null if there is none.
+     */
+    private static String findArgument(String[] args, String prefix) {
+        String value = null;
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                value = arg.substring(prefix.length());
+            }
         }
+        return value;
     }
 }
@@ -3,15 +3,15 @@ package data;
 /**
  * This class is meant purely for storing data related to a debt.
  * id       - The identifier for this debt.
- * amount   - The total amount owed in USD.
+ * amount   - The total amount owed in USD. Stored as minor units, see Money.
  */
 public class Debt {
     private final int id;
-    private final double amount;
+    private final long amountInMinorUnits;
 
     public Debt(int id, double amount) {
         this.id = id;
-        this.amount = amount;
+        this.amountInMinorUnits = Money.toMinorUnits(amount);
     }
 
     public int getId() {
@@ -19,6 +19,10 @@ public class Debt {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toDollars(amountInMinorUnits);
+    }
+
+    public long getAmountInMinorUnits() {
+        return amountInMinorUnits;
     }
 }
\ No newline at end of file
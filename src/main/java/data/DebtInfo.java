@@ -1,9 +1,9 @@
 package data;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
 import java.util.Objects;
-import java.util.TimeZone;
 
 /**
  * This class is responsible for storing metadata about debts. Besides a function which can print the metadata, this
@@ -12,23 +12,27 @@ import java.util.TimeZone;
  * isInPaymentPlan      - Metadata identifying whether or not this debt has a payment plan associated with it.
  * remainingAmount      - The remaining amount (in USD) that must be paid to pay off this debt.
  * nextPaymentDueDate   - The next date on which a payment is due, provided this debt has a payment plan.
+ * A DebtInfo is immutable, so it can be cached and read from any number of threads without copying.
  */
-public class DebtInfo {
+public final class DebtInfo {
+    /**
+     * The format dates are printed in, always in UTC. DateTimeFormatter is immutable and thread-safe, so this one
+     * instance is shared by every DebtInfo rather than each holding its own.
+     */
+    public static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneOffset.UTC);
+
     private final Debt debt;
     private final boolean isInPaymentPlan;
     private final double remainingAmount;
-    private final Date nextPaymentDueDate; // nullable
-
-    private final SimpleDateFormat dateFormat;
+    private final LocalDate nextPaymentDueDate; // nullable
 
-    public DebtInfo(Debt debt, boolean isInPaymentPlan, double remainingAmount, Date nextPaymentDueDate) {
+    public DebtInfo(Debt debt, boolean isInPaymentPlan, double remainingAmount, LocalDate nextPaymentDueDate) {
         this.debt = Objects.requireNonNull(debt,
                 "Cannot construct DebtInfo: debt must not be null");
         this.isInPaymentPlan = isInPaymentPlan;
         this.remainingAmount = remainingAmount;
         this.nextPaymentDueDate = nextPaymentDueDate;
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
-        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
     }
 
     public Debt getDebt() {
@@ -43,15 +47,18 @@ public class DebtInfo {
         return remainingAmount;
     }
 
-    public Date getNextPaymentDueDate() {
+    public LocalDate getNextPaymentDueDate() {
         return nextPaymentDueDate;
     }
 
     /**
-     * Prints the data contained in this DebtInfo to System.out. Prints it in one line and returns.
+     * Prints the data contained in this DebtInfo to System.out. Prints it in one line and returns. The due date is
+     * printed as the start of its day in UTC.
      */
     public void print() {
-        String dateString = nextPaymentDueDate != null ? dateFormat.format(nextPaymentDueDate) : "null";
+        String dateString = nextPaymentDueDate != null
+                ? DATE_FORMAT.format(nextPaymentDueDate.atStartOfDay(ZoneOffset.UTC))
+                : "null";
         System.out.println(String.format(
                 "id: %s, amount: %s, is_in_payment_plan: %s, remaining_amount: %s, next_payment_due_date: %s",
                 debt.getId(),
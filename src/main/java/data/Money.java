@@ -0,0 +1,52 @@
+package data;
+
+/**
+ * This class holds the helpers for storing USD amounts as fixed-point longs. Amounts are counted in minor units of one
+ * ten-thousandth of a dollar, so adding and comparing them is exact integer arithmetic with no rounding drift and no
+ * allocation. Four decimal places rather than two are kept because the data source sends plain json numbers, and
+ * amounts with fractions of a cent do show up in it.
+ */
+public final class Money {
+    /**
+     * The number of decimal places an amount keeps once converted to minor units.
+     */
+    public static final int SCALE = 4;
+
+    /**
+     * The number of minor units in one USD.
+     */
+    public static final long MINOR_UNITS_PER_DOLLAR = 10_000L;
+
+    /**
+     * The largest magnitude, in USD, that converts to minor units without losing precision. Past this point a double
+     * can no longer tell apart neighbouring minor units.
+     */
+    private static final double MAX_EXACT_DOLLARS = (double) (1L << 53) / MINOR_UNITS_PER_DOLLAR;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a USD amount to minor units, rounding to the nearest ten-thousandth of a dollar.
+     * @param amount The amount in USD.
+     * @return The amount as a count of minor units.
+     * @throws IllegalArgumentException If the amount is not a finite number, or is too large to convert exactly.
+     */
+    public static long toMinorUnits(double amount) {
+        if (!Double.isFinite(amount) || Math.abs(amount) >= MAX_EXACT_DOLLARS) {
+            throw new IllegalArgumentException("Cannot convert to minor units: amount " + amount
+                    + " must be finite and smaller than " + MAX_EXACT_DOLLARS);
+        }
+        return Math.round(amount * MINOR_UNITS_PER_DOLLAR);
+    }
+
+    /**
+     * Converts minor units back to a USD amount. This is exact up to the precision of a double, and gives the same
+     * double as parsing the amount's decimal string would.
+     * @param minorUnits The amount as a count of minor units.
+     * @return The amount in USD.
+     */
+    public static double toDollars(long minorUnits) {
+        return minorUnits / (double) MINOR_UNITS_PER_DOLLAR;
+    }
+}
@@ -1,22 +1,34 @@
 package data;
 
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.Objects;
 
 /**
  * This class is meant purely for storing data related to a payment. It has the id of the payment plan it relates to,
- * the amount of USD paid, and the date when the payment occurred.
+ * the amount of USD paid, and the date when the payment occurred. The amount is stored as minor units, see Money, and
+ * the date as a count of days since 1970-01-01, so a Payment holds no mutable or separately allocated state.
  */
 public class Payment {
     private final int paymentPlanId;
-    private final double amount;
-    private final Date date;
+    private final long amountInMinorUnits;
+    private final int epochDay;
 
-    public Payment(int paymentPlanId, double amount, Date date) {
+    public Payment(int paymentPlanId, double amount, LocalDate date) {
+        this(paymentPlanId, amount, Math.toIntExact(Objects.requireNonNull(date,
+                "Cannot construct Payment: date must not be null").toEpochDay()));
+    }
+
+    /**
+     * Creates a payment dated with a count of days since 1970-01-01, for callers that already have the date in that
+     * form and would otherwise create a LocalDate only for it to be converted straight back.
+     * @param paymentPlanId The id of the payment plan the payment was made against.
+     * @param amount The amount paid, in USD.
+     * @param epochDay The date of the payment, as days since 1970-01-01.
+     */
+    public Payment(int paymentPlanId, double amount, int epochDay) {
         this.paymentPlanId = paymentPlanId;
-        this.amount = amount;
-        this.date = Objects.requireNonNull(date,
-                "Cannot construct Payment: date must not be null");
+        this.amountInMinorUnits = Money.toMinorUnits(amount);
+        this.epochDay = epochDay;
     }
 
     public int getPaymentPlanId() {
@@ -24,10 +36,21 @@ public class Payment {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toDollars(amountInMinorUnits);
+    }
+
+    public long getAmountInMinorUnits() {
+        return amountInMinorUnits;
+    }
+
+    public LocalDate getDate() {
+        return LocalDate.ofEpochDay(epochDay);
     }
 
-    public Date getDate() {
-        return date;
+    /**
+     * @return The date of the payment, as a count of days since 1970-01-01.
+     */
+    public int getEpochDay() {
+        return epochDay;
     }
 }
\ No newline at end of file
@@ -0,0 +1,239 @@
+package data;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * This class stores a set of payments column by column, in parallel primitive arrays, rather than as one Payment object
+ * per payment. Each payment is a row made up of its payment plan id, its amount in minor units (see Money), and the day
+ * it was made as a count of days since 1970-01-01. Storing payments this way costs 16 bytes per payment, with no
+ * object headers, pointers, or boxed dates, and lets a loop over a plan's payments read straight through memory.
+ *
+ * Rows are grouped by payment plan. The ids of the payment plans that have payments are kept in ascending order, and
+ * an offsets array records where each plan's group of rows starts, so all of a plan's payments are one contiguous
+ * range. Within a group, payments keep the relative order they were given in, since the order payments are applied in
+ * affects the payment schedule.
+ *
+ * The store is immutable once built.
+ */
+public final class PaymentColumns {
+    private final int[] paymentPlanIds;
+    private final long[] amountsInMinorUnits;
+    private final int[] epochDays;
+
+    private final int[] groupPaymentPlanIds;
+    private final int[] groupOffsets;
+
+    private PaymentColumns(int[] paymentPlanIds, long[] amountsInMinorUnits, int[] epochDays,
+                           int[] groupPaymentPlanIds, int[] groupOffsets) {
+        this.paymentPlanIds = paymentPlanIds;
+        this.amountsInMinorUnits = amountsInMinorUnits;
+        this.epochDays = epochDays;
+        this.groupPaymentPlanIds = groupPaymentPlanIds;
+        this.groupOffsets = groupOffsets;
+    }
+
+    /**
+     * Builds a columnar store from a List of Payments.
+     * @param payments The payments to store.
+     * @return A store holding every payment, grouped by payment plan.
+     */
+    public static PaymentColumns of(List<Payment> payments) {
+        Objects.requireNonNull(payments, "Cannot construct PaymentColumns: payments must not be null");
+
+        int size = payments.size();
+        int[] inputPaymentPlanIds = new int[size];
+        long[] inputAmounts = new long[size];
+        int[] inputEpochDays = new int[size];
+        int row = 0;
+        for (Payment payment : payments) {
+            Objects.requireNonNull(payment, "Cannot construct PaymentColumns: payments must not contain null");
+            inputPaymentPlanIds[row] = payment.getPaymentPlanId();
+            inputAmounts[row] = payment.getAmountInMinorUnits();
+            inputEpochDays[row] = payment.getEpochDay();
+            row++;
+        }
+
+        return of(inputPaymentPlanIds, inputAmounts, inputEpochDays);
+    }
+
+    /**
+     * Builds a columnar store from columns that are not yet grouped. The three arrays describe one payment per index,
+     * in the order the payments were made. The arrays are not kept, so the caller may reuse them afterwards.
+     * @param paymentPlanIds The payment plan id of each payment.
+     * @param amountsInMinorUnits The amount of each payment, in minor units.
+     * @param epochDays The day each payment was made, as days since 1970-01-01.
+     * @return A store holding every payment, grouped by payment plan.
+     */
+    public static PaymentColumns of(int[] paymentPlanIds, long[] amountsInMinorUnits, int[] epochDays) {
+        Objects.requireNonNull(paymentPlanIds, "Cannot construct PaymentColumns: paymentPlanIds must not be null");
+        Objects.requireNonNull(amountsInMinorUnits,
+                "Cannot construct PaymentColumns: amountsInMinorUnits must not be null");
+        Objects.requireNonNull(epochDays, "Cannot construct PaymentColumns: epochDays must not be null");
+        int size = paymentPlanIds.length;
+        if (amountsInMinorUnits.length != size || epochDays.length != size) {
+            throw new IllegalArgumentException("Cannot construct PaymentColumns: columns must all be the same length");
+        }
+
+        // The distinct payment plan ids, sorted, become the group keys.
+        int[] sortedPaymentPlanIds = paymentPlanIds.clone();
+        Arrays.sort(sortedPaymentPlanIds);
+        int groupCount = 0;
+        for (int index = 0; index < size; index++) {
+            if (groupCount == 0 || sortedPaymentPlanIds[groupCount - 1] != sortedPaymentPlanIds[index]) {
+                sortedPaymentPlanIds[groupCount++] = sortedPaymentPlanIds[index];
+            }
+        }
+        int[] groupPaymentPlanIds = Arrays.copyOf(sortedPaymentPlanIds, groupCount);
+
+        // A counting sort by group keeps payments in their original relative order within each group.
+        int[] groupOfRow = new int[size];
+        int[] groupOffsets = new int[groupCount + 1];
+        for (int index = 0; index < size; index++) {
+            groupOfRow[index] = Arrays.binarySearch(groupPaymentPlanIds, paymentPlanIds[index]);
+            groupOffsets[groupOfRow[index] + 1]++;
+        }
+        for (int group = 0; group < groupCount; group++) {
+            groupOffsets[group + 1] += groupOffsets[group];
+        }
+
+        int[] groupedPaymentPlanIds = new int[size];
+        long[] groupedAmounts = new long[size];
+        int[] groupedEpochDays = new int[size];
+        int[] nextRowOfGroup = Arrays.copyOf(groupOffsets, groupCount);
+        for (int index = 0; index < size; index++) {
+            int row = nextRowOfGroup[groupOfRow[index]]++;
+            groupedPaymentPlanIds[row] = paymentPlanIds[index];
+            groupedAmounts[row] = amountsInMinorUnits[index];
+            groupedEpochDays[row] = epochDays[index];
+        }
+
+        return new PaymentColumns(groupedPaymentPlanIds, groupedAmounts, groupedEpochDays,
+                groupPaymentPlanIds, groupOffsets);
+    }
+
+    /**
+     * Builds a columnar store from columns that are already grouped: every payment plan's payments are contiguous, the
+     * groups are in ascending order of payment plan id, and each group is in the order its payments were made. Unlike
+     * of, this doesn't sort, so it is much cheaper for sources that keep payments grouped, such as an indexed snapshot
+     * (see SnapshotDataRetriever). The arrays are kept by the store, so the caller must not change them afterwards.
+     * @param paymentPlanIds The payment plan id of each payment.
+     * @param amountsInMinorUnits The amount of each payment, in minor units.
+     * @param epochDays The day each payment was made, as days since 1970-01-01.
+     * @return A store holding every payment.
+     * @throws IllegalArgumentException If the columns are not all the same length, or the payment plan ids are not in
+     * ascending order.
+     */
+    public static PaymentColumns ofGrouped(int[] paymentPlanIds, long[] amountsInMinorUnits, int[] epochDays) {
+        Objects.requireNonNull(paymentPlanIds, "Cannot construct PaymentColumns: paymentPlanIds must not be null");
+        Objects.requireNonNull(amountsInMinorUnits,
+                "Cannot construct PaymentColumns: amountsInMinorUnits must not be null");
+        Objects.requireNonNull(epochDays, "Cannot construct PaymentColumns: epochDays must not be null");
+        int size = paymentPlanIds.length;
+        if (amountsInMinorUnits.length != size || epochDays.length != size) {
+            throw new IllegalArgumentException("Cannot construct PaymentColumns: columns must all be the same length");
+        }
+
+        int groupCount = 0;
+        for (int row = 0; row < size; row++) {
+            if (row == 0 || paymentPlanIds[row] != paymentPlanIds[row - 1]) {
+                if (row > 0 && paymentPlanIds[row] < paymentPlanIds[row - 1]) {
+                    throw new IllegalArgumentException(
+                            "Cannot construct PaymentColumns: paymentPlanIds must be in ascending order");
+                }
+                groupCount++;
+            }
+        }
+
+        int[] groupPaymentPlanIds = new int[groupCount];
+        int[] groupOffsets = new int[groupCount + 1];
+        int group = 0;
+        for (int row = 0; row < size; row++) {
+            if (row == 0 || paymentPlanIds[row] != paymentPlanIds[row - 1]) {
+                groupPaymentPlanIds[group] = paymentPlanIds[row];
+                groupOffsets[group++] = row;
+            }
+        }
+        groupOffsets[groupCount] = size;
+
+        return new PaymentColumns(paymentPlanIds, amountsInMinorUnits, epochDays, groupPaymentPlanIds, groupOffsets);
+    }
+
+    /**
+     * @return The number of payments in the store.
+     */
+    public int size() {
+        return paymentPlanIds.length;
+    }
+
+    /**
+     * @return The number of distinct payment plans that have at least one payment.
+     */
+    public int groupCount() {
+        return groupPaymentPlanIds.length;
+    }
+
+    /**
+     * Finds the group of rows holding a payment plan's payments.
+     * @param paymentPlanId The id of the payment plan.
+     * @return The index of the plan's group, or -1 if the plan has no payments.
+     */
+    public int findGroup(int paymentPlanId) {
+        int group = Arrays.binarySearch(groupPaymentPlanIds, paymentPlanId);
+        return group >= 0 ? group : -1;
+    }
+
+    /**
+     * @param group The index of a group, as returned by findGroup.
+     * @return The row of the first payment in the group.
+     */
+    public int groupStart(int group) {
+        return groupOffsets[group];
+    }
+
+    /**
+     * @param group The index of a group, as returned by findGroup.
+     * @return The row after the last payment in the group.
+     */
+    public int groupEnd(int group) {
+        return groupOffsets[group + 1];
+    }
+
+    public int getPaymentPlanId(int row) {
+        return paymentPlanIds[row];
+    }
+
+    public long getAmountInMinorUnits(int row) {
+        return amountsInMinorUnits[row];
+    }
+
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    /**
+     * Exposes the store as a read-only List of Payments, for code that works with Payment objects. Each Payment is
+     * created when it is read from the List, and is not kept by the store. The List is in row order, so payments are
+     * grouped by payment plan.
+     * @return A List view of the payments in the store.
+     */
+    public List<Payment> asList() {
+        return new PaymentList();
+    }
+
+    private class PaymentList extends AbstractList<Payment> implements RandomAccess {
+        @Override
+        public Payment get(int row) {
+            Objects.checkIndex(row, size());
+            return new Payment(paymentPlanIds[row], Money.toDollars(amountsInMinorUnits[row]), epochDays[row]);
+        }
+
+        @Override
+        public int size() {
+            return PaymentColumns.this.size();
+        }
+    }
+}
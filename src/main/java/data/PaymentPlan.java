@@ -2,7 +2,7 @@ package data;
 
 import enums.InstallmentFrequency;
 
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.Objects;
 
 /**
@@ -12,29 +12,49 @@ import java.util.Objects;
  * amountToPay          - The total USD this plan aims to pay off once completed.
  * installmentFrequency - How often the payments in this plan occur, WEEKLY or BI_WEEKLY
  * startDate            - The date this payment plan went (or goes) into effect.
+ * Amounts are stored as minor units, see Money, and the start date as a count of days since 1970-01-01. The installment
+ * amount must be greater than 0, since a plan that expects nothing per installment has no meaningful schedule.
  */
 public class PaymentPlan {
     private final int id;
     private final int debtId;
-    private final double amountToPay;
+    private final long amountToPayInMinorUnits;
     private final InstallmentFrequency installmentFrequency;
-    private final double installmentAmount;
-    private final Date startDate;
+    private final long installmentAmountInMinorUnits;
+    private final int startEpochDay;
 
     public PaymentPlan(int id,
                        int debtId,
                        double amountToPay,
                        InstallmentFrequency installmentFrequency,
                        double installmentAmount,
-                       Date startDate) {
+                       LocalDate startDate) {
+        this(id, debtId, amountToPay, installmentFrequency, installmentAmount,
+                Math.toIntExact(Objects.requireNonNull(startDate,
+                        "Cannot construct PaymentPlan: startDate must not be null").toEpochDay()));
+    }
+
+    /**
+     * Creates a payment plan whose start date is a count of days since 1970-01-01, for callers that already have the
+     * date in that form.
+     */
+    public PaymentPlan(int id,
+                       int debtId,
+                       double amountToPay,
+                       InstallmentFrequency installmentFrequency,
+                       double installmentAmount,
+                       int startEpochDay) {
         this.id = id;
         this.debtId = debtId;
-        this.amountToPay = amountToPay;
+        this.amountToPayInMinorUnits = Money.toMinorUnits(amountToPay);
         this.installmentFrequency = Objects.requireNonNull(installmentFrequency,
                 "Cannot construct PaymentPlan: installmentFrequency must not be null");
-        this.installmentAmount = installmentAmount;
-        this.startDate = Objects.requireNonNull(startDate,
-                "Cannot construct PaymentPlan: startDate must not be null");
+        this.installmentAmountInMinorUnits = Money.toMinorUnits(installmentAmount);
+        if (installmentAmountInMinorUnits <= 0) {
+            throw new IllegalArgumentException(
+                    "Cannot construct PaymentPlan: installmentAmount must be greater than 0, but was " + installmentAmount);
+        }
+        this.startEpochDay = startEpochDay;
     }
 
     public int getId() {
@@ -46,7 +66,11 @@ public class PaymentPlan {
     }
 
     public double getAmountToPay() {
-        return amountToPay;
+        return Money.toDollars(amountToPayInMinorUnits);
+    }
+
+    public long getAmountToPayInMinorUnits() {
+        return amountToPayInMinorUnits;
     }
 
     public InstallmentFrequency getInstallmentFrequency() {
@@ -54,10 +78,21 @@ public class PaymentPlan {
     }
 
     public double getInstallmentAmount() {
-        return installmentAmount;
+        return Money.toDollars(installmentAmountInMinorUnits);
+    }
+
+    public long getInstallmentAmountInMinorUnits() {
+        return installmentAmountInMinorUnits;
+    }
+
+    public LocalDate getStartDate() {
+        return LocalDate.ofEpochDay(startEpochDay);
     }
 
-    public Date getStartDate() {
-        return startDate;
+    /**
+     * @return The start date of the plan, as a count of days since 1970-01-01.
+     */
+    public int getStartEpochDay() {
+        return startEpochDay;
     }
 }
\ No newline at end of file
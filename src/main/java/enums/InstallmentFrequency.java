@@ -1,6 +1,20 @@
 package enums;
 
+/**
+ * How often the installments of a payment plan are due. Each frequency knows the number of days between two
+ * consecutive installments.
+ */
 public enum InstallmentFrequency {
-    WEEKLY,
-    BI_WEEKLY
-}
\ No newline at end of file
+    WEEKLY(7),
+    BI_WEEKLY(14);
+
+    private final int daysBetweenInstallments;
+
+    InstallmentFrequency(int daysBetweenInstallments) {
+        this.daysBetweenInstallments = daysBetweenInstallments;
+    }
+
+    public int getDaysBetweenInstallments() {
+        return daysBetweenInstallments;
+    }
+}
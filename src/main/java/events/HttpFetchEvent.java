@@ -0,0 +1,28 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for one HTTP request made by APIDataRetriever, lasting from when the request is sent
+ * until its response headers arrive, or it fails. Requests answered from the response cache are included, since they
+ * stand in for a request.
+ */
+@Name("trueaccord.HttpFetch")
+@Label("HTTP Fetch")
+@Category({"True Accord Challenge", "Retrieval"})
+@Description("An API request, up to the arrival of the response headers")
+public class HttpFetchEvent extends Event {
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Succeeded")
+    @Description("Whether the response arrived with a usable status")
+    public boolean succeeded;
+}
@@ -0,0 +1,28 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for one response body being read and unpacked into data objects. When a body is
+ * streamed, the event lasts until the Stream is closed, so it includes the time the consumer spent between records.
+ */
+@Name("trueaccord.JSONUnpack")
+@Label("JSON Unpack")
+@Category({"True Accord Challenge", "Retrieval"})
+@Description("A response body being read and unpacked into data objects")
+public class JSONUnpackEvent extends Event {
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Record Count")
+    public long recordCount;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,30 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for DebtInfoWriter handing its buffer to the OutputStream it writes to, either because
+ * the buffer filled up or because the writer was flushed.
+ */
+@Name("trueaccord.OutputFlush")
+@Label("Output Flush")
+@Category({"True Accord Challenge", "Output"})
+@Description("Buffered output lines being written to the output stream")
+public class OutputFlushEvent extends Event {
+    @Label("Bytes")
+    @DataAmount
+    public int bytes;
+
+    @Label("Line Count")
+    @Description("The number of lines completed by the bytes written")
+    public int lineCount;
+
+    @Label("Stream Flushed")
+    @Description("Whether the output stream was flushed as well, rather than only written to")
+    public boolean streamFlushed;
+}
@@ -0,0 +1,35 @@
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event for the remaining amount and payment schedule of one debt being computed from its
+ * payment plan. Debts without a payment plan have no schedule, so they emit no event.
+ *
+ * One of these could be emitted for every debt, so by default only computations taking longer than 20 microseconds
+ * are recorded. Those are the ones worth seeing, such as a debt held up by a GC pause, and recordings of large
+ * portfolios stay small. The threshold can be lowered in the recording's settings to see every debt.
+ */
+@Name("trueaccord.ScheduleComputation")
+@Label("Schedule Computation")
+@Category({"True Accord Challenge", "Analysis"})
+@Description("The remaining amount and next payment due date of one debt being computed from its payment plan")
+@Threshold("20 us")
+public class ScheduleComputationEvent extends Event {
+    @Label("Debt Id")
+    public int debtId;
+
+    @Label("Payment Plan Id")
+    public int paymentPlanId;
+
+    @Label("Payment Count")
+    public int paymentCount;
+
+    @Label("Paid Off")
+    public boolean paidOff;
+}
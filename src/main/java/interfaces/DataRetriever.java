@@ -3,11 +3,35 @@ package interfaces;
 import data.Debt;
 import data.Payment;
 import data.PaymentPlan;
+import utilities.IOExecutor;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This interface is responsible for retrieving data from a data source and populating objects. The exact data source
  * and method of retrieval will vary based on which implementation is used.
+ *
+ * Each retrieval also has an asynchronous variant, so callers can fetch all three collections at once. By default these
+ * run the blocking method on the IOExecutor pool, which keeps blocking reads off the common ForkJoinPool the analysis
+ * runs on; implementations with a naturally non-blocking source should override them.
+ *
+ * Each retrieval can also be consumed as a Stream, so records can be processed as they are read rather than after the
+ * whole collection has been loaded. By default these simply stream the List from the blocking method; implementations
+ * that can read their source incrementally should override them.
+ *
+ * When only a few debts are of interest, just their records can be retrieved: debts by id, the payment plans for
+ * those debts, and the payments made against those plans. By default these retrieve the whole collection and filter
+ * it, so every implementation supports them; implementations whose source can be queried should override them to
+ * retrieve only the matching records.
  */
 public interface DataRetriever {
     /**
@@ -30,4 +54,139 @@ public interface DataRetriever {
      * @throws Exception The specific exceptions that are thrown may vary per implementation.
      */
     List<Payment> getAllPayments() throws Exception;
-}
\ No newline at end of file
+
+    /**
+     * Starts retrieving all of the debts from the data source without blocking the caller.
+     * @return A CompletableFuture that completes with the same List getAllDebts would return, or completes
+     * exceptionally with the exception it would throw.
+     */
+    default CompletableFuture<List<Debt>> getAllDebtsAsync() {
+        return supplyAsync(this::getAllDebts);
+    }
+
+    /**
+     * Starts retrieving all of the payment plans from the data source without blocking the caller.
+     * @return A CompletableFuture that completes with the same List getAllPaymentPlans would return, or completes
+     * exceptionally with the exception it would throw.
+     */
+    default CompletableFuture<List<PaymentPlan>> getAllPaymentPlansAsync() {
+        return supplyAsync(this::getAllPaymentPlans);
+    }
+
+    /**
+     * Starts retrieving all of the payments from the data source without blocking the caller.
+     * @return A CompletableFuture that completes with the same List getAllPayments would return, or completes
+     * exceptionally with the exception it would throw.
+     */
+    default CompletableFuture<List<Payment>> getAllPaymentsAsync() {
+        return supplyAsync(this::getAllPayments);
+    }
+
+    /**
+     * Streams all of the debts from the data source. The Stream should be closed once it is no longer needed, since
+     * implementations may hold a connection or file open until it is.
+     * @return A sequential Stream of all of the debts in the data source.
+     * @throws Exception The specific exceptions that are thrown may vary per implementation.
+     */
+    default Stream<Debt> streamAllDebts() throws Exception {
+        return getAllDebts().stream();
+    }
+
+    /**
+     * Streams all of the payment plans from the data source. The Stream should be closed once it is no longer needed.
+     * @return A sequential Stream of all of the payment plans in the data source.
+     * @throws Exception The specific exceptions that are thrown may vary per implementation.
+     */
+    default Stream<PaymentPlan> streamAllPaymentPlans() throws Exception {
+        return getAllPaymentPlans().stream();
+    }
+
+    /**
+     * Streams all of the payments from the data source. The Stream should be closed once it is no longer needed.
+     * @return A sequential Stream of all of the payments in the data source.
+     * @throws Exception The specific exceptions that are thrown may vary per implementation.
+     */
+    default Stream<Payment> streamAllPayments() throws Exception {
+        return getAllPayments().stream();
+    }
+
+    /**
+     * Retrieves the debts with the given ids from the data source. Ids with no debt are ignored.
+     * @param debtIds The ids of the debts to retrieve.
+     * @return A List of the matching Debt objects.
+     * @throws Exception The specific exceptions that are thrown may vary per implementation.
+     */
+    default List<Debt> getDebtsByIds(Collection<Integer> debtIds) throws Exception {
+        return filter(getAllDebts(), Debt::getId, debtIds);
+    }
+
+    /**
+     * Retrieves the payment plans for the debts with the given ids from the data source.
+     * @param debtIds The ids of the debts whose payment plans to retrieve.
+     * @return A List of the PaymentPlan objects for those debts.
+     * @throws Exception The specific exceptions that are thrown may vary per implementation.
+     */
+    default List<PaymentPlan> getPaymentPlansByDebtIds(Collection<Integer> debtIds) throws Exception {
+        return filter(getAllPaymentPlans(), PaymentPlan::getDebtId, debtIds);
+    }
+
+    /**
+     * Retrieves the payments made against the payment plans with the given ids from the data source.
+     * @param paymentPlanIds The ids of the payment plans whose payments to retrieve.
+     * @return A List of the Payment objects made against those payment plans.
+     * @throws Exception The specific exceptions that are thrown may vary per implementation.
+     */
+    default List<Payment> getPaymentsByPaymentPlanIds(Collection<Integer> paymentPlanIds) throws Exception {
+        return filter(getAllPayments(), Payment::getPaymentPlanId, paymentPlanIds);
+    }
+
+    /**
+     * Starts retrieving the debts with the given ids without blocking the caller.
+     * @param debtIds The ids of the debts to retrieve.
+     * @return A CompletableFuture that completes with the same List getDebtsByIds would return, or completes
+     * exceptionally with the exception it would throw.
+     */
+    default CompletableFuture<List<Debt>> getDebtsByIdsAsync(Collection<Integer> debtIds) {
+        return supplyAsync(() -> getDebtsByIds(debtIds));
+    }
+
+    /**
+     * Starts retrieving the payment plans for the debts with the given ids without blocking the caller.
+     * @param debtIds The ids of the debts whose payment plans to retrieve.
+     * @return A CompletableFuture that completes with the same List getPaymentPlansByDebtIds would return, or
+     * completes exceptionally with the exception it would throw.
+     */
+    default CompletableFuture<List<PaymentPlan>> getPaymentPlansByDebtIdsAsync(Collection<Integer> debtIds) {
+        return supplyAsync(() -> getPaymentPlansByDebtIds(debtIds));
+    }
+
+    /**
+     * Starts retrieving the payments made against the payment plans with the given ids without blocking the caller.
+     * @param paymentPlanIds The ids of the payment plans whose payments to retrieve.
+     * @return A CompletableFuture that completes with the same List getPaymentsByPaymentPlanIds would return, or
+     * completes exceptionally with the exception it would throw.
+     */
+    default CompletableFuture<List<Payment>> getPaymentsByPaymentPlanIdsAsync(Collection<Integer> paymentPlanIds) {
+        return supplyAsync(() -> getPaymentsByPaymentPlanIds(paymentPlanIds));
+    }
+
+    /**
+     * Keeps the records whose key is one of the given ids, in their original order.
+     */
+    private static <T> List<T> filter(List<T> records, ToIntFunction<T> key, Collection<Integer> ids) {
+        Set<Integer> idSet = new HashSet<>(Objects.requireNonNull(ids, "Cannot filter records: ids must not be null"));
+        return records.stream()
+                .filter(record -> idSet.contains(key.applyAsInt(record)))
+                .collect(Collectors.toList());
+    }
+
+    private static <T> CompletableFuture<T> supplyAsync(Callable<T> retrieval) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return retrieval.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, IOExecutor.get());
+    }
+}
@@ -0,0 +1,55 @@
+package interfaces;
+
+import java.util.Random;
+
+/**
+ * This interface describes a random distribution of numbers, such as how debt amounts or payment counts are spread
+ * across a generated portfolio (see PortfolioGenerator). Samples are drawn from a Random the caller provides, so the
+ * same seed always produces the same samples.
+ */
+@FunctionalInterface
+public interface Distribution {
+    /**
+     * Draws one sample from the distribution.
+     * @param random The source of randomness to draw from.
+     * @return The sample.
+     */
+    double sample(Random random);
+
+    /**
+     * @param value The only value to return.
+     * @return A distribution that always returns the same value.
+     */
+    static Distribution constant(double value) {
+        return random -> value;
+    }
+
+    /**
+     * @param min The smallest value to return.
+     * @param max The value all samples are smaller than. Must not be smaller than min.
+     * @return A distribution that returns any value from min up to max with equal likelihood.
+     */
+    static Distribution uniform(double min, double max) {
+        if (!(min <= max)) {
+            throw new IllegalArgumentException("Cannot create uniform distribution: min must not be greater than max");
+        }
+        return random -> min + random.nextDouble() * (max - min);
+    }
+
+    /**
+     * A log-normal distribution is skewed, with most samples near the median and a long tail of much larger ones,
+     * which is how amounts of money usually spread.
+     * @param median The value half of the samples fall below. Must be positive.
+     * @param sigma How spread out the samples are, as the standard deviation of their natural logarithm. Must not be
+     * negative.
+     * @return A log-normal distribution.
+     */
+    static Distribution logNormal(double median, double sigma) {
+        if (!(median > 0) || !(sigma >= 0)) {
+            throw new IllegalArgumentException(
+                    "Cannot create log-normal distribution: median must be positive and sigma must not be negative");
+        }
+        double mu = Math.log(median);
+        return random -> Math.exp(mu + sigma * random.nextGaussian());
+    }
+}
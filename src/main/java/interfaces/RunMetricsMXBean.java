@@ -0,0 +1,135 @@
+package interfaces;
+
+import java.util.Map;
+
+/**
+ * This interface describes the metrics of a run that are published over JMX, so a running application can be watched
+ * from JConsole, VisualVM, or any other JMX client (see RunMetrics). Every attribute is read-only, and reflects the
+ * run so far.
+ *
+ * Per-endpoint attributes are keyed by the endpoint's name, i.e. 'debts'. Times are summed over every request to the
+ * endpoint, so when requests overlap they can add up to more than the time that actually passed.
+ */
+public interface RunMetricsMXBean {
+    /**
+     * @return The number of requests answered successfully, per endpoint. A paginated endpoint makes one per page.
+     */
+    Map<String, Long> getRequestCounts();
+
+    /**
+     * @return The number of request attempts that failed, per endpoint, including those that were retried.
+     */
+    Map<String, Long> getFailedRequestCounts();
+
+    /**
+     * @return The number of response body bytes read, per endpoint, whether from the network or the response cache.
+     */
+    Map<String, Long> getResponseBytes();
+
+    /**
+     * @return The milliseconds spent waiting for responses to arrive, up to their headers, per endpoint.
+     */
+    Map<String, Long> getFetchMillis();
+
+    /**
+     * @return The milliseconds spent reading and unpacking response bodies into data objects, per endpoint.
+     */
+    Map<String, Long> getUnpackMillis();
+
+    /**
+     * @return The number of records unpacked, per endpoint.
+     */
+    Map<String, Long> getRecordCounts();
+
+    /**
+     * @return The milliseconds spent indexing the payment plans and payments for analysis.
+     */
+    long getIndexingMillis();
+
+    /**
+     * @return The milliseconds spent evaluating debts, summed over every debt. When debts are evaluated on several
+     * threads at once, this can add up to more than the time that actually passed.
+     */
+    long getTotalDebtEvaluationMillis();
+
+    /**
+     * @return The milliseconds spent writing output, not counting the time taken to compute it.
+     */
+    long getOutputMillis();
+
+    /**
+     * @return The number of bytes of output written.
+     */
+    long getOutputBytes();
+
+    /**
+     * @return The number of debts analyzed.
+     */
+    long getDebtCount();
+
+    /**
+     * @return The number of payment plans analyzed against.
+     */
+    long getPaymentPlanCount();
+
+    /**
+     * @return The number of payments analyzed against.
+     */
+    long getPaymentCount();
+
+    /**
+     * @return The number of payment plans whose debt is not among the debts analyzed. A debt's extra plans, which
+     * the analysis ignores, still belong to it and are not counted.
+     */
+    long getOrphanedPaymentPlanCount();
+
+    /**
+     * @return The number of payments made against a payment plan that does not exist.
+     */
+    long getOrphanedPaymentCount();
+
+    /**
+     * @return The mean time taken to evaluate one debt, in nanoseconds.
+     */
+    double getDebtLatencyMeanNanos();
+
+    /**
+     * @return The median time taken to evaluate one debt, in nanoseconds.
+     */
+    long getDebtLatencyP50Nanos();
+
+    /**
+     * @return The 90th percentile of the time taken to evaluate one debt, in nanoseconds.
+     */
+    long getDebtLatencyP90Nanos();
+
+    /**
+     * @return The 99th percentile of the time taken to evaluate one debt, in nanoseconds.
+     */
+    long getDebtLatencyP99Nanos();
+
+    /**
+     * @return The 99.9th percentile of the time taken to evaluate one debt, in nanoseconds.
+     */
+    long getDebtLatencyP999Nanos();
+
+    /**
+     * @return The longest time taken to evaluate one debt, in nanoseconds.
+     */
+    long getDebtLatencyMaxNanos();
+
+    /**
+     * @return The milliseconds since the run started.
+     */
+    long getElapsedMillis();
+
+    /**
+     * @return A description of the exception the run failed with, or null if it has not failed.
+     */
+    String getFailure();
+
+    /**
+     * @return Every metric, as a human-readable report.
+     */
+    String getSummary();
+}
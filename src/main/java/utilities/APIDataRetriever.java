@@ -4,26 +4,82 @@ import data.Debt;
 import data.Payment;
 import data.PaymentPlan;
 import enums.InstallmentFrequency;
+import events.HttpFetchEvent;
+import events.JSONUnpackEvent;
 import interfaces.DataRetriever;
-import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.NoSuchFileException;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.TimeZone;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
 
 /**
  * This class is a DataRetriever that gets it's data using an HTTP API.
+ *
+ * Every endpoint can be fetched asynchronously. The request is sent with the non-blocking HttpClient.sendAsync, and
+ * once the response arrives it is unpacked on the IOExecutor pool, so the three endpoints can be downloaded and
+ * parsed at the same time. Reading a body blocks until the rest of it arrives, so this is kept off the common
+ * ForkJoinPool, which is left free for the analysis. The blocking methods simply wait on their asynchronous counterparts.
+ *
+ * Response bodies are never read into memory whole. Each body is consumed as a stream, and its array elements are
+ * decoded into data objects one at a time as they arrive (see JSONArrayStreamReader). The streaming methods hand those
+ * objects straight to the caller, so they can be used before the rest of the response has arrived.
+ *
+ * Large collections can be retrieved in pages, using the json-server style '_page' and '_limit' query parameters. A
+ * bounded number of pages are requested ahead of the page currently being unpacked, and a page that fails to download
+ * is retried on its own, without starting the whole collection over. Only an empty page ends a collection, since a
+ * server may cap '_limit' and send short pages long before the end. A page whose body is the same as the page before
+ * it fails the retrieval, since the server is then ignoring '_page' and would otherwise be asked for pages forever.
+ *
+ * Responses can be kept in a DiskResponseCache. Cached responses no older than the cache's maximum staleness are used
+ * without contacting the server. Older ones are revalidated with a conditional request carrying their ETag and
+ * Last-Modified headers, and a '304 Not Modified' answer serves the cached body instead of downloading it again. In
+ * offline mode the server is never contacted, and a response that is not cached fails the retrieval.
+ *
+ * Records can also be retrieved for a subset of debts, filtered by the server with json-server style query parameters:
+ * '?id=' for debts, '?debt_id=' for payment plans, and '?payment_plan_id=' for payments, each repeated once per id.
+ * The ids are split into batches of at most MAX_IDS_PER_REQUEST, so URLs stay short, and the batches are requested
+ * concurrently. Each batch is paginated like a whole collection when a page size is set, but its pages are requested
+ * one after another, so that batches and pages together never have more than maxPagesInFlight requests outstanding.
+ *
+ * Requests can be measured in a RunMetrics. Each response is timed up to the arrival of its headers, then its body is
+ * timed while it is read and unpacked, and the bytes and records in it are counted. The same two phases are emitted
+ * to Java Flight Recorder as an HttpFetchEvent and a JSONUnpackEvent, whenever a recording is running.
  */
 public class APIDataRetriever implements DataRetriever {
     /**
@@ -32,18 +88,100 @@ public class APIDataRetriever implements DataRetriever {
      */
     private final String rootApiUrl;
     private final HttpClient httpClient;
-    private final SimpleDateFormat dateFormat;
+
+    /**
+     * The number of records to request per page, or 0 to request each collection in a single response.
+     */
+    private final int pageSize;
+
+    /**
+     * The most pages of one collection that may be requested or unpacking at the same time.
+     */
+    private final int maxPagesInFlight;
+
+    /**
+     * The most times a single request is attempted before the retrieval fails.
+     */
+    private final int maxAttemptsPerRequest;
+
+    /**
+     * How long to wait before retrying a failed request, multiplied by the number of attempts made so far.
+     */
+    private static final long RETRY_BACKOFF_MILLIS = 250;
+
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_NOT_MODIFIED = 304;
+
+    /**
+     * The most ids filtered on in a single request.
+     */
+    static final int MAX_IDS_PER_REQUEST = 100;
+
+    /**
+     * Where responses are cached between runs, or null if they are not cached.
+     */
+    private final DiskResponseCache responseCache;
+
+    /**
+     * Where requests are measured, or null if they are not.
+     */
+    private final RunMetrics metrics;
 
     public APIDataRetriever(String rootApiUrl) {
+        this(rootApiUrl, 0, 1, 1);
+    }
+
+    public APIDataRetriever(String rootApiUrl, int pageSize, int maxPagesInFlight, int maxAttemptsPerRequest) {
+        this(rootApiUrl, pageSize, maxPagesInFlight, maxAttemptsPerRequest, null);
+    }
+
+    /**
+     * Creates a retriever that requests collections in pages, and optionally caches the responses.
+     * @param rootApiUrl The base URL that the API calls will extend. Expecting a '/' at the end.
+     * @param pageSize The number of records to request per page, or 0 to request each collection in one response.
+     * @param maxPagesInFlight The most pages of one collection that may be requested ahead of the page being
+     * unpacked, including that page, and the most batches of ids that may be requested at once. Must be at least 1.
+     * @param maxAttemptsPerRequest The most times a single page is requested before the retrieval fails. Only
+     * connection failures and non 'OK' responses are retried, never malformed data. Must be at least 1.
+     * @param responseCache Where to cache responses between runs, or null to always download them.
+     */
+    public APIDataRetriever(String rootApiUrl, int pageSize, int maxPagesInFlight, int maxAttemptsPerRequest,
+                            DiskResponseCache responseCache) {
+        this(rootApiUrl, pageSize, maxPagesInFlight, maxAttemptsPerRequest, responseCache, null);
+    }
+
+    /**
+     * Creates a retriever that requests collections in pages, optionally caches the responses, and optionally
+     * measures every request.
+     * @param rootApiUrl The base URL that the API calls will extend. Expecting a '/' at the end.
+     * @param pageSize The number of records to request per page, or 0 to request each collection in one response.
+     * @param maxPagesInFlight The most pages of one collection that may be requested ahead of the page being
+     * unpacked, including that page, and the most batches of ids that may be requested at once. Must be at least 1.
+     * @param maxAttemptsPerRequest The most times a single page is requested before the retrieval fails. Must be at
+     * least 1.
+     * @param responseCache Where to cache responses between runs, or null to always download them.
+     * @param metrics Where to measure requests, or null to not measure them.
+     */
+    public APIDataRetriever(String rootApiUrl, int pageSize, int maxPagesInFlight, int maxAttemptsPerRequest,
+                            DiskResponseCache responseCache, RunMetrics metrics) {
+        if (pageSize < 0) {
+            throw new IllegalArgumentException("Cannot construct APIDataRetriever: pageSize must not be negative");
+        }
+        if (maxPagesInFlight < 1) {
+            throw new IllegalArgumentException("Cannot construct APIDataRetriever: maxPagesInFlight must be at least 1");
+        }
+        if (maxAttemptsPerRequest < 1) {
+            throw new IllegalArgumentException(
+                    "Cannot construct APIDataRetriever: maxAttemptsPerRequest must be at least 1");
+        }
+
         this.rootApiUrl = rootApiUrl;
         this.httpClient = HttpClient.newBuilder().build();
-
-        // Note: The format the endpoint is returning does not match the spec description. The spec says dates will be
-        // in ISO 8601, but the dates are being returned in yyyy-MM-dd format. The input here can be changed to ISO 8601
-        // if the endpoint is modified to return what the spec describes.
-        this.dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-        // Since the endpoint is not telling us time zone, we'll assume UTC.
-        dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        this.pageSize = pageSize;
+        this.maxPagesInFlight = maxPagesInFlight;
+        this.maxAttemptsPerRequest = maxAttemptsPerRequest;
+        this.responseCache = responseCache;
+        this.metrics = metrics;
     }
 
     /**
@@ -57,27 +195,12 @@ public class APIDataRetriever implements DataRetriever {
      * @throws JSONException if the json objects returned by the endpoint are malformed.
      */
     public List<Debt> getAllDebts() throws IOException,  ConnectException, InterruptedException, JSONException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(rootApiUrl + "debts"))
-                .GET()
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200) {
-            throw new ConnectException();
-        }
-
-        JSONArray jsonDebts = new JSONArray(response.body());
-
-        List<Debt> unpackedDebts = new ArrayList<>();
-        for (int index = 0; index < jsonDebts.length(); index++) {
-            JSONObject jsonDebt = jsonDebts.getJSONObject(index);
-            Debt unpackedDebt = new Debt(jsonDebt.getInt("id"), jsonDebt.getDouble("amount"));
-            unpackedDebts.add(unpackedDebt);
+        try {
+            return await(getAllDebtsAsync());
+        } catch (ParseException e) {
+            // Debts carry no dates, so unpacking them never parses one.
+            throw new IllegalStateException(e);
         }
-
-        return unpackedDebts;
     }
 
     /**
@@ -93,34 +216,7 @@ public class APIDataRetriever implements DataRetriever {
      */
     public List<PaymentPlan> getAllPaymentPlans() throws IOException,  ConnectException, InterruptedException,
             JSONException, ParseException  {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(rootApiUrl + "payment_plans"))
-                .GET()
-                .build();
-
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-        if (response.statusCode() != 200) {
-            throw new ConnectException();
-        }
-
-        JSONArray jsonPaymentPlans = new JSONArray(response.body());
-
-        List<PaymentPlan> unpackedPaymentPlans = new ArrayList<>();
-        for (int index = 0; index < jsonPaymentPlans.length(); index++) {
-            JSONObject jsonPaymentPlan = jsonPaymentPlans.getJSONObject(index);
-            Date startDate = dateFormat.parse(jsonPaymentPlan.getString("start_date"));
-            PaymentPlan unpackedDebt = new PaymentPlan(
-                    jsonPaymentPlan.getInt("id"),
-                    jsonPaymentPlan.getInt("debt_id"),
-                    jsonPaymentPlan.getDouble("amount_to_pay"),
-                    InstallmentFrequency.valueOf(jsonPaymentPlan.getString("installment_frequency")),
-                    jsonPaymentPlan.getDouble("installment_amount"),
-                    startDate);
-            unpackedPaymentPlans.add(unpackedDebt);
-        }
-
-        return unpackedPaymentPlans;
+        return await(getAllPaymentPlansAsync());
     }
 
     /**
@@ -136,30 +232,996 @@ public class APIDataRetriever implements DataRetriever {
      */
     public List<Payment> getAllPayments() throws IOException, ConnectException, InterruptedException, JSONException,
             ParseException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(rootApiUrl + "payments"))
-                .GET()
-                .build();
+        return await(getAllPaymentsAsync());
+    }
+
+    /**
+     * Starts retrieving all debts from the API without blocking. The future completes exceptionally with the same
+     * exceptions getAllDebts would throw.
+     * @return A CompletableFuture that completes with a List of all Debt objects in the data source.
+     */
+    @Override
+    public CompletableFuture<List<Debt>> getAllDebtsAsync() {
+        return fetchAsync("debts", APIDataRetriever::debtReader);
+    }
+
+    /**
+     * Starts retrieving all payment plans from the API without blocking. The future completes exceptionally with the
+     * same exceptions getAllPaymentPlans would throw.
+     * @return A CompletableFuture that completes with a List of all PaymentPlan objects in the data source.
+     */
+    @Override
+    public CompletableFuture<List<PaymentPlan>> getAllPaymentPlansAsync() {
+        return fetchAsync("payment_plans", APIDataRetriever::paymentPlanReader);
+    }
+
+    /**
+     * Starts retrieving all payments from the API without blocking. The future completes exceptionally with the same
+     * exceptions getAllPayments would throw.
+     * @return A CompletableFuture that completes with a List of all Payment objects in the data source.
+     */
+    @Override
+    public CompletableFuture<List<Payment>> getAllPaymentsAsync() {
+        return fetchAsync("payments", APIDataRetriever::paymentReader);
+    }
+
+    /**
+     * Retrieves only the debts with the given ids from the API, filtered by the server. See getAllDebts.
+     * @param debtIds The ids of the debts to retrieve. Ids with no debt are ignored.
+     * @return A List of the matching Debt objects, batch by batch in the order the ids were given, and within each
+     * batch in the order the API returns them.
+     * @throws IOException If a request fails, or a response is not 'OK' (200).
+     * @throws InterruptedException If the HttpRequest is cut off midway through processing.
+     * @throws JSONException if the json objects returned by the endpoint are malformed.
+     */
+    @Override
+    public List<Debt> getDebtsByIds(Collection<Integer> debtIds) throws IOException, InterruptedException,
+            JSONException {
+        try {
+            return await(getDebtsByIdsAsync(debtIds));
+        } catch (ParseException e) {
+            // Debts carry no dates, so unpacking them never parses one.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Retrieves only the payment plans for the debts with the given ids from the API, filtered by the server. See
+     * getAllPaymentPlans.
+     * @param debtIds The ids of the debts whose payment plans to retrieve.
+     * @return A List of the PaymentPlan objects for those debts, ordered as getDebtsByIds orders debts.
+     * @throws IOException If a request fails, or a response is not 'OK' (200).
+     * @throws InterruptedException If the HttpRequest is cut off midway through processing.
+     * @throws JSONException If the json objects returned by the endpoint are malformed.
+     * @throws ParseException If the date in the json is not formatted as expected.
+     */
+    @Override
+    public List<PaymentPlan> getPaymentPlansByDebtIds(Collection<Integer> debtIds) throws IOException,
+            InterruptedException, JSONException, ParseException {
+        return await(getPaymentPlansByDebtIdsAsync(debtIds));
+    }
+
+    /**
+     * Retrieves only the payments made against the payment plans with the given ids from the API, filtered by the
+     * server. See getAllPayments.
+     * @param paymentPlanIds The ids of the payment plans whose payments to retrieve.
+     * @return A List of the Payment objects made against those payment plans, ordered as getDebtsByIds orders debts.
+     * @throws IOException If a request fails, or a response is not 'OK' (200).
+     * @throws InterruptedException If the HttpRequest is cut off midway through processing.
+     * @throws JSONException If the json objects returned by the endpoint are malformed.
+     * @throws ParseException If the date in the json is not formatted as expected.
+     */
+    @Override
+    public List<Payment> getPaymentsByPaymentPlanIds(Collection<Integer> paymentPlanIds) throws IOException,
+            InterruptedException, JSONException, ParseException {
+        return await(getPaymentsByPaymentPlanIdsAsync(paymentPlanIds));
+    }
+
+    /**
+     * Starts retrieving the debts with the given ids without blocking. See getDebtsByIds.
+     * @param debtIds The ids of the debts to retrieve.
+     * @return A CompletableFuture that completes with a List of the matching Debt objects.
+     */
+    @Override
+    public CompletableFuture<List<Debt>> getDebtsByIdsAsync(Collection<Integer> debtIds) {
+        return fetchByIdsAsync("debts", "id", debtIds, APIDataRetriever::debtReader);
+    }
+
+    /**
+     * Starts retrieving the payment plans for the debts with the given ids without blocking. See
+     * getPaymentPlansByDebtIds.
+     * @param debtIds The ids of the debts whose payment plans to retrieve.
+     * @return A CompletableFuture that completes with a List of the PaymentPlan objects for those debts.
+     */
+    @Override
+    public CompletableFuture<List<PaymentPlan>> getPaymentPlansByDebtIdsAsync(Collection<Integer> debtIds) {
+        return fetchByIdsAsync("payment_plans", "debt_id", debtIds, APIDataRetriever::paymentPlanReader);
+    }
+
+    /**
+     * Starts retrieving the payments made against the payment plans with the given ids without blocking. See
+     * getPaymentsByPaymentPlanIds.
+     * @param paymentPlanIds The ids of the payment plans whose payments to retrieve.
+     * @return A CompletableFuture that completes with a List of the Payment objects made against those payment plans.
+     */
+    @Override
+    public CompletableFuture<List<Payment>> getPaymentsByPaymentPlanIdsAsync(Collection<Integer> paymentPlanIds) {
+        return fetchByIdsAsync("payments", "payment_plan_id", paymentPlanIds, APIDataRetriever::paymentReader);
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Streams all debts from the API. The request is sent straight away, but records are only decoded as the Stream
+     * pulls them, so the first debts can be used while the rest are still downloading. The Stream should be closed
+     * once it is no longer needed, to release the connection.
+     * @return A sequential Stream of all Debt objects in the data source, in the order the API returns them.
+     * @throws IOException If the request fails, or the response is not 'OK' (200).
+     * @throws InterruptedException If the HttpRequest is cut off midway through processing.
+     */
+    @Override
+    public Stream<Debt> streamAllDebts() throws IOException, InterruptedException {
+        return streamAll("debts", APIDataRetriever::debtReader);
+    }
 
-        if (response.statusCode() != 200) {
-            throw new ConnectException();
+    /**
+     * Streams all payment plans from the API. See streamAllDebts.
+     * @return A sequential Stream of all PaymentPlan objects in the data source, in the order the API returns them.
+     * @throws IOException If the request fails, or the response is not 'OK' (200).
+     * @throws InterruptedException If the HttpRequest is cut off midway through processing.
+     */
+    @Override
+    public Stream<PaymentPlan> streamAllPaymentPlans() throws IOException, InterruptedException {
+        return streamAll("payment_plans", APIDataRetriever::paymentPlanReader);
+    }
+
+    /**
+     * Streams all payments from the API. See streamAllDebts.
+     * @return A sequential Stream of all Payment objects in the data source, in the order the API returns them.
+     * @throws IOException If the request fails, or the response is not 'OK' (200).
+     * @throws InterruptedException If the HttpRequest is cut off midway through processing.
+     */
+    @Override
+    public Stream<Payment> streamAllPayments() throws IOException, InterruptedException {
+        return streamAll("payments", APIDataRetriever::paymentReader);
+    }
+
+    /**
+     * Retrieves every record of one endpoint, either in a single request or page by page depending on how this
+     * retriever was configured.
+     * @param leaf The path of the endpoint relative to the root url, i.e. 'debts'.
+     * @param readerFactory Opens a reader over the body of a response.
+     * @return A CompletableFuture that completes with all of the unpacked data objects, in the order the API returned
+     * them.
+     */
+    private <T> CompletableFuture<List<T>> fetchAsync(String leaf, ReaderFactory<T> readerFactory) {
+        if (pageSize == 0) {
+            CompletableFuture<Page<T>> page = fetchAndReadAsync(URI.create(rootApiUrl + leaf), readerFactory);
+            CompletableFuture<List<T>> records = page.thenApply(Page::getRecords);
+            // Cancelling a dependent future leaves the one it depends on running, so the request is cancelled too.
+            records.whenComplete((result, throwable) -> {
+                if (records.isCancelled()) {
+                    page.cancel(true);
+                }
+            });
+            return records;
         }
 
-        JSONArray jsonPayments = new JSONArray(response.body());
+        CompletableFuture<List<T>> allRecords = new CompletableFuture<>();
+        new PagedFetch<>(leaf, readerFactory, allRecords).start();
+        return allRecords;
+    }
 
-        List<Payment> unpackedPayments = new ArrayList<>();
-        for (int index = 0; index < jsonPayments.length(); index++) {
-            JSONObject jsonPayment = jsonPayments.getJSONObject(index);
-            Date date = dateFormat.parse(jsonPayment.getString("date"));
-            Payment unpackedPayment = new Payment(
-                    jsonPayment.getInt("payment_plan_id"),
-                    jsonPayment.getDouble("amount"),
-                    date);
-            unpackedPayments.add(unpackedPayment);
+    /**
+     * Retrieves the records of one endpoint whose field matches one of the given ids. Duplicate ids are dropped, the
+     * rest are split into batches of MAX_IDS_PER_REQUEST, and the batches are retrieved by a BatchedFetch, which keeps
+     * no more than maxPagesInFlight requests outstanding across all of them. No ids means no records, so nothing is
+     * requested.
+     * @param leaf The path of the endpoint relative to the root url, i.e. 'debts'.
+     * @param parameter The query parameter the endpoint filters the field on, i.e. 'id'.
+     * @param ids The ids to filter on.
+     * @param readerFactory Opens a reader over the body of a response.
+     * @return A CompletableFuture that completes with the matching data objects, batch by batch in the order the ids
+     * were given.
+     */
+    private <T> CompletableFuture<List<T>> fetchByIdsAsync(String leaf, String parameter, Collection<Integer> ids,
+                                                           ReaderFactory<T> readerFactory) {
+        Objects.requireNonNull(ids, "Cannot retrieve " + leaf + " by id: ids must not be null");
+
+        List<String> batchLeaves = new ArrayList<>();
+        StringBuilder batchLeaf = new StringBuilder();
+        int idsInBatch = 0;
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            Objects.requireNonNull(id, "Cannot retrieve " + leaf + " by id: ids must not contain null");
+            batchLeaf.append(idsInBatch == 0 ? leaf + "?" : "&").append(parameter).append('=').append(id);
+            if (++idsInBatch == MAX_IDS_PER_REQUEST) {
+                batchLeaves.add(batchLeaf.toString());
+                batchLeaf.setLength(0);
+                idsInBatch = 0;
+            }
+        }
+        if (idsInBatch > 0) {
+            batchLeaves.add(batchLeaf.toString());
         }
 
-        return unpackedPayments;
+        CompletableFuture<List<T>> allRecords = new CompletableFuture<>();
+        new BatchedFetch<>(batchLeaves, readerFactory, allRecords).start();
+        return allRecords;
+    }
+
+    /**
+     * Streams every record of one endpoint. Unpaginated endpoints are decoded straight off the response body as the
+     * Stream is pulled. Paginated endpoints are requested with the same bounded look-ahead as fetchAsync, but pages
+     * are handed to the Stream one at a time as they arrive.
+     * @param leaf The path of the endpoint relative to the root url, i.e. 'debts'.
+     * @param readerFactory Opens a reader over the body of a response.
+     * @return A sequential Stream of the data objects. Failures while the Stream is being consumed are thrown as an
+     * UncheckedIOException for connection problems, or a JSONException for malformed data.
+     */
+    private <T> Stream<T> streamAll(String leaf, ReaderFactory<T> readerFactory)
+            throws IOException, InterruptedException {
+        if (pageSize != 0) {
+            PageIterator<T> pages = new PageIterator<>(leaf, readerFactory);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED), false)
+                    .onClose(pages::cancelPagesInFlight)
+                    .flatMap(List::stream);
+        }
+
+        InputStream body;
+        try {
+            body = await(withRetryAsync(() -> openMeasuredBodyAsync(URI.create(rootApiUrl + leaf)), 1));
+        } catch (ParseException e) {
+            // Only the response headers have been received, so nothing has been parsed yet.
+            throw new IllegalStateException(e);
+        }
+
+        try {
+            Stream<T> records = readerFactory.open(body).stream();
+            JSONUnpackEvent event = new JSONUnpackEvent();
+            if (metrics != null || event.isEnabled()) {
+                records = measureUnpack(leaf, records, (CountingInputStream) body, event);
+            }
+            return records.onClose(() -> {
+                try {
+                    body.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            body.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Requests one page of a paginated endpoint.
+     * @param leaf The path of the endpoint relative to the root url, i.e. 'debts'.
+     * @param pageNumber The number of the page to request, starting from 1.
+     * @param readerFactory Opens a reader over the body of the response.
+     * @return A CompletableFuture that completes with the page.
+     */
+    private <T> CompletableFuture<Page<T>> fetchPageAsync(String leaf, int pageNumber, ReaderFactory<T> readerFactory) {
+        String separator = leaf.contains("?") ? "&" : "?";
+        URI pageUri = URI.create(rootApiUrl + leaf + separator + "_page=" + pageNumber + "&_limit=" + pageSize);
+        return fetchAndReadAsync(pageUri, readerFactory);
+    }
+
+    /**
+     * Requests one URI and reads every record in its body, retrying the whole request if it fails to connect, the
+     * response is not 'OK' (200), or the connection drops while the body is being read.
+     *
+     * Cancelling the returned future abandons the request: a body being read is closed, which drops its connection, a
+     * response whose headers have not arrived yet has its body closed unread as soon as they do, and no further
+     * attempts are made.
+     * @param uri The URI to request.
+     * @param readerFactory Opens a reader over the body of the response.
+     * @return A CompletableFuture that completes with the unpacked data objects, as a Page.
+     */
+    private <T> CompletableFuture<Page<T>> fetchAndReadAsync(URI uri, ReaderFactory<T> readerFactory) {
+        ResponseConnection connection = new ResponseConnection();
+        CompletableFuture<Page<T>> page = withRetryAsync(() -> {
+            if (connection.isAbandoned()) {
+                return CompletableFuture.failedFuture(new CancellationException());
+            }
+            return openMeasuredBodyAsync(uri).thenApply(connection::attach).thenApplyAsync(openedBody -> {
+                try (InputStream body = openedBody) {
+                    JSONUnpackEvent event = new JSONUnpackEvent();
+                    event.begin();
+                    long start = System.nanoTime();
+                    List<T> records = readerFactory.open(body).readAll();
+                    CountingInputStream countingBody = (CountingInputStream) body;
+                    long bytes = countingBody.getCount();
+                    if (metrics != null) {
+                        metrics.recordUnpack(endpointOf(uri), System.nanoTime() - start, records.size(), bytes);
+                    }
+                    commitUnpackEvent(event, endpointOf(uri), records.size(), bytes);
+                    return new Page<>(records, bytes, countingBody.getChecksum());
+                } catch (IOException | ParseException e) {
+                    throw new CompletionException(e);
+                } finally {
+                    connection.detach();
+                }
+            }, IOExecutor.get());
+        }, 1);
+        page.whenComplete((records, throwable) -> {
+            if (page.isCancelled()) {
+                connection.abandon();
+            }
+        });
+        return page;
+    }
+
+    /**
+     * Opens the body of a URI's response, from the cache where possible and otherwise with a GET request. The future
+     * completes once the response headers have arrived, and the body is left for the caller to read and close.
+     * @param uri The URI to request.
+     * @return A CompletableFuture that completes with the response body. It completes exceptionally with a
+     * ConnectException if the response status is not 'OK' (200), a NoSuchFileException if offline and the response is
+     * not cached, or with whatever the request threw.
+     */
+    private CompletableFuture<InputStream> openBodyAsync(URI uri) {
+        if (responseCache == null) {
+            return sendAsync(uri, null).thenApply(HttpResponse::body);
+        }
+
+        DiskResponseCache.Entry cached = responseCache.lookup(uri);
+        if (responseCache.isOffline() && cached == null) {
+            return CompletableFuture.failedFuture(
+                    new NoSuchFileException(uri.toString(), null, "not in the response cache while offline"));
+        }
+        if (cached != null && (responseCache.isOffline() || responseCache.isFresh(cached))) {
+            return openCachedBody(cached);
+        }
+
+        return sendAsync(uri, cached).thenCompose(response -> {
+            try {
+                if (response.statusCode() == STATUS_NOT_MODIFIED) {
+                    response.body().close();
+                    responseCache.markRevalidated(cached);
+                    return openCachedBody(cached);
+                }
+                return CompletableFuture.completedFuture(responseCache.store(uri,
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null),
+                        response.body()));
+            } catch (IOException e) {
+                try {
+                    response.body().close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    /**
+     * Opens the body of a URI's response as openBodyAsync does, measuring the request in this retriever's metrics, if
+     * it has any, and as an HttpFetchEvent. The body is then wrapped so the bytes read from it are counted.
+     * @param uri The URI to request.
+     * @return A CompletableFuture that completes with the response body, as a CountingInputStream.
+     */
+    private CompletableFuture<InputStream> openMeasuredBodyAsync(URI uri) {
+        String endpoint = endpointOf(uri);
+        HttpFetchEvent event = new HttpFetchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        return openBodyAsync(uri).handle((body, throwable) -> {
+            event.end();
+            if (event.shouldCommit()) {
+                event.endpoint = endpoint;
+                event.uri = uri.toString();
+                event.succeeded = throwable == null;
+                event.commit();
+            }
+
+            if (throwable != null) {
+                if (metrics != null) {
+                    metrics.recordFailedRequest(endpoint);
+                }
+                throw throwable instanceof CompletionException
+                        ? (CompletionException) throwable
+                        : new CompletionException(throwable);
+            }
+            if (metrics != null) {
+                metrics.recordRequest(endpoint, System.nanoTime() - start);
+            }
+            return new CountingInputStream(body);
+        });
+    }
+
+    /**
+     * Wraps a Stream of records being decoded from a response body, so the time spent decoding them is measured. The
+     * records, bytes, and time are recorded in this retriever's metrics, if it has any, and the JSONUnpackEvent is
+     * committed, when the Stream is closed.
+     */
+    private <T> Stream<T> measureUnpack(String endpoint, Stream<T> records, CountingInputStream body,
+                                        JSONUnpackEvent event) {
+        event.begin();
+        Iterator<T> iterator = records.iterator();
+        long[] unpackNanos = new long[1];
+        long[] recordCount = new long[1];
+        Iterator<T> measuredIterator = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                long start = System.nanoTime();
+                try {
+                    return iterator.hasNext();
+                } finally {
+                    unpackNanos[0] += System.nanoTime() - start;
+                }
+            }
+
+            @Override
+            public T next() {
+                long start = System.nanoTime();
+                try {
+                    T record = iterator.next();
+                    recordCount[0]++;
+                    return record;
+                } finally {
+                    unpackNanos[0] += System.nanoTime() - start;
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(measuredIterator, Spliterator.ORDERED), false)
+                .onClose(records::close)
+                .onClose(() -> {
+                    if (metrics != null) {
+                        metrics.recordUnpack(endpoint, unpackNanos[0], recordCount[0], body.getCount());
+                    }
+                    commitUnpackEvent(event, endpoint, recordCount[0], body.getCount());
+                });
+    }
+
+    private static void commitUnpackEvent(JSONUnpackEvent event, String endpoint, long recordCount, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = endpoint;
+            event.recordCount = recordCount;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return The name of the endpoint a URI requests, which is the last segment of its path, i.e. 'debts'.
+     */
+    private static String endpointOf(URI uri) {
+        String path = uri.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static CompletableFuture<InputStream> openCachedBody(DiskResponseCache.Entry cached) {
+        try {
+            return CompletableFuture.completedFuture(cached.openBody());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends a single GET request, made conditional on the cached entry having changed if one is given.
+     * @param uri The URI to request.
+     * @param cached The cached response for the URI, or null if there is none.
+     * @return A CompletableFuture that completes with the response. It completes exceptionally with a
+     * ConnectException if the response status is neither 'OK' (200) nor, when revalidating a cached entry, 'Not
+     * Modified' (304), or with whatever the request threw.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> sendAsync(URI uri, DiskResponseCache.Entry cached) {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+                .uri(uri)
+                .GET();
+        if (cached != null && cached.getEtag() != null) {
+            requestBuilder.header("If-None-Match", cached.getEtag());
+        }
+        if (cached != null && cached.getLastModified() != null) {
+            requestBuilder.header("If-Modified-Since", cached.getLastModified());
+        }
+
+        return httpClient.sendAsync(requestBuilder.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    boolean notModified = cached != null && response.statusCode() == STATUS_NOT_MODIFIED;
+                    if (response.statusCode() != STATUS_OK && !notModified) {
+                        try {
+                            response.body().close();
+                        } catch (IOException e) {
+                            // The response is being rejected anyway.
+                        }
+                        throw new CompletionException(new ConnectException());
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * Runs an asynchronous request, and runs it again after a short delay if it fails with an IOException, up to
+     * maxAttemptsPerRequest attempts in total. The JSON reader reports a connection dropped while a body is read as a
+     * JSONException caused by the IOException, so that is retried too, and fails with the IOException once no attempts
+     * are left. Malformed data is never retried, since asking again would give the same data.
+     * @param request Starts one attempt of the request.
+     * @param attempt The number of this attempt, starting from 1.
+     * @return A CompletableFuture that completes with the result of the first successful attempt.
+     */
+    private <R> CompletableFuture<R> withRetryAsync(Supplier<CompletableFuture<R>> request, int attempt) {
+        return request.get().exceptionallyCompose(throwable -> {
+            Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+            if (cause instanceof JSONException && cause.getCause() instanceof IOException) {
+                cause = cause.getCause();
+            }
+            if (!(cause instanceof IOException) || attempt >= maxAttemptsPerRequest) {
+                return CompletableFuture.failedFuture(cause);
+            }
+
+            Executor delayedExecutor = CompletableFuture.delayedExecutor(
+                    RETRY_BACKOFF_MILLIS * attempt, TimeUnit.MILLISECONDS, IOExecutor.get());
+            return CompletableFuture.runAsync(() -> { }, delayedExecutor)
+                    .thenCompose(ignored -> withRetryAsync(request, attempt + 1));
+        });
+    }
+
+    /**
+     * This class drives the retrieval of one paginated collection. It keeps up to maxPagesInFlight page requests
+     * outstanding, and consumes their results strictly in page order. Each time a page is consumed, the next page not
+     * yet requested is requested. The first empty page marks the end of the collection, and any pages requested past
+     * it are discarded. A page that repeats the one before it fails the retrieval.
+     *
+     * Pages are consumed one after another, each in a callback registered by the previous one, so the state here is
+     * only ever touched by one thread at a time.
+     */
+    private class PagedFetch<T> {
+        private final String leaf;
+        private final ReaderFactory<T> readerFactory;
+        private final CompletableFuture<List<T>> allRecords;
+        private final Deque<CompletableFuture<Page<T>>> pagesInFlight = new ArrayDeque<>();
+        private final List<T> records = new ArrayList<>();
+        private int nextPageNumber = 1;
+        private int pagesConsumed;
+        private Page<T> previousPage;
+
+        PagedFetch(String leaf, ReaderFactory<T> readerFactory, CompletableFuture<List<T>> allRecords) {
+            this.leaf = leaf;
+            this.readerFactory = readerFactory;
+            this.allRecords = allRecords;
+        }
+
+        void start() {
+            while (pagesInFlight.size() < maxPagesInFlight) {
+                requestNextPage();
+            }
+            consumeNextPage();
+        }
+
+        private void requestNextPage() {
+            pagesInFlight.add(fetchPageAsync(leaf, nextPageNumber++, readerFactory));
+        }
+
+        private void consumeNextPage() {
+            pagesInFlight.remove().whenCompleteAsync((page, throwable) -> {
+                if (throwable != null) {
+                    cancelAll(pagesInFlight);
+                    allRecords.completeExceptionally(throwable);
+                    return;
+                }
+
+                pagesConsumed++;
+                if (page.isEmpty()) {
+                    cancelAll(pagesInFlight);
+                    allRecords.complete(records);
+                    return;
+                }
+                if (page.repeats(previousPage)) {
+                    cancelAll(pagesInFlight);
+                    allRecords.completeExceptionally(repeatedPageException(leaf, pagesConsumed));
+                    return;
+                }
+
+                records.addAll(page.getRecords());
+                previousPage = page;
+                requestNextPage();
+                consumeNextPage();
+            }, IOExecutor.get());
+        }
+    }
+
+    /**
+     * This class drives the retrieval of the batches of one filtered retrieval. It runs up to maxPagesInFlight lanes,
+     * and each lane has exactly one request outstanding at a time: it requests a batch, page after page up to the
+     * first empty page when a page size is set, then moves on to the next batch not yet requested. The lanes share one
+     * budget, so however many batches and pages there are, no more than maxPagesInFlight requests are ever outstanding
+     * at once. The results are kept in batch order, whatever order they arrive in.
+     *
+     * The first request to fail fails the whole retrieval, and the requests still outstanding in the other lanes are
+     * cancelled, as they are if the retrieval itself is cancelled, which closes their connections (see
+     * fetchAndReadAsync). No further requests are started after that.
+     *
+     * Requests complete on whichever thread finishes them, so the shared state here is all atomic or concurrent.
+     */
+    private class BatchedFetch<T> {
+        private final List<String> batchLeaves;
+        private final ReaderFactory<T> readerFactory;
+        private final CompletableFuture<List<T>> allRecords;
+        private final AtomicReferenceArray<List<T>> batchRecords;
+        private final AtomicInteger nextBatch = new AtomicInteger();
+        private final AtomicInteger batchesRemaining;
+        private final Set<CompletableFuture<Page<T>>> requestsInFlight = ConcurrentHashMap.newKeySet();
+
+        BatchedFetch(List<String> batchLeaves, ReaderFactory<T> readerFactory, CompletableFuture<List<T>> allRecords) {
+            this.batchLeaves = batchLeaves;
+            this.readerFactory = readerFactory;
+            this.allRecords = allRecords;
+            this.batchRecords = new AtomicReferenceArray<>(batchLeaves.size());
+            this.batchesRemaining = new AtomicInteger(batchLeaves.size());
+        }
+
+        void start() {
+            if (batchLeaves.isEmpty()) {
+                allRecords.complete(new ArrayList<>());
+                return;
+            }
+            allRecords.whenComplete((records, throwable) -> {
+                if (throwable != null) {
+                    cancelRequestsInFlight();
+                }
+            });
+            for (int i = 0; i < Math.min(maxPagesInFlight, batchLeaves.size()); i++) {
+                requestNextBatch();
+            }
+        }
+
+        private void requestNextBatch() {
+            int batch = nextBatch.getAndIncrement();
+            if (batch >= batchLeaves.size() || allRecords.isDone()) {
+                return;
+            }
+
+            if (pageSize == 0) {
+                request(fetchAndReadAsync(URI.create(rootApiUrl + batchLeaves.get(batch)), readerFactory),
+                        page -> completeBatch(batch, page.getRecords()));
+            } else {
+                requestNextPage(batch, 1, new ArrayList<>(), null);
+            }
+        }
+
+        private void requestNextPage(int batch, int pageNumber, List<T> records, Page<T> previousPage) {
+            request(fetchPageAsync(batchLeaves.get(batch), pageNumber, readerFactory), page -> {
+                if (page.isEmpty()) {
+                    completeBatch(batch, records);
+                } else if (page.repeats(previousPage)) {
+                    allRecords.completeExceptionally(repeatedPageException(batchLeaves.get(batch), pageNumber));
+                } else {
+                    records.addAll(page.getRecords());
+                    requestNextPage(batch, pageNumber + 1, records, page);
+                }
+            });
+        }
+
+        /**
+         * Tracks a request while it is outstanding, and hands its page on once it succeeds, or fails the whole
+         * retrieval if it does not.
+         */
+        private void request(CompletableFuture<Page<T>> request, Consumer<Page<T>> onPage) {
+            requestsInFlight.add(request);
+            // A request started just as the retrieval failed could miss the sweep that cancelled the others.
+            if (allRecords.isDone()) {
+                request.cancel(true);
+            }
+            request.whenComplete((page, throwable) -> {
+                requestsInFlight.remove(request);
+                if (throwable != null) {
+                    allRecords.completeExceptionally(throwable);
+                } else if (!allRecords.isDone()) {
+                    onPage.accept(page);
+                }
+            });
+        }
+
+        private void completeBatch(int batch, List<T> records) {
+            batchRecords.set(batch, records);
+            if (batchesRemaining.decrementAndGet() == 0) {
+                List<T> combined = new ArrayList<>();
+                for (int i = 0; i < batchRecords.length(); i++) {
+                    combined.addAll(batchRecords.get(i));
+                }
+                allRecords.complete(combined);
+            } else {
+                requestNextBatch();
+            }
+        }
+
+        private void cancelRequestsInFlight() {
+            for (CompletableFuture<Page<T>> request : requestsInFlight) {
+                request.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * This class is the pull based counterpart of PagedFetch, used for streaming. It keeps the same bounded number of
+     * page requests outstanding, but only waits for a page, and requests the one after the window, when the consumer
+     * asks for it. A slow consumer therefore never has more than maxPagesInFlight pages buffered.
+     */
+    private class PageIterator<T> implements Iterator<List<T>> {
+        private final String leaf;
+        private final ReaderFactory<T> readerFactory;
+        private final Deque<CompletableFuture<Page<T>>> pagesInFlight = new ArrayDeque<>();
+        private int nextPageNumber = 1;
+        private int pagesConsumed;
+        private Page<T> previousPage;
+        private boolean finished;
+
+        PageIterator(String leaf, ReaderFactory<T> readerFactory) {
+            this.leaf = leaf;
+            this.readerFactory = readerFactory;
+            while (pagesInFlight.size() < maxPagesInFlight) {
+                pagesInFlight.add(fetchPageAsync(leaf, nextPageNumber++, readerFactory));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !finished;
+        }
+
+        @Override
+        public List<T> next() {
+            if (finished) {
+                throw new NoSuchElementException("Cannot read next page: the end of the collection has been reached");
+            }
+
+            Page<T> page;
+            try {
+                page = pagesInFlight.remove().join();
+            } catch (CompletionException e) {
+                cancelPagesInFlight();
+                throw uncheckedCause(e);
+            }
+
+            pagesConsumed++;
+            if (page.isEmpty()) {
+                cancelPagesInFlight();
+            } else if (page.repeats(previousPage)) {
+                cancelPagesInFlight();
+                throw new UncheckedIOException(repeatedPageException(leaf, pagesConsumed));
+            } else {
+                previousPage = page;
+                pagesInFlight.add(fetchPageAsync(leaf, nextPageNumber++, readerFactory));
+            }
+            return page.getRecords();
+        }
+
+        void cancelPagesInFlight() {
+            finished = true;
+            cancelAll(pagesInFlight);
+        }
+    }
+
+    private static <T> void cancelAll(Deque<CompletableFuture<Page<T>>> pagesInFlight) {
+        for (CompletableFuture<Page<T>> page : pagesInFlight) {
+            page.cancel(true);
+        }
+        pagesInFlight.clear();
+    }
+
+    /**
+     * @return The exception a paged retrieval fails with when a page comes back the same as the page before it.
+     */
+    private static IOException repeatedPageException(String leaf, int pageNumber) {
+        return new IOException("Cannot retrieve " + leaf + ": page " + pageNumber + " is the same as page "
+                + (pageNumber - 1) + ", so the server is ignoring '_page'");
+    }
+
+    /**
+     * Converts the cause of a failed asynchronous retrieval into an exception a Stream can throw.
+     */
+    private static RuntimeException uncheckedCause(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof IOException) {
+            return new UncheckedIOException((IOException) cause);
+        } else if (cause instanceof ParseException) {
+            return new JSONException(cause.getMessage(), cause);
+        }
+        return e;
+    }
+
+    /**
+     * Waits for an asynchronous retrieval to finish, then hands back its result or rethrows the exception it failed
+     * with, so the blocking methods throw exactly what they always have.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException, ParseException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ParseException) {
+                throw (ParseException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    static JSONArrayStreamReader<Debt> debtReader(InputStream body) {
+        return new JSONArrayStreamReader<>(body, APIDataRetriever::unpackDebt);
+    }
+
+    static JSONArrayStreamReader<PaymentPlan> paymentPlanReader(InputStream body) {
+        return new JSONArrayStreamReader<>(body, APIDataRetriever::unpackPaymentPlan);
+    }
+
+    static JSONArrayStreamReader<Payment> paymentReader(InputStream body) {
+        return new JSONArrayStreamReader<>(body, APIDataRetriever::unpackPayment);
+    }
+
+    private static Debt unpackDebt(JSONObject jsonDebt) {
+        return new Debt(jsonDebt.getInt("id"), jsonDebt.getDouble("amount"));
+    }
+
+    private static PaymentPlan unpackPaymentPlan(JSONObject jsonPaymentPlan) throws ParseException {
+        // Note: The format the endpoint is returning does not match the spec description. The spec says dates will be
+        // in ISO 8601, but the dates are being returned in yyyy-MM-dd format. EpochDayParser accepts both, and since
+        // the endpoint is not telling us time zone, plain dates are assumed to be in UTC.
+        int startEpochDay = EpochDayParser.parseEpochDay(jsonPaymentPlan.getString("start_date"));
+        return new PaymentPlan(
+                jsonPaymentPlan.getInt("id"),
+                jsonPaymentPlan.getInt("debt_id"),
+                jsonPaymentPlan.getDouble("amount_to_pay"),
+                InstallmentFrequency.valueOf(jsonPaymentPlan.getString("installment_frequency")),
+                jsonPaymentPlan.getDouble("installment_amount"),
+                startEpochDay);
+    }
+
+    private static Payment unpackPayment(JSONObject jsonPayment) throws ParseException {
+        int epochDay = EpochDayParser.parseEpochDay(jsonPayment.getString("date"));
+        return new Payment(
+                jsonPayment.getInt("payment_plan_id"),
+                jsonPayment.getDouble("amount"),
+                epochDay);
+    }
+
+    /**
+     * The body of the response to one request, across its attempts, so that abandoning the request closes it.
+     * Cancelling a CompletableFuture only completes the future, and the exchange and body read behind it would carry
+     * on regardless. From Java 16 the HttpClient cancels the exchange of the first attempt along with the futures
+     * derived from it, but no release does so for a retry, which runs in a future of its own. Once abandoned, the body
+     * being read, if any, is closed, which drops its connection and ends the read, and any body attached later is
+     * closed straight away.
+     */
+    private static final class ResponseConnection {
+        private InputStream body;
+        private boolean abandoned;
+
+        /**
+         * Tracks the body of an attempt whose response headers have arrived, closing it if the request has already
+         * been abandoned.
+         * @return The body, to be read and then detached.
+         */
+        synchronized InputStream attach(InputStream body) {
+            if (abandoned) {
+                closeQuietly(body);
+            } else {
+                this.body = body;
+            }
+            return body;
+        }
+
+        synchronized void detach() {
+            body = null;
+        }
+
+        synchronized boolean isAbandoned() {
+            return abandoned;
+        }
+
+        synchronized void abandon() {
+            abandoned = true;
+            if (body != null) {
+                closeQuietly(body);
+                body = null;
+            }
+        }
+
+        private static void closeQuietly(InputStream body) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                // The request is being abandoned, so there is nothing left to report the failure to.
+            }
+        }
+    }
+
+    /**
+     * The records of one response, along with the size and checksum of the body they were read from, so a page the
+     * server sends twice in a row can be recognized.
+     */
+    private static final class Page<T> {
+        private final List<T> records;
+        private final long bytes;
+        private final long checksum;
+
+        Page(List<T> records, long bytes, long checksum) {
+            this.records = records;
+            this.bytes = bytes;
+            this.checksum = checksum;
+        }
+
+        List<T> getRecords() {
+            return records;
+        }
+
+        boolean isEmpty() {
+            return records.isEmpty();
+        }
+
+        /**
+         * @param previousPage The page before this one, or null if this is the first page.
+         * @return Whether this page's body is the same as the previous page's.
+         */
+        boolean repeats(Page<T> previousPage) {
+            return previousPage != null
+                    && records.size() == previousPage.records.size()
+                    && bytes == previousPage.bytes
+                    && checksum == previousPage.checksum;
+        }
+    }
+
+    /**
+     * An InputStream that counts, and checksums, the bytes read through it.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final CRC32 checksum = new CRC32();
+        private long count;
+
+        CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getChecksum() {
+            return checksum.getValue();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+                checksum.update(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                count += read;
+                checksum.update(bytes, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * Opens a reader over the body of a response, ready to decode its records.
+     */
+    private interface ReaderFactory<T> {
+        JSONArrayStreamReader<T> open(InputStream body);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package utilities;
+
+import data.Debt;
+import data.DebtInfo;
+import data.Payment;
+import data.PaymentPlan;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * This class encodes data objects as JSON in exactly the shape the API returns them, so data generated or loaded
+ * locally can be served or saved as if it came from the API. Each method returns a single JSON object, for the caller
+ * to place in an array.
+ *
+ * The API has no DebtInfos, so they are encoded with the same field names and date format DebtInfo prints them with.
+ */
+final class APIJSONEncoder {
+    private APIJSONEncoder() {
+    }
+
+    static String encode(Debt debt) {
+        return "{\"amount\":" + debt.getAmount()
+                + ",\"id\":" + debt.getId() + "}";
+    }
+
+    static String encode(PaymentPlan paymentPlan) {
+        return "{\"amount_to_pay\":" + paymentPlan.getAmountToPay()
+                + ",\"debt_id\":" + paymentPlan.getDebtId()
+                + ",\"id\":" + paymentPlan.getId()
+                + ",\"installment_amount\":" + paymentPlan.getInstallmentAmount()
+                + ",\"installment_frequency\":\"" + paymentPlan.getInstallmentFrequency()
+                + "\",\"start_date\":\"" + paymentPlan.getStartDate() + "\"}";
+    }
+
+    static String encode(Payment payment) {
+        return "{\"amount\":" + payment.getAmount()
+                + ",\"date\":\"" + payment.getDate()
+                + "\",\"payment_plan_id\":" + payment.getPaymentPlanId() + "}";
+    }
+
+    static String encode(DebtInfo debtInfo) {
+        LocalDate dueDate = debtInfo.getNextPaymentDueDate();
+        String nextPaymentDueDate = dueDate != null
+                ? "\"" + DebtInfo.DATE_FORMAT.format(dueDate.atStartOfDay(ZoneOffset.UTC)) + "\""
+                : "null";
+        return "{\"amount\":" + debtInfo.getDebt().getAmount()
+                + ",\"id\":" + debtInfo.getDebt().getId()
+                + ",\"is_in_payment_plan\":" + debtInfo.getIsInPaymentPlan()
+                + ",\"next_payment_due_date\":" + nextPaymentDueDate
+                + ",\"remaining_amount\":" + debtInfo.getRemainingAmount() + "}";
+    }
+}
@@ -0,0 +1,507 @@
+package utilities;
+
+import org.json.JSONException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class reads a run of flat JSON objects straight out of a ByteBuffer, such as a region of a memory-mapped file,
+ * without copying the text into Strings or building a JSONObject for each record. The records may be the elements of
+ * a JSON array or the lines of a newline-delimited file; commas, brackets and whitespace between records are skipped.
+ *
+ * Records are read field by field. The caller names the fields it is interested in up front, and each field read is
+ * reported as the index of its name in that list, so matching a field costs a byte comparison rather than a String.
+ * Numbers are parsed from the bytes directly. Strings are handed back as a CharSequence over the buffer, and are only
+ * decoded into a String when they contain escapes or non-ASCII characters. Values the caller does not need are
+ * skipped without being parsed.
+ *
+ * A reader keeps a position in its buffer, so it must only be used by one thread. It only ever uses absolute gets, so
+ * any number of readers can share the same buffer.
+ */
+final class ByteBufferJSONReader {
+    /**
+     * Returned by nextField once the closing '}' of the record has been read.
+     */
+    static final int END_OF_RECORD = -1;
+
+    /**
+     * Returned by nextField for a field whose name is not in the list the caller is interested in.
+     */
+    static final int UNKNOWN_FIELD = -2;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The largest integer a double holds exactly, so a mantissa no larger than this, scaled by a power of ten that a
+     * double also holds exactly, gives a correctly rounded result with a single multiplication or division.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Mantissa digits past this value can no longer be accumulated without risking overflow.
+     */
+    private static final long MAX_ACCUMULATED_MANTISSA = 100_000_000_000_000_000L;
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final long sourceOffset;
+    private final String sourceName;
+    private final AsciiSequence asciiString = new AsciiSequence();
+    private int position;
+
+    private byte[][] fieldNames;
+    private int fieldsRead;
+    private long fieldsSeen;
+
+    /**
+     * Creates a reader over part of a buffer.
+     * @param buffer The buffer holding the records.
+     * @param position The index of the first byte to read.
+     * @param limit The index just past the last byte to read. Records must not straddle it.
+     * @param sourceOffset Where index 0 of the buffer falls in the source, so errors can report positions in the
+     * source rather than in the buffer.
+     * @param sourceName What the records are being read from, for error messages.
+     */
+    ByteBufferJSONReader(ByteBuffer buffer, int position, int limit, long sourceOffset, String sourceName) {
+        this.buffer = buffer;
+        this.position = position;
+        this.limit = limit;
+        this.sourceOffset = sourceOffset;
+        this.sourceName = sourceName;
+    }
+
+    /**
+     * Converts field names into the form nextField compares against.
+     * @param names The names of the fields, in the order their indexes should be reported.
+     * @return The names as ASCII bytes.
+     */
+    static byte[][] fieldNames(String... names) {
+        byte[][] fieldNames = new byte[names.length][];
+        for (int index = 0; index < names.length; index++) {
+            fieldNames[index] = names[index].getBytes(StandardCharsets.US_ASCII);
+        }
+        return fieldNames;
+    }
+
+    /**
+     * Moves to the start of the next record, skipping any whitespace, commas and brackets before it.
+     * @param fieldNames The names of the fields the caller wants to read from the record. At most 64.
+     * @return True if a record was found, or false if the end of the region has been reached.
+     * @throws JSONException If anything other than a record or a separator is found.
+     */
+    boolean nextRecord(byte[][] fieldNames) throws JSONException {
+        while (position < limit) {
+            byte next = buffer.get(position);
+            if (next == '{') {
+                position++;
+                this.fieldNames = fieldNames;
+                fieldsRead = 0;
+                fieldsSeen = 0;
+                return true;
+            }
+            if (!isWhitespace(next) && next != ',' && next != '[' && next != ']') {
+                throw syntaxError("Expected a JSON object");
+            }
+            position++;
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the value of the next field in the current record. The caller must then read or skip the value before
+     * asking for the next field.
+     * @return The index of the field's name in the list given to nextRecord, UNKNOWN_FIELD if its name is not in the
+     * list, or END_OF_RECORD if the record has no more fields.
+     * @throws JSONException If the record is malformed.
+     */
+    int nextField() throws JSONException {
+        skipWhitespace();
+        byte next = peek();
+        if (next == '}') {
+            position++;
+            return END_OF_RECORD;
+        }
+        if (fieldsRead > 0) {
+            if (next != ',') {
+                throw syntaxError("Expected a ',' or '}'");
+            }
+            position++;
+            skipWhitespace();
+        }
+        if (peek() != '"') {
+            throw syntaxError("Expected a field name");
+        }
+
+        int nameStart = position + 1;
+        boolean escaped = skipString();
+        int nameEnd = position - 1;
+        skipWhitespace();
+        if (peek() != ':') {
+            throw syntaxError("Expected a ':' after a field name");
+        }
+        position++;
+        skipWhitespace();
+        fieldsRead++;
+
+        if (!escaped) {
+            for (int index = 0; index < fieldNames.length; index++) {
+                if (regionEquals(nameStart, nameEnd, fieldNames[index])) {
+                    fieldsSeen |= 1L << index;
+                    return index;
+                }
+            }
+        }
+        return UNKNOWN_FIELD;
+    }
+
+    /**
+     * Checks that every field named in the list given to nextRecord was present in the record just read.
+     * @throws JSONException Naming the first field that was missing, if any.
+     */
+    void requireAllFields() throws JSONException {
+        for (int index = 0; index < fieldNames.length; index++) {
+            if ((fieldsSeen & (1L << index)) == 0) {
+                throw new JSONException("JSONObject[\"" + new String(fieldNames[index], StandardCharsets.US_ASCII)
+                        + "\"] not found in the record ending at byte " + (sourceOffset + position) + " of "
+                        + sourceName + ".");
+            }
+        }
+    }
+
+    /**
+     * Reads a number value as an int. Fractions are truncated, as JSONObject.getInt does.
+     * @throws JSONException If the value is not a number.
+     */
+    int readInt() throws JSONException {
+        int start = position;
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        while (position < limit && isDigit(buffer.get(position)) && digits < 10) {
+            value = value * 10 + (buffer.get(position++) - '0');
+            digits++;
+        }
+        if (digits > 0 && value <= Integer.MAX_VALUE && (position >= limit || isEndOfValue(buffer.get(position)))) {
+            return (int) (negative ? -value : value);
+        }
+
+        // Fractions, exponents and anything out of range take the general route.
+        position = start;
+        return (int) readDouble();
+    }
+
+    /**
+     * Reads a number value as a double, rounded exactly as Double.parseDouble would round it.
+     * @throws JSONException If the value is not a number.
+     */
+    double readDouble() throws JSONException {
+        int start = position;
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        int integerDigits = 0;
+        while (position < limit && isDigit(buffer.get(position))) {
+            if (mantissa < MAX_ACCUMULATED_MANTISSA) {
+                mantissa = mantissa * 10 + (buffer.get(position) - '0');
+            } else {
+                truncated = true;
+                exponent++;
+            }
+            position++;
+            integerDigits++;
+        }
+        if (integerDigits == 0) {
+            throw syntaxError("Expected a number");
+        }
+
+        if (position < limit && buffer.get(position) == '.') {
+            position++;
+            int fractionDigits = 0;
+            while (position < limit && isDigit(buffer.get(position))) {
+                if (mantissa < MAX_ACCUMULATED_MANTISSA) {
+                    mantissa = mantissa * 10 + (buffer.get(position) - '0');
+                    exponent--;
+                } else {
+                    truncated = true;
+                }
+                position++;
+                fractionDigits++;
+            }
+            if (fractionDigits == 0) {
+                throw syntaxError("Expected a digit after the decimal point");
+            }
+        }
+
+        if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < limit && (buffer.get(position) == '+' || buffer.get(position) == '-')) {
+                negativeExponent = buffer.get(position) == '-';
+                position++;
+            }
+            int explicitExponent = 0;
+            int exponentDigits = 0;
+            while (position < limit && isDigit(buffer.get(position))) {
+                explicitExponent = Math.min(explicitExponent * 10 + (buffer.get(position) - '0'), 100_000);
+                position++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                throw syntaxError("Expected a digit in the exponent");
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (position < limit && !isEndOfValue(buffer.get(position))) {
+            throw syntaxError("Malformed number");
+        }
+
+        double value;
+        if (!truncated && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+
+        // Too many digits or too large an exponent for the exact shortcut, which is rare enough to just copy out.
+        return Double.parseDouble(asciiString.of(start, position).toString());
+    }
+
+    /**
+     * Reads a string value. When the string is plain ASCII with no escapes, which is the usual case, the result is a
+     * view over the buffer that is only valid until the next string is read.
+     * @throws JSONException If the value is not a string.
+     */
+    CharSequence readString() throws JSONException {
+        if (peek() != '"') {
+            throw syntaxError("Expected a string");
+        }
+
+        int start = position + 1;
+        boolean escaped = skipString();
+        int end = position - 1;
+        if (!escaped) {
+            boolean ascii = true;
+            for (int index = start; index < end && ascii; index++) {
+                ascii = buffer.get(index) >= 0;
+            }
+            if (ascii) {
+                return asciiString.of(start, end);
+            }
+        }
+        return decodeString(start, end);
+    }
+
+    /**
+     * Skips over a value of any kind, including nested objects and arrays.
+     * @throws JSONException If the value is malformed.
+     */
+    void skipValue() throws JSONException {
+        byte next = peek();
+        if (next == '"') {
+            skipString();
+        } else if (next == '{' || next == '[') {
+            int depth = 0;
+            do {
+                next = peek();
+                if (next == '"') {
+                    skipString();
+                    continue;
+                }
+                if (next == '{' || next == '[') {
+                    depth++;
+                } else if (next == '}' || next == ']') {
+                    depth--;
+                }
+                position++;
+            } while (depth > 0);
+        } else {
+            int start = position;
+            while (position < limit && !isEndOfValue(buffer.get(position))) {
+                position++;
+            }
+            if (position == start) {
+                throw syntaxError("Expected a value");
+            }
+        }
+    }
+
+    /**
+     * Moves past a string, starting at its opening quote.
+     * @return True if the string contained any escapes.
+     */
+    private boolean skipString() throws JSONException {
+        position++;
+        boolean escaped = false;
+        while (true) {
+            byte next = peek();
+            position++;
+            if (next == '"') {
+                return escaped;
+            }
+            if (next == '\\') {
+                escaped = true;
+                peek();
+                position++;
+            } else if (next == '\n' || next == '\r') {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    /**
+     * Decodes a string that holds escapes or non-ASCII characters. The UTF-8 between escapes is decoded in runs, which
+     * never split a character since every byte of a multi-byte character is outside the ASCII range.
+     */
+    private String decodeString(int start, int end) throws JSONException {
+        StringBuilder decoded = new StringBuilder(end - start);
+        int runStart = start;
+        int index = start;
+        while (index < end) {
+            if (buffer.get(index) != '\\') {
+                index++;
+                continue;
+            }
+            decoded.append(decodeUtf8(runStart, index));
+            byte escape = buffer.get(index + 1);
+            switch (escape) {
+                case '"':
+                case '\\':
+                case '/':
+                    decoded.append((char) escape);
+                    break;
+                case 'b':
+                    decoded.append('\b');
+                    break;
+                case 'f':
+                    decoded.append('\f');
+                    break;
+                case 'n':
+                    decoded.append('\n');
+                    break;
+                case 'r':
+                    decoded.append('\r');
+                    break;
+                case 't':
+                    decoded.append('\t');
+                    break;
+                case 'u':
+                    if (index + 6 > end) {
+                        throw new JSONException("Illegal escape at byte " + (sourceOffset + index) + " of "
+                                + sourceName);
+                    }
+                    try {
+                        decoded.append((char) Integer.parseInt(decodeUtf8(index + 2, index + 6), 16));
+                    } catch (NumberFormatException e) {
+                        throw new JSONException("Illegal escape at byte " + (sourceOffset + index) + " of "
+                                + sourceName, e);
+                    }
+                    index += 4;
+                    break;
+                default:
+                    throw new JSONException("Illegal escape at byte " + (sourceOffset + index) + " of " + sourceName);
+            }
+            index += 2;
+            runStart = index;
+        }
+        return decoded.append(decodeUtf8(runStart, end)).toString();
+    }
+
+    private String decodeUtf8(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean regionEquals(int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int index = 0; index < expected.length; index++) {
+            if (buffer.get(start + index) != expected[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte peek() throws JSONException {
+        if (position >= limit) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return buffer.get(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < limit && isWhitespace(buffer.get(position))) {
+            position++;
+        }
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at byte " + (sourceOffset + position) + " of " + sourceName);
+    }
+
+    static boolean isWhitespace(byte character) {
+        return character == ' ' || character == '\n' || character == '\r' || character == '\t';
+    }
+
+    private static boolean isDigit(byte character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isEndOfValue(byte character) {
+        return character == ',' || character == '}' || character == ']' || isWhitespace(character);
+    }
+
+    /**
+     * A CharSequence over a run of ASCII bytes in the buffer. The same instance is reused for every string read.
+     */
+    private class AsciiSequence implements CharSequence {
+        private int start;
+        private int end;
+
+        AsciiSequence of(int start, int end) {
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (char) buffer.get(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int startIndex, int endIndex) {
+            return toString().subSequence(startIndex, endIndex);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
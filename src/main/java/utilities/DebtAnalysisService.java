@@ -1,41 +1,151 @@
 package utilities;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
 import data.Debt;
 import data.DebtInfo;
+import data.Money;
 import data.Payment;
+import data.PaymentColumns;
 import data.PaymentPlan;
-import enums.InstallmentFrequency;
+import events.ScheduleComputationEvent;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Date;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
 
 /**
  * This service is responsible for calculating all of the metadata for a set of debts, payment plans, and payments. This
  * service is initialized with those objects, and all calls to it will operate on what it was given. The sets are not
  * mutable after constructed. Helper utilities are exposed for flexibility since they are useful on their own.
+ *
+ * Payment plans are indexed once at construction, keyed by debt id, so looking up a debt's plan costs a single hash
+ * lookup rather than a scan of every plan. Payments are held in a PaymentColumns store, grouped by payment plan, so a
+ * plan's payments are found with one binary search and then read as a contiguous run of primitive amounts. The service
+ * can be given the columns directly, or a List of Payments that it converts once and does not keep. Either way, the
+ * analysis never touches a Payment object.
+ *
+ * Since only payment plans and payments are indexed, the service can also be constructed without any debts, and debts
+ * streamed through it afterwards with streamDebtInfos. Each DebtInfo is then produced as soon as its debt arrives,
+ * without the debts or the results ever having to be held in memory together.
+ *
+ * A few debts can also be looked up by id with getDebtInfo and getDebtInfos, which evaluate only the debts asked for.
+ * The debts are indexed by id on the first lookup, not at construction, so services that are only used for bulk
+ * generation never pay for the index. Looked up DebtInfos are memoized in a bounded cache that evicts the least
+ * recently used once it holds DEBT_INFO_CACHE_SIZE of them, and any number of threads can look debts up at once.
  */
 public class DebtAnalysisService {
-    List<Debt> allDebts;
-    List<PaymentPlan> allPaymentPlans;
-    List<Payment> allPayments;
+    final List<Debt> allDebts;
+    final List<PaymentPlan> allPaymentPlans;
+
+    /**
+     * Below this many debts, generating DebtInfos in parallel costs more in task coordination than it saves, so the
+     * parallel methods fall back to generating them sequentially.
+     */
+    public static final int PARALLEL_THRESHOLD = 8_192;
+
+    /**
+     * The fewest debts a single parallel task will evaluate before it stops splitting its range further.
+     */
+    private static final int MIN_DEBTS_PER_TASK = 1_024;
+
+    /**
+     * The most DebtInfos the lookups keep memoized at once.
+     */
+    public static final int DEBT_INFO_CACHE_SIZE = 10_000;
+
+    private final IntObjectMap<PaymentPlan> paymentPlansByDebtId;
+
+    /**
+     * The number of payment plans of every debt that has more than one. The system assumes a debt has at most one, so
+     * this is normally empty, and is only kept so the metrics can count the plans no analyzed debt has.
+     */
+    private final IntObjectMap<Integer> paymentPlanCountsByDebtId = new IntObjectMap<>();
+    private final PaymentColumns paymentColumns;
+
+    /**
+     * The index and cache used by the lookups, or null until the first lookup creates them.
+     */
+    private volatile DebtLookup debtLookup;
+
+    /**
+     * Creates a service for streaming debts through. It indexes the given payment plans and payments, but holds no
+     * debts of its own, so generateDebtInfos will return an empty List. Use streamDebtInfos instead.
+     * @param allPaymentPlans Every payment plan the streamed debts may be in.
+     * @param allPayments Every payment made against those payment plans.
+     */
+    public DebtAnalysisService(List<PaymentPlan> allPaymentPlans, List<Payment> allPayments) {
+        this(Collections.emptyList(), allPaymentPlans, allPayments);
+    }
+
+    /**
+     * Creates a service for streaming debts through, with payments that are already in columnar form.
+     * @param allPaymentPlans Every payment plan the streamed debts may be in.
+     * @param paymentColumns Every payment made against those payment plans.
+     */
+    public DebtAnalysisService(List<PaymentPlan> allPaymentPlans, PaymentColumns paymentColumns) {
+        this(Collections.emptyList(), allPaymentPlans, paymentColumns);
+    }
 
     public DebtAnalysisService(List<Debt> allDebts,
                                List<PaymentPlan> allPaymentPlans,
                                List<Payment> allPayments) {
+        this(allDebts, allPaymentPlans, PaymentColumns.of(Objects.requireNonNull(allPayments,
+                "Cannot construct DebtAnalysisService: allPayments must not be null.")));
+    }
+
+    /**
+     * Creates a service over payments that are already in columnar form, so they never have to exist as Payment
+     * objects.
+     * @param allDebts The debts to analyze.
+     * @param allPaymentPlans The payment plans those debts may be in.
+     * @param paymentColumns The payments made against those payment plans.
+     */
+    public DebtAnalysisService(List<Debt> allDebts,
+                               List<PaymentPlan> allPaymentPlans,
+                               PaymentColumns paymentColumns) {
         Objects.requireNonNull(allDebts,
                 "Cannot construct DebtAnalysisService: allDebts must not be null.");
         Objects.requireNonNull(allPaymentPlans,
                 "Cannot construct DebtAnalysisService: allPaymentPlans must not be null.");
-        Objects.requireNonNull(allPayments,
-                "Cannot construct DebtAnalysisService: allPayments must not be null.");
+        Objects.requireNonNull(paymentColumns,
+                "Cannot construct DebtAnalysisService: paymentColumns must not be null.");
 
         this.allDebts = allDebts;
         this.allPaymentPlans = allPaymentPlans;
-        this.allPayments = allPayments;
+
+        this.paymentPlansByDebtId = indexPaymentPlansByDebtId(allPaymentPlans, paymentPlanCountsByDebtId);
+        this.paymentColumns = paymentColumns;
+    }
+
+    /**
+     * Builds the debt id to payment plan index. The system assumes a debt will never have more than one associated
+     * payment plan, but if it does, the first plan in the list wins to match the order a linear search would find.
+     * @param allPaymentPlans The payment plans to index.
+     * @param paymentPlanCounts Filled with the number of plans of each debt that has more than one.
+     * @return A map from debt id to the PaymentPlan for that debt.
+     */
+    private static IntObjectMap<PaymentPlan> indexPaymentPlansByDebtId(List<PaymentPlan> allPaymentPlans,
+                                                                       IntObjectMap<Integer> paymentPlanCounts) {
+        IntObjectMap<PaymentPlan> index = new IntObjectMap<>(allPaymentPlans.size());
+        for (PaymentPlan paymentPlan : allPaymentPlans) {
+            if (index.putIfAbsent(paymentPlan.getDebtId(), paymentPlan) != null) {
+                Integer count = paymentPlanCounts.get(paymentPlan.getDebtId());
+                paymentPlanCounts.put(paymentPlan.getDebtId(), count == null ? 2 : count + 1);
+            }
+        }
+        return index;
     }
 
     /**
@@ -47,23 +157,236 @@ public class DebtAnalysisService {
      */
     public List<DebtInfo> generateDebtInfos() {
 
-        List<DebtInfo> debtInfos = new ArrayList<>();
+        List<DebtInfo> debtInfos = new ArrayList<>(allDebts.size());
 
         for (Debt debt : allDebts) {
-            boolean isInPaymentPlan = findPaymentPlan(debt) != null;
-            double remainingAmount = calculateRemainingAmount(debt);
-            Date nextPaymentDueDate = isInPaymentPlan ? calculateNextPaymentDueDate(debt) : null;
-
-            DebtInfo debtInfo = new DebtInfo(debt, isInPaymentPlan, remainingAmount, nextPaymentDueDate);
-            debtInfos.add(debtInfo);
+            debtInfos.add(evaluateDebt(debt));
         }
 
         return debtInfos;
     }
 
+    /**
+     * This lazily maps a Stream of debts to their DebtInfos, using the payment plans and payments this service was
+     * given. Each DebtInfo is computed only when the resulting Stream pulls it, so the results can be consumed while
+     * the debts are still being read. The debts do not need to be the ones this service was constructed with.
+     * @param debts The debts to compute metadata for.
+     * @return A Stream of DebtInfo metadata objects, one per debt, in the same order as the given debts.
+     */
+    public Stream<DebtInfo> streamDebtInfos(Stream<Debt> debts) {
+        Objects.requireNonNull(debts, "Cannot stream DebtInfos: debts must not be null");
+
+        return debts.map(debt -> evaluateDebt(Objects.requireNonNull(debt,
+                "Cannot stream DebtInfos: debts must not contain null")));
+    }
+
+    /**
+     * This maps a Stream of debts to their DebtInfos exactly as streamDebtInfos does, but also records how long each
+     * debt took to evaluate, and how many payment plans it has, in the given metrics.
+     * @param debts The debts to compute metadata for.
+     * @param metrics Where to record each debt's evaluation.
+     * @return A Stream of DebtInfo metadata objects, one per debt, in the same order as the given debts.
+     */
+    public Stream<DebtInfo> streamDebtInfos(Stream<Debt> debts, RunMetrics metrics) {
+        Objects.requireNonNull(debts, "Cannot stream DebtInfos: debts must not be null");
+        Objects.requireNonNull(metrics, "Cannot stream DebtInfos: metrics must not be null");
+
+        return debts.map(debt -> {
+            Objects.requireNonNull(debt, "Cannot stream DebtInfos: debts must not contain null");
+            long start = System.nanoTime();
+            DebtInfo debtInfo = evaluateDebt(debt);
+            metrics.recordDebt(System.nanoTime() - start, countPaymentPlans(debt));
+            return debtInfo;
+        });
+    }
+
+    /**
+     * Looks up the metadata for a single debt this service was given, evaluating it only if it is not already cached.
+     * If several debts share the id, the first one in the list is used.
+     * @param debtId The id of the debt.
+     * @return The DebtInfo for the debt, or null if this service was not given a debt with that id.
+     */
+    public DebtInfo getDebtInfo(int debtId) {
+        DebtLookup lookup = debtLookup();
+        if (!lookup.debtsById.containsKey(debtId)) {
+            return null;
+        }
+        return lookup.debtInfos.getUnchecked(debtId);
+    }
+
+    /**
+     * Looks up the metadata for several debts this service was given, as getDebtInfo does for one. Only the debts
+     * asked for are evaluated, and only those not already cached.
+     * @param debtIds The ids of the debts.
+     * @return An unmodifiable Map from each id to its debt's DebtInfo, in the order the ids were given. Ids this
+     * service was not given a debt for are left out.
+     */
+    public Map<Integer, DebtInfo> getDebtInfos(Collection<Integer> debtIds) {
+        Objects.requireNonNull(debtIds, "Cannot get DebtInfos: debtIds must not be null");
+
+        DebtLookup lookup = debtLookup();
+        Map<Integer, DebtInfo> debtInfos = new LinkedHashMap<>();
+        for (Integer debtId : debtIds) {
+            Objects.requireNonNull(debtId, "Cannot get DebtInfos: debtIds must not contain null");
+            if (lookup.debtsById.containsKey(debtId)) {
+                debtInfos.put(debtId, lookup.debtInfos.getUnchecked(debtId));
+            }
+        }
+        return Collections.unmodifiableMap(debtInfos);
+    }
+
+    /**
+     * @return The hit, miss, and eviction counts of the lookups' cache.
+     */
+    CacheStats debtInfoCacheStats() {
+        return debtLookup().debtInfos.stats();
+    }
+
+    /**
+     * Returns the lookups' index and cache, creating them on first use. Only one thread creates them, and every
+     * thread sees them fully built.
+     */
+    private DebtLookup debtLookup() {
+        DebtLookup lookup = debtLookup;
+        if (lookup == null) {
+            synchronized (this) {
+                lookup = debtLookup;
+                if (lookup == null) {
+                    lookup = new DebtLookup();
+                    debtLookup = lookup;
+                }
+            }
+        }
+        return lookup;
+    }
+
+    /**
+     * The debts indexed by id, and the cache of DebtInfos looked up from them. The index is never modified once built,
+     * and the cache is thread-safe, so lookups need no locking of their own. A debt missing from the cache is
+     * evaluated by the thread that asked for it, while other threads asking for the same debt wait for the result.
+     */
+    private class DebtLookup {
+        private final IntObjectMap<Debt> debtsById = new IntObjectMap<>(allDebts.size());
+        private final LoadingCache<Integer, DebtInfo> debtInfos = CacheBuilder.newBuilder()
+                .maximumSize(DEBT_INFO_CACHE_SIZE)
+                .recordStats()
+                .build(CacheLoader.from(debtId -> evaluateDebt(debtsById.get(debtId))));
+
+        DebtLookup() {
+            for (Debt debt : allDebts) {
+                debtsById.putIfAbsent(debt.getId(), debt);
+            }
+        }
+    }
+
+    /**
+     * Counts the payments made against a payment plan this service was not given. Such payments can never count
+     * towards any debt, so a non-zero count usually means the payment plans and payments are out of step.
+     * @return The number of orphaned payments.
+     */
+    public int countOrphanedPayments() {
+        IntObjectMap<PaymentPlan> paymentPlansById = new IntObjectMap<>(allPaymentPlans.size());
+        for (PaymentPlan paymentPlan : allPaymentPlans) {
+            paymentPlansById.putIfAbsent(paymentPlan.getId(), paymentPlan);
+        }
+
+        int orphanedPayments = 0;
+        for (int group = 0; group < paymentColumns.groupCount(); group++) {
+            int groupStart = paymentColumns.groupStart(group);
+            if (!paymentPlansById.containsKey(paymentColumns.getPaymentPlanId(groupStart))) {
+                orphanedPayments += paymentColumns.groupEnd(group) - groupStart;
+            }
+        }
+        return orphanedPayments;
+    }
+
+    /**
+     * This generates the same List of DebtInfos as generateDebtInfos, but splits the debts across a ForkJoinPool with
+     * the given number of worker threads. The pool only lives for the duration of this call. Inputs smaller than
+     * PARALLEL_THRESHOLD, or a parallelism of 1, are generated sequentially on the calling thread instead.
+     * @param parallelism The number of threads to evaluate debts on. Must be at least 1.
+     * @return A List of DebtInfo metadata objects, in the same order as the debts this service was given.
+     */
+    public List<DebtInfo> generateDebtInfosInParallel(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Cannot generate DebtInfos in parallel: parallelism must be at least 1, but was " + parallelism);
+        }
+        if (parallelism == 1 || allDebts.size() < PARALLEL_THRESHOLD) {
+            return generateDebtInfos();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return generateDebtInfosInParallel(pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * This generates the same List of DebtInfos as generateDebtInfos, but splits the debts across the given
+     * ForkJoinPool. Each task writes its results into its own range of a shared array, so the output order is always
+     * the order of the debts this service was given. The indexes the tasks read from are never modified after
+     * construction, so no locking is needed. Inputs smaller than PARALLEL_THRESHOLD are generated sequentially on the
+     * calling thread instead.
+     * @param pool The pool to run the evaluation on. The caller remains responsible for shutting it down.
+     * @return A List of DebtInfo metadata objects, in the same order as the debts this service was given.
+     */
+    public List<DebtInfo> generateDebtInfosInParallel(ForkJoinPool pool) {
+        Objects.requireNonNull(pool, "Cannot generate DebtInfos in parallel: pool must not be null");
+
+        Debt[] debts = allDebts.toArray(new Debt[0]);
+        if (debts.length < PARALLEL_THRESHOLD) {
+            return generateDebtInfos();
+        }
+
+        DebtInfo[] debtInfos = new DebtInfo[debts.length];
+        int debtsPerTask = Math.max(MIN_DEBTS_PER_TASK, debts.length / (pool.getParallelism() * 8));
+        pool.invoke(new EvaluateDebtsTask(debts, debtInfos, 0, debts.length, debtsPerTask));
+
+        return new ArrayList<>(Arrays.asList(debtInfos));
+    }
+
+    /**
+     * A fork/join task that evaluates a contiguous range of debts, halving the range until it is small enough to
+     * evaluate directly.
+     */
+    private class EvaluateDebtsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Debt[] debts;
+        private final DebtInfo[] debtInfos;
+        private final int fromIndex;
+        private final int toIndex;
+        private final int debtsPerTask;
+
+        EvaluateDebtsTask(Debt[] debts, DebtInfo[] debtInfos, int fromIndex, int toIndex, int debtsPerTask) {
+            this.debts = debts;
+            this.debtInfos = debtInfos;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.debtsPerTask = debtsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex <= debtsPerTask) {
+                for (int index = fromIndex; index < toIndex; index++) {
+                    debtInfos[index] = evaluateDebt(debts[index]);
+                }
+                return;
+            }
+
+            int middleIndex = (fromIndex + toIndex) >>> 1;
+            invokeAll(new EvaluateDebtsTask(debts, debtInfos, fromIndex, middleIndex, debtsPerTask),
+                    new EvaluateDebtsTask(debts, debtInfos, middleIndex, toIndex, debtsPerTask));
+        }
+    }
+
     /**
      * Finds the payment plan associate with the given Debt, if one exists. The system assumes a debt will never have
-     * more than one associated payment plan, so this function will return the id of the first match found.
+     * more than one associated payment plan, so this function will return the first match in the list of plans.
      * @param debt The debt we want to find the related payment plan for.
      * @return The PaymentPlan the given Debt is associated with. If there is no associated plan, this
      * will return null.
@@ -71,13 +394,7 @@ public class DebtAnalysisService {
     public PaymentPlan findPaymentPlan(Debt debt) {
         Objects.requireNonNull(debt, "Cannot find payment plan: debt must not be null");
 
-        for (PaymentPlan paymentPlan : this.allPaymentPlans) {
-            if (paymentPlan.getDebtId() == debt.getId()) {
-                return paymentPlan;
-            }
-        }
-
-        return null;
+        return paymentPlansByDebtId.get(debt.getId());
     }
 
     /**
@@ -93,23 +410,7 @@ public class DebtAnalysisService {
     public double calculateRemainingAmount(Debt debt) {
         Objects.requireNonNull(debt, "Cannot calculate remaining amount: debt must not be null");
 
-        BigDecimal remainingAmount = BigDecimal.valueOf(debt.getAmount());
-
-        PaymentPlan paymentPlan = findPaymentPlan(debt);
-        if (paymentPlan == null) {
-            return remainingAmount.doubleValue();
-        }
-
-        for (Payment payment : this.allPayments) {
-            if (payment.getPaymentPlanId() == paymentPlan.getId()) {
-                remainingAmount = remainingAmount.subtract(BigDecimal.valueOf(payment.getAmount()));
-                if (remainingAmount.doubleValue() <= 0) {
-                    return 0.0;
-                }
-            }
-        }
-
-        return remainingAmount.doubleValue();
+        return evaluateDebt(debt).getRemainingAmount();
     }
 
     /**
@@ -130,43 +431,117 @@ public class DebtAnalysisService {
      * - If a debt is completely paid, the nextPaymentDueDate will be null
      *
      * @param debt The debt to find the next due date for
-     * @return A Date representing the next payment due date for the plan. Null if the associated debt is already paid
+     * @return A LocalDate representing the next payment due date for the plan. Null if the associated debt is already
+     * paid
      */
-    public Date calculateNextPaymentDueDate(Debt debt) {
+    public LocalDate calculateNextPaymentDueDate(Debt debt) {
         Objects.requireNonNull(debt,
                 "Cannot calculate nextPaymentDueDate: debt must not be null");
-        PaymentPlan paymentPlan = Objects.requireNonNull(findPaymentPlan(debt),
+        Objects.requireNonNull(findPaymentPlan(debt),
                 "Cannot calculate nextPaymentDueDate: debt must have an associated payment plan");
-        if(calculateRemainingAmount(debt) == 0) {
-            return null;
+
+        return evaluateDebt(debt).getNextPaymentDueDate();
+    }
+
+    /**
+     * Computes all of the metadata for a single debt. The debt's payment plan is looked up once, and its payments are
+     * walked once, keeping a running total that feeds both the remaining amount and the payment schedule. The results
+     * are identical to those described by calculateRemainingAmount and calculateNextPaymentDueDate. The payment plan's
+     * start date is an immutable epoch day, so a debt can be evaluated any number of times, from any thread. The
+     * payments are read straight from the amount column as minor units (see Money), so the loop is exact and allocates
+     * nothing.
+     *
+     * The schedule is not stepped one installment at a time. Applying payments in order, and moving past a payment date
+     * each time a full installment has been collected, covers exactly as many installments as fit into the highest
+     * value the running total of payments reached. So the next due date is the start date plus that many installment
+     * periods, which costs one pass over the payments no matter how far ahead of schedule they are, and is plain
+     * integer arithmetic on epoch days.
+     * @param debt The debt to compute metadata for.
+     * @return A DebtInfo holding the debt, whether it is in a payment plan, the remaining amount, and the next payment
+     * due date.
+     */
+    /**
+     * @return The number of payment plans for the debt, including any after the first, which the analysis ignores.
+     */
+    private int countPaymentPlans(Debt debt) {
+        if (!paymentPlansByDebtId.containsKey(debt.getId())) {
+            return 0;
         }
+        Integer count = paymentPlanCountsByDebtId.get(debt.getId());
+        return count != null ? count : 1;
+    }
 
-        List<Payment> relatedPaymentsList = new ArrayList<>();
-        for (Payment payment : allPayments) {
-            if (payment.getPaymentPlanId() == paymentPlan.getId()) {
-                relatedPaymentsList.add(payment);
-            }
+    private DebtInfo evaluateDebt(Debt debt) {
+        PaymentPlan paymentPlan = findPaymentPlan(debt);
+        if (paymentPlan == null) {
+            return new DebtInfo(debt, false, Money.toDollars(debt.getAmountInMinorUnits()), null);
         }
-        Iterator<Payment> relatedPaymentsIterator = relatedPaymentsList.iterator();
-
-        Date currentDate = Objects.requireNonNull(paymentPlan.getStartDate(),
-                "Cannot calculate nextPaymentDueDate: payment plan start date must not be null");
-
-        BigDecimal paidForCurrentDate = BigDecimal.valueOf(0.0);
-        while (true) {
-            if (relatedPaymentsIterator.hasNext()) {
-                paidForCurrentDate = paidForCurrentDate.add(
-                        BigDecimal.valueOf(relatedPaymentsIterator.next().getAmount()));
-                while (paidForCurrentDate.doubleValue() >= paymentPlan.getInstallmentAmount()) {
-                    paidForCurrentDate = paidForCurrentDate.subtract(
-                            BigDecimal.valueOf(paymentPlan.getInstallmentAmount()));
-                    long millisToAdd = paymentPlan.getInstallmentFrequency() == InstallmentFrequency.WEEKLY
-                            ? 604800000 : 1209600000;
-                    currentDate.setTime(currentDate.getTime() + millisToAdd);
-                }
-            } else {
-                return currentDate;
+
+        int group = paymentColumns.findGroup(paymentPlan.getId());
+        int start = group >= 0 ? paymentColumns.groupStart(group) : 0;
+        int end = group >= 0 ? paymentColumns.groupEnd(group) : 0;
+
+        // When no recording wants the event, it is never begun or committed, and the JIT removes the allocation.
+        ScheduleComputationEvent event = new ScheduleComputationEvent();
+        boolean recording = event.isEnabled();
+        if (recording) {
+            event.begin();
+        }
+        DebtInfo debtInfo = evaluateSchedule(debt, paymentPlan, start, end);
+        if (recording && event.shouldCommit()) {
+            event.debtId = debt.getId();
+            event.paymentPlanId = paymentPlan.getId();
+            event.paymentCount = end - start;
+            event.paidOff = debtInfo.getNextPaymentDueDate() == null;
+            event.commit();
+        }
+        return debtInfo;
+    }
+
+    /**
+     * Computes the DebtInfo of a debt in a payment plan from the plan's payments, as described by evaluateDebt.
+     * @param debt The debt.
+     * @param paymentPlan The debt's payment plan.
+     * @param start The first row of the plan's payments in the payment columns.
+     * @param end The row after the last of the plan's payments.
+     * @return A DebtInfo holding the debt, the remaining amount, and the next payment due date.
+     */
+    private DebtInfo evaluateSchedule(Debt debt, PaymentPlan paymentPlan, int start, int end) {
+        long debtAmount = debt.getAmountInMinorUnits();
+        long totalPaid = 0;
+        long highestTotalPaid = 0;
+        for (int row = start; row < end; row++) {
+            totalPaid += paymentColumns.getAmountInMinorUnits(row);
+            if (totalPaid >= debtAmount) {
+                return new DebtInfo(debt, true, 0.0, null);
+            }
+            if (totalPaid > highestTotalPaid) {
+                highestTotalPaid = totalPaid;
             }
         }
+        // A plan with no payments never enters the loop, but a debt of nothing is still paid off.
+        if (start == end && debtAmount == 0) {
+            return new DebtInfo(debt, true, 0.0, null);
+        }
+
+        return scheduledDebtInfo(debt, paymentPlan, totalPaid, highestTotalPaid);
+    }
+
+    /**
+     * Builds the DebtInfo for a debt in a payment plan that has not been paid off, from the totals of its payments.
+     * @param debt The debt.
+     * @param paymentPlan The debt's payment plan.
+     * @param totalPaid The sum of every payment made against the plan, in minor units.
+     * @param highestTotalPaid The highest value the running total of payments reached, in minor units, or 0 if it
+     * never rose above 0.
+     * @return A DebtInfo holding the remaining amount and the next payment due date.
+     */
+    static DebtInfo scheduledDebtInfo(Debt debt, PaymentPlan paymentPlan, long totalPaid, long highestTotalPaid) {
+        long installmentsPaid = highestTotalPaid / paymentPlan.getInstallmentAmountInMinorUnits();
+        long daysUntilNextPayment =
+                installmentsPaid * paymentPlan.getInstallmentFrequency().getDaysBetweenInstallments();
+        LocalDate nextPaymentDueDate = LocalDate.ofEpochDay(paymentPlan.getStartEpochDay() + daysUntilNextPayment);
+
+        return new DebtInfo(debt, true, Money.toDollars(debt.getAmountInMinorUnits() - totalPaid), nextPaymentDueDate);
     }
-}
\ No newline at end of file
+}
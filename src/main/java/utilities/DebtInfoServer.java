@@ -0,0 +1,271 @@
+package utilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import data.Debt;
+import data.DebtInfo;
+import data.Payment;
+import data.PaymentPlan;
+import interfaces.DataRetriever;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class is an HTTP server that keeps the DebtInfo of every debt in memory and serves it, so the analysis can be
+ * polled without starting a JVM and recomputing everything for each poll. It serves:
+ * - 'GET /debt_infos', a JSON array of every DebtInfo, in the order the debts were retrieved.
+ * - 'GET /debt_infos/{id}', the JSON object of the DebtInfo for the debt with that id, or '404 Not Found'.
+ *
+ * The DebtInfos are held as an immutable snapshot: the List, an index of it by debt id, and the '/debt_infos' body
+ * already encoded. Every so often the data is retrieved again, analyzed into a new snapshot off to the side, and the
+ * new snapshot is swapped in with a single volatile write. Each request reads the snapshot once, so it is answered
+ * entirely from either the old or the new one, and requests are never blocked by a refresh. A single lookup is one
+ * hash lookup and a few hundred bytes of encoding. If a refresh fails, the old snapshot is kept and served until a
+ * later refresh succeeds.
+ *
+ * Every response carries the snapshot's ETag, so a poller that sends it back in 'If-None-Match' is answered with
+ * '304 Not Modified' until the next refresh, without the body being sent again.
+ *
+ * The server retrieves and analyzes the data once when it is constructed, so it never serves an empty snapshot, then
+ * starts listening and runs until it is closed.
+ */
+public class DebtInfoServer implements AutoCloseable {
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_NOT_MODIFIED = 304;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+
+    private static final String PATH = "/debt_infos";
+
+    /**
+     * The longest a refresh will wait for the data to be retrieved, across all three collections.
+     */
+    private static final long REFRESH_TIMEOUT_SECONDS = 60;
+
+    private final DataRetriever dataRetriever;
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService refreshScheduler;
+
+    /**
+     * The snapshot being served. It is only ever replaced whole, never modified.
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Retrieves and analyzes the data, then starts a server that serves it on the given address, refreshing it every
+     * refreshInterval.
+     * @param dataRetriever Where the debts, payment plans, and payments are retrieved from, on every refresh.
+     * @param address The address to listen on. Port 0 picks a free port.
+     * @param refreshInterval How long to wait after one refresh finishes before starting the next. Must be positive.
+     * @throws Exception If the data could not be retrieved or analyzed the first time, or the server could not be
+     * started.
+     */
+    public DebtInfoServer(DataRetriever dataRetriever, InetSocketAddress address, Duration refreshInterval)
+            throws Exception {
+        this.dataRetriever = Objects.requireNonNull(dataRetriever,
+                "Cannot construct DebtInfoServer: dataRetriever must not be null");
+        Objects.requireNonNull(address, "Cannot construct DebtInfoServer: address must not be null");
+        Objects.requireNonNull(refreshInterval, "Cannot construct DebtInfoServer: refreshInterval must not be null");
+        if (refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException(
+                    "Cannot construct DebtInfoServer: refreshInterval must be positive, but was " + refreshInterval);
+        }
+
+        refresh();
+
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "DebtInfoServer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "DebtInfoServer-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer = HttpServer.create(address, 0);
+        httpServer.createContext("/", this::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+
+        long refreshMillis = refreshInterval.toMillis();
+        refreshScheduler.scheduleWithFixedDelay(this::scheduledRefresh, refreshMillis, refreshMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The URL of the server, ending in '/'. The DebtInfos are served from 'debt_infos' under it.
+     */
+    public String getRootUrl() {
+        InetSocketAddress address = httpServer.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort() + "/";
+    }
+
+    /**
+     * @return Every DebtInfo in the current snapshot, in the order the debts were retrieved. The List is unmodifiable.
+     */
+    public List<DebtInfo> getDebtInfos() {
+        return snapshot.debtInfos;
+    }
+
+    /**
+     * @param debtId The id of a debt.
+     * @return The DebtInfo for the debt with the given id in the current snapshot, or null if there is no such debt.
+     */
+    public DebtInfo getDebtInfo(int debtId) {
+        return snapshot.debtInfosByDebtId.get(debtId);
+    }
+
+    /**
+     * @return When the current snapshot's data was retrieved.
+     */
+    public Instant getRefreshedAt() {
+        return snapshot.refreshedAt;
+    }
+
+    /**
+     * Retrieves and analyzes the data into a new snapshot, and swaps it in once it is complete. Requests go on being
+     * answered from the old snapshot until then. Refreshes never overlap; a refresh called while another is running
+     * waits for it to finish first.
+     * @throws TimeoutException If the data could not be retrieved within REFRESH_TIMEOUT_SECONDS.
+     * @throws Exception If the data could not be retrieved or analyzed. The old snapshot is kept.
+     */
+    public synchronized void refresh() throws Exception {
+        Instant refreshedAt = Instant.now();
+        CompletableFuture<List<Debt>> debtsFuture = dataRetriever.getAllDebtsAsync();
+        CompletableFuture<List<PaymentPlan>> paymentPlansFuture = dataRetriever.getAllPaymentPlansAsync();
+        CompletableFuture<List<Payment>> paymentsFuture = dataRetriever.getAllPaymentsAsync();
+        Futures.awaitAll(REFRESH_TIMEOUT_SECONDS, debtsFuture, paymentPlansFuture, paymentsFuture);
+
+        DebtAnalysisService debtAnalysisService =
+                new DebtAnalysisService(debtsFuture.join(), paymentPlansFuture.join(), paymentsFuture.join());
+        List<DebtInfo> debtInfos = debtAnalysisService.generateDebtInfosInParallel(ForkJoinPool.commonPool());
+
+        Snapshot current = snapshot;
+        snapshot = new Snapshot(debtInfos, current != null ? current.version + 1 : 1, refreshedAt);
+    }
+
+    /**
+     * Stops the server straight away, abandoning any responses still being written, and stops refreshing.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        refreshScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Refreshes on the scheduler's thread. A failure is reported, and the snapshot already being served is kept, so
+     * one unreachable data source does not stop the next refresh from being tried.
+     */
+    private void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (InterruptedException e) {
+            // The server is being closed.
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Could not refresh debt infos, still serving those retrieved at "
+                    + snapshot.refreshedAt + ": " + e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Any request body is read to the end first, otherwise the connection cannot be reused once a response
+            // without a body has been sent.
+            exchange.getRequestBody().readAllBytes();
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(STATUS_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+
+            Snapshot current = snapshot;
+            String path = exchange.getRequestURI().getPath();
+            byte[] body;
+            if (path.equals(PATH) || path.equals(PATH + "/")) {
+                body = current.body;
+            } else if (path.startsWith(PATH + "/")) {
+                int debtId;
+                try {
+                    debtId = Integer.parseInt(path.substring(PATH.length() + 1));
+                } catch (NumberFormatException e) {
+                    exchange.sendResponseHeaders(STATUS_BAD_REQUEST, -1);
+                    return;
+                }
+                DebtInfo debtInfo = current.debtInfosByDebtId.get(debtId);
+                if (debtInfo == null) {
+                    exchange.sendResponseHeaders(STATUS_NOT_FOUND, -1);
+                    return;
+                }
+                body = APIJSONEncoder.encode(debtInfo).getBytes(StandardCharsets.UTF_8);
+            } else {
+                exchange.sendResponseHeaders(STATUS_NOT_FOUND, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("ETag", current.etag);
+            if (current.etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(STATUS_NOT_MODIFIED, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(STATUS_OK, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    /**
+     * One refresh's DebtInfos, indexed and encoded. Nothing in it is modified after construction, so it can be read
+     * from any number of threads once published.
+     */
+    private static final class Snapshot {
+        private final List<DebtInfo> debtInfos;
+        private final IntObjectMap<DebtInfo> debtInfosByDebtId;
+        private final byte[] body;
+        private final String etag;
+        private final long version;
+        private final Instant refreshedAt;
+
+        Snapshot(List<DebtInfo> debtInfos, long version, Instant refreshedAt) {
+            this.debtInfos = Collections.unmodifiableList(debtInfos);
+            this.version = version;
+            this.refreshedAt = refreshedAt;
+            // The time keeps ETags from one run of the server from matching those of an earlier run.
+            this.etag = "\"" + refreshedAt.toEpochMilli() + "-" + version + "\"";
+
+            // If two debts share an id, the first is served, matching the order a linear search would find.
+            debtInfosByDebtId = new IntObjectMap<>(debtInfos.size());
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            encoded.write('[');
+            for (int i = 0; i < debtInfos.size(); i++) {
+                DebtInfo debtInfo = debtInfos.get(i);
+                debtInfosByDebtId.putIfAbsent(debtInfo.getDebt().getId(), debtInfo);
+                if (i > 0) {
+                    encoded.write(',');
+                }
+                encoded.writeBytes(APIJSONEncoder.encode(debtInfo).getBytes(StandardCharsets.UTF_8));
+            }
+            encoded.write(']');
+            body = encoded.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package utilities;
+
+import data.DebtInfo;
+import data.Money;
+import events.OutputFlushEvent;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * This class writes DebtInfos to an OutputStream in the same one-line format DebtInfo.print uses. It is meant for
+ * writing large numbers of DebtInfos at once. Lines are rendered straight into a single reusable byte buffer, with
+ * numbers and dates converted to characters by hand, and the buffer is only handed to the OutputStream when it fills
+ * up or is flushed. Writing a line therefore allocates next to nothing and does not flush the stream.
+ *
+ * Each time the buffer is handed to the OutputStream, an OutputFlushEvent is emitted to Java Flight Recorder if a
+ * recording is running.
+ *
+ * A DebtInfoWriter is not thread-safe. It never closes the OutputStream it writes to, but it must be flushed once
+ * writing is finished.
+ */
+public class DebtInfoWriter implements Flushable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Double.toString switches to scientific notation outside of this range, so amounts outside of it are rendered
+     * with Double.toString itself rather than by hand.
+     */
+    private static final double MIN_PLAIN_AMOUNT = 1e-3;
+    private static final double MAX_PLAIN_AMOUNT = 1e7;
+
+    private static final byte[] ID_LABEL = ascii("id: ");
+    private static final byte[] AMOUNT_LABEL = ascii(", amount: ");
+    private static final byte[] IS_IN_PAYMENT_PLAN_LABEL = ascii(", is_in_payment_plan: ");
+    private static final byte[] REMAINING_AMOUNT_LABEL = ascii(", remaining_amount: ");
+    private static final byte[] NEXT_PAYMENT_DUE_DATE_LABEL = ascii(", next_payment_due_date: ");
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] MINUS = ascii("-");
+    private static final byte[] START_OF_DAY = ascii("T00:00:00Z");
+    private static final byte[] LINE_SEPARATOR = ascii(System.lineSeparator());
+
+    /**
+     * The longest a single rendered value can be. Values are never split across two flushes of the buffer.
+     */
+    private static final int MAX_VALUE_LENGTH = 32;
+
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+    private int position;
+
+    /**
+     * The number of lines that have been completed in the buffer since it was last drained.
+     */
+    private int bufferedLines;
+
+    public DebtInfoWriter(OutputStream outputStream) {
+        this(outputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a writer with a buffer of the given size.
+     * @param outputStream The stream to write lines to.
+     * @param bufferSize The number of bytes to collect before writing them to the stream. Must be large enough to
+     * hold any single value of a line.
+     */
+    public DebtInfoWriter(OutputStream outputStream, int bufferSize) {
+        this.outputStream = Objects.requireNonNull(outputStream,
+                "Cannot construct DebtInfoWriter: outputStream must not be null");
+        if (bufferSize < MAX_VALUE_LENGTH * 2) {
+            throw new IllegalArgumentException(
+                    "Cannot construct DebtInfoWriter: bufferSize must be at least " + MAX_VALUE_LENGTH * 2);
+        }
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Writes every DebtInfo in a List, one per line, in order.
+     * @param debtInfos The DebtInfos to write.
+     * @throws IOException If the underlying stream fails.
+     */
+    public void writeAll(Iterable<DebtInfo> debtInfos) throws IOException {
+        for (DebtInfo debtInfo : debtInfos) {
+            write(debtInfo);
+        }
+    }
+
+    /**
+     * Writes every DebtInfo in a Stream, one per line, in encounter order. The Stream is consumed as it is written, so
+     * a lazily computed Stream never has to be held in memory whole.
+     * @param debtInfos The DebtInfos to write.
+     * @throws IOException If the underlying stream fails.
+     */
+    public void writeAll(Stream<DebtInfo> debtInfos) throws IOException {
+        Iterator<DebtInfo> iterator = debtInfos.iterator();
+        while (iterator.hasNext()) {
+            write(iterator.next());
+        }
+    }
+
+    /**
+     * Writes a single DebtInfo as one line.
+     * @param debtInfo The DebtInfo to write.
+     * @throws IOException If the buffer filled up and the underlying stream failed while it was being emptied.
+     */
+    public void write(DebtInfo debtInfo) throws IOException {
+        Objects.requireNonNull(debtInfo, "Cannot write DebtInfo: debtInfo must not be null");
+
+        writeBytes(ID_LABEL);
+        writeInt(debtInfo.getDebt().getId());
+        writeBytes(AMOUNT_LABEL);
+        writeMinorUnits(debtInfo.getDebt().getAmountInMinorUnits());
+        writeBytes(IS_IN_PAYMENT_PLAN_LABEL);
+        writeBytes(debtInfo.getIsInPaymentPlan() ? TRUE : FALSE);
+        writeBytes(REMAINING_AMOUNT_LABEL);
+        writeAmount(debtInfo.getRemainingAmount());
+        writeBytes(NEXT_PAYMENT_DUE_DATE_LABEL);
+        writeDate(debtInfo.getNextPaymentDueDate());
+        writeBytes(LINE_SEPARATOR);
+        bufferedLines++;
+    }
+
+    /**
+     * Writes everything buffered so far to the underlying stream, then flushes it.
+     * @throws IOException If the underlying stream fails.
+     */
+    @Override
+    public void flush() throws IOException {
+        drainBuffer(true);
+    }
+
+    /**
+     * Hands everything buffered so far to the underlying stream.
+     * @param flushStream Whether to flush the underlying stream afterwards.
+     */
+    private void drainBuffer(boolean flushStream) throws IOException {
+        OutputFlushEvent event = new OutputFlushEvent();
+        event.begin();
+        int bytes = position;
+        int lines = bufferedLines;
+
+        if (position > 0) {
+            outputStream.write(buffer, 0, position);
+            position = 0;
+            bufferedLines = 0;
+        }
+        if (flushStream) {
+            outputStream.flush();
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.bytes = bytes;
+            event.lineCount = lines;
+            event.streamFlushed = flushStream;
+            event.commit();
+        }
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (buffer.length - position < length) {
+            drainBuffer(false);
+        }
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    /**
+     * Writes the decimal digits of a long, the same as Long.toString would render them.
+     */
+    private void writeLong(long value) throws IOException {
+        ensureCapacity(MAX_VALUE_LENGTH);
+        if (value == Long.MIN_VALUE) {
+            writeBytes(ascii(Long.toString(value)));
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int digitCount = 1;
+        for (long remaining = value / 10; remaining != 0; remaining /= 10) {
+            digitCount++;
+        }
+        for (int index = position + digitCount - 1; index >= position; index--) {
+            buffer[index] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digitCount;
+    }
+
+    /**
+     * Writes an amount the same way Double.toString would. Amounts that are a whole number of minor units, and in the
+     * range Double.toString renders without an exponent, are written by hand from their minor units. Anything else
+     * falls back to Double.toString.
+     */
+    private void writeAmount(double amount) throws IOException {
+        double magnitude = Math.abs(amount);
+        if (magnitude == 0 || (magnitude >= MIN_PLAIN_AMOUNT && magnitude < MAX_PLAIN_AMOUNT)) {
+            long minorUnits = Math.round(amount * Money.MINOR_UNITS_PER_DOLLAR);
+            if (Money.toDollars(minorUnits) == amount && !(amount == 0 && 1 / amount < 0)) {
+                writeMinorUnits(minorUnits);
+                return;
+            }
+        }
+        writeBytes(ascii(Double.toString(amount)));
+    }
+
+    /**
+     * Writes an amount held in minor units in the same form Double.toString renders the matching double: the whole
+     * dollars, a '.', then the fractional digits without trailing zeros, keeping at least one.
+     */
+    private void writeMinorUnits(long minorUnits) throws IOException {
+        double magnitude = Math.abs(Money.toDollars(minorUnits));
+        if (magnitude != 0 && (magnitude < MIN_PLAIN_AMOUNT || magnitude >= MAX_PLAIN_AMOUNT)) {
+            writeBytes(ascii(Double.toString(Money.toDollars(minorUnits))));
+            return;
+        }
+
+        if (minorUnits < 0) {
+            writeBytes(MINUS);
+            minorUnits = -minorUnits;
+        }
+        writeLong(minorUnits / Money.MINOR_UNITS_PER_DOLLAR);
+
+        ensureCapacity(Money.SCALE + 1);
+        buffer[position++] = '.';
+        long fraction = minorUnits % Money.MINOR_UNITS_PER_DOLLAR;
+        int digitCount = Money.SCALE;
+        while (digitCount > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            digitCount--;
+        }
+        for (int index = position + digitCount - 1; index >= position; index--) {
+            buffer[index] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        position += digitCount;
+    }
+
+    /**
+     * Writes a date at the start of its day in the format of DebtInfo.DATE_FORMAT, or 'null' if there is no date.
+     * Dates with four digit years are written by hand; any others fall back to the formatter itself.
+     */
+    private void writeDate(LocalDate date) throws IOException {
+        if (date == null) {
+            writeBytes(NULL);
+            return;
+        }
+
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            writeBytes(ascii(DebtInfo.DATE_FORMAT.format(date.atStartOfDay(ZoneOffset.UTC))));
+            return;
+        }
+
+        ensureCapacity(MAX_VALUE_LENGTH);
+        writeDigits(year, 4);
+        buffer[position++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        buffer[position++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+        writeBytes(START_OF_DAY);
+    }
+
+    /**
+     * Writes a non-negative number as exactly the given number of digits, padded with leading zeros. The caller must
+     * have already ensured there is room in the buffer.
+     */
+    private void writeDigits(int value, int digitCount) {
+        for (int index = position + digitCount - 1; index >= position; index--) {
+            buffer[index] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digitCount;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
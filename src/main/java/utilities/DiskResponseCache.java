@@ -0,0 +1,366 @@
+package utilities;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * This class keeps the bodies of API responses on disk, along with the ETag and Last-Modified headers they were served
+ * with, so a later request for the same URI can be answered without downloading the body again. Each URI is stored as
+ * two files in the cache directory, named after a hash of the URI: one holding the body exactly as it was received,
+ * and one holding its headers and when it was last confirmed to be current.
+ *
+ * How the cache is used is decided by the caller (see APIDataRetriever). Entries no older than the maximum staleness
+ * may be served without asking the server at all. Older entries should be revalidated with a conditional request, and
+ * served again if the server answers that they have not changed. In offline mode, only the cache is ever read.
+ *
+ * Bodies are written to a temporary file while the response is being read, and only moved into place once the whole
+ * body has arrived, so a failed or abandoned download never replaces a good entry. The cache can be shared by any
+ * number of threads.
+ */
+public class DiskResponseCache {
+    private static final String BODY_SUFFIX = ".body";
+    private static final String METADATA_SUFFIX = ".properties";
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "last-modified";
+    private static final String VALIDATED_AT_MILLIS = "validated-at-millis";
+
+    /**
+     * When a body that is being stored is closed before it has been read to the end, up to this many bytes are read
+     * past that point to check whether the rest is just trailing whitespace. A longer tail, or one with anything but
+     * whitespace in it, is an abandoned download, and is not stored.
+     */
+    private static final int MAX_UNREAD_TAIL_BYTES = 8_192;
+
+    private final Path directory;
+    private final Duration maxStaleness;
+    private final boolean offline;
+    private final Clock clock;
+
+    /**
+     * Creates a cache in the given directory, creating the directory if it does not already exist.
+     * @param directory Where to keep cached responses.
+     * @param maxStaleness How long after it was last downloaded or revalidated an entry may be served without asking
+     * the server. Duration.ZERO means every entry is revalidated before it is used.
+     * @param offline If true, responses are only ever served from the cache, and the server is never contacted.
+     * @throws IOException If the directory does not exist and could not be created.
+     */
+    public DiskResponseCache(Path directory, Duration maxStaleness, boolean offline) throws IOException {
+        this(directory, maxStaleness, offline, Clock.systemUTC());
+    }
+
+    DiskResponseCache(Path directory, Duration maxStaleness, boolean offline, Clock clock) throws IOException {
+        Objects.requireNonNull(directory, "Cannot construct DiskResponseCache: directory must not be null");
+        Objects.requireNonNull(maxStaleness, "Cannot construct DiskResponseCache: maxStaleness must not be null");
+        if (maxStaleness.isNegative()) {
+            throw new IllegalArgumentException("Cannot construct DiskResponseCache: maxStaleness must not be negative");
+        }
+
+        this.directory = Files.createDirectories(directory);
+        this.maxStaleness = maxStaleness;
+        this.offline = offline;
+        this.clock = clock;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Looks up the cached response for a URI.
+     * @param uri The URI the response was served for.
+     * @return The cached entry, or null if there is none, or it could not be read.
+     */
+    public Entry lookup(URI uri) {
+        String key = keyFor(uri);
+        Path metadataPath = directory.resolve(key + METADATA_SUFFIX);
+        Path bodyPath = directory.resolve(key + BODY_SUFFIX);
+        if (!Files.isRegularFile(metadataPath) || !Files.isRegularFile(bodyPath)) {
+            return null;
+        }
+
+        Properties metadata = new Properties();
+        try (Reader reader = Files.newBufferedReader(metadataPath, StandardCharsets.UTF_8)) {
+            metadata.load(reader);
+            long validatedAtMillis = Long.parseLong(metadata.getProperty(VALIDATED_AT_MILLIS));
+            return new Entry(key, bodyPath, metadata.getProperty(ETAG), metadata.getProperty(LAST_MODIFIED),
+                    validatedAtMillis);
+        } catch (IOException | RuntimeException e) {
+            // A damaged entry is treated as missing, and is replaced the next time the URI is downloaded.
+            return null;
+        }
+    }
+
+    /**
+     * @param entry A cached entry.
+     * @return True if the entry is recent enough to be served without asking the server whether it has changed.
+     */
+    public boolean isFresh(Entry entry) {
+        return clock.millis() - entry.validatedAtMillis <= maxStaleness.toMillis();
+    }
+
+    /**
+     * Records that the server has confirmed a cached entry is still current, so its staleness starts over.
+     * @param entry The entry the server confirmed.
+     * @throws IOException If the entry's metadata could not be rewritten.
+     */
+    public void markRevalidated(Entry entry) throws IOException {
+        writeMetadata(entry.key, entry.etag, entry.lastModified);
+    }
+
+    /**
+     * Wraps the body of a response so that it is copied into the cache as it is read. The copy replaces any existing
+     * entry for the URI once the body has been read to the end and closed. If the body is abandoned part way through,
+     * or reading it fails, the copy is discarded and any existing entry is left untouched.
+     * @param uri The URI the response was served for.
+     * @param etag The response's ETag header, or null if it had none.
+     * @param lastModified The response's Last-Modified header, or null if it had none.
+     * @param body The body of the response.
+     * @return A stream that reads the body, copying it into the cache along the way.
+     * @throws IOException If the temporary file for the copy could not be created.
+     */
+    public InputStream store(URI uri, String etag, String lastModified, InputStream body) throws IOException {
+        String key = keyFor(uri);
+        Path temporaryPath = Files.createTempFile(directory, key, ".tmp");
+        try {
+            return new CachingInputStream(body, Files.newOutputStream(temporaryPath), temporaryPath, key, etag,
+                    lastModified);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryPath);
+            throw e;
+        }
+    }
+
+    private void commit(Path temporaryPath, String key, String etag, String lastModified) throws IOException {
+        // The old metadata goes first, so that an interrupted commit never pairs the old headers with the new body.
+        Files.deleteIfExists(directory.resolve(key + METADATA_SUFFIX));
+        moveIntoPlace(temporaryPath, directory.resolve(key + BODY_SUFFIX));
+        writeMetadata(key, etag, lastModified);
+    }
+
+    private void writeMetadata(String key, String etag, String lastModified) throws IOException {
+        Properties metadata = new Properties();
+        if (etag != null) {
+            metadata.setProperty(ETAG, etag);
+        }
+        if (lastModified != null) {
+            metadata.setProperty(LAST_MODIFIED, lastModified);
+        }
+        metadata.setProperty(VALIDATED_AT_MILLIS, Long.toString(clock.millis()));
+
+        Path temporaryPath = Files.createTempFile(directory, key, ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+                metadata.store(writer, null);
+            }
+            moveIntoPlace(temporaryPath, directory.resolve(key + METADATA_SUFFIX));
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Names the files for a URI after its SHA-256 hash, so any URI, including query parameters, maps to a safe file
+     * name of a fixed length.
+     */
+    private static String keyFor(URI uri) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(uri.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder(hash.length * 2);
+            for (byte hashByte : hash) {
+                key.append(Character.forDigit((hashByte >> 4) & 0xF, 16));
+                key.append(Character.forDigit(hashByte & 0xF, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A cached response, as it was when it was looked up.
+     */
+    public static final class Entry {
+        private final String key;
+        private final Path bodyPath;
+        private final String etag;
+        private final String lastModified;
+        private final long validatedAtMillis;
+
+        private Entry(String key, Path bodyPath, String etag, String lastModified, long validatedAtMillis) {
+            this.key = key;
+            this.bodyPath = bodyPath;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.validatedAtMillis = validatedAtMillis;
+        }
+
+        /**
+         * @return The ETag the response was served with, or null if it had none.
+         */
+        public String getEtag() {
+            return etag;
+        }
+
+        /**
+         * @return The Last-Modified date the response was served with, or null if it had none.
+         */
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Opens the cached body for reading. The caller is responsible for closing it.
+         * @return A stream over the body exactly as it was received.
+         * @throws IOException If the body could not be opened, for example because it was removed from the cache.
+         */
+        public InputStream openBody() throws IOException {
+            return new BufferedInputStream(Files.newInputStream(bodyPath));
+        }
+    }
+
+    /**
+     * Copies everything read from a response body into a temporary file, and commits the file to the cache once the
+     * body has been read to the end and closed.
+     */
+    private class CachingInputStream extends FilterInputStream {
+        private final OutputStream copy;
+        private final Path temporaryPath;
+        private final String key;
+        private final String etag;
+        private final String lastModified;
+        private boolean reachedEnd;
+        private boolean failed;
+        private boolean closed;
+
+        CachingInputStream(InputStream body, OutputStream copy, Path temporaryPath, String key, String etag,
+                           String lastModified) {
+            super(body);
+            this.copy = copy;
+            this.temporaryPath = temporaryPath;
+            this.key = key;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int count = read(single, 0, 1);
+            return count == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count;
+            try {
+                count = super.read(buffer, offset, length);
+                if (count == -1) {
+                    reachedEnd = true;
+                } else {
+                    copy.write(buffer, offset, count);
+                }
+            } catch (IOException | RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            // Skipped bytes still have to be copied, so they are read rather than skipped.
+            byte[] buffer = new byte[(int) Math.min(count, 8_192)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            try {
+                if (!reachedEnd && !failed) {
+                    readUnreadTail();
+                }
+            } finally {
+                try {
+                    super.close();
+                } finally {
+                    copy.close();
+                    if (reachedEnd && !failed) {
+                        commit(temporaryPath, key, etag, lastModified);
+                    } else {
+                        Files.deleteIfExists(temporaryPath);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Readers often stop at the end of the data they need without reading the end of the stream, such as the
+         * newline after a JSON array. A short tail of whitespace like that is read here, so the body still counts as
+         * complete. A tail with data in it marks the body as failed, since the reader stopped before the data did.
+         */
+        private void readUnreadTail() {
+            byte[] buffer = new byte[MAX_UNREAD_TAIL_BYTES];
+            int total = 0;
+            try {
+                while (!reachedEnd && total < MAX_UNREAD_TAIL_BYTES) {
+                    int count = read(buffer, 0, MAX_UNREAD_TAIL_BYTES - total);
+                    for (int i = 0; i < count; i++) {
+                        if (!isWhitespace(buffer[i])) {
+                            failed = true;
+                            return;
+                        }
+                    }
+                    if (count > 0) {
+                        total += count;
+                    }
+                }
+            } catch (IOException e) {
+                // The download failed, so the copy is simply discarded.
+            }
+        }
+
+        /**
+         * @return Whether the byte is whitespace, as JSON allows between and after values.
+         */
+        private boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+        }
+    }
+}
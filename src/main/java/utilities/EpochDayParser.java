@@ -0,0 +1,195 @@
+package utilities;
+
+import java.text.ParseException;
+
+/**
+ * This class parses the dates the API sends straight into a count of days since 1970-01-01, reading the characters
+ * directly with no intermediate objects. It holds no state, so it can be called from any number of threads at once.
+ *
+ * Two forms are accepted:
+ * - yyyy-MM-dd, which is what the endpoint actually returns. The date is taken to be in UTC.
+ * - An ISO 8601 date-time, which is what the spec says the endpoint returns, such as 2020-09-01T16:30:00Z or
+ * 2020-09-01T16:30:00.123-05:00. Seconds and fractions of a second are optional, and the offset may be written as 'Z',
+ * +hh, +hhmm or +hh:mm. The result is the day the instant falls on in UTC.
+ *
+ * Years must be written with exactly four digits. Malformed input, or a date that does not exist such as 2021-02-29,
+ * is reported with a ParseException whose error offset is the index of the offending character.
+ */
+public final class EpochDayParser {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int DAYS_PER_400_YEARS = 146_097;
+    private static final int DAYS_FROM_YEAR_0_TO_1970 = 719_468;
+
+    private EpochDayParser() {
+    }
+
+    /**
+     * Parses a date or date-time into the day it falls on in UTC.
+     * @param text The text to parse.
+     * @return The number of days between 1970-01-01 and the parsed date.
+     * @throws ParseException If the text is not a valid date in one of the accepted forms.
+     */
+    public static int parseEpochDay(CharSequence text) throws ParseException {
+        if (text == null) {
+            throw new ParseException("Cannot parse date: text must not be null", 0);
+        }
+
+        int year = parseDigits(text, 0, 4);
+        expect(text, 4, '-');
+        int month = parseDigits(text, 5, 2);
+        expect(text, 7, '-');
+        int day = parseDigits(text, 8, 2);
+        if (month < 1 || month > 12) {
+            throw error(text, "month out of range", 5);
+        }
+        if (day < 1 || day > lengthOfMonth(year, month)) {
+            throw error(text, "day out of range", 8);
+        }
+
+        int epochDay = toEpochDay(year, month, day);
+        if (text.length() == 10) {
+            return epochDay;
+        }
+        expect(text, 10, 'T');
+        return epochDay + Math.floorDiv(parseUtcSecondOfDay(text, 11), SECONDS_PER_DAY);
+    }
+
+    /**
+     * Parses the time and offset of an ISO 8601 date-time, starting at the hour.
+     * @return The second of the day in UTC, which falls outside 0 to 86,399 when the offset moves the instant onto the
+     * day before or after.
+     */
+    private static int parseUtcSecondOfDay(CharSequence text, int index) throws ParseException {
+        int hour = parseDigits(text, index, 2);
+        expect(text, index + 2, ':');
+        int minute = parseDigits(text, index + 3, 2);
+        if (hour > 23) {
+            throw error(text, "hour out of range", index);
+        }
+        if (minute > 59) {
+            throw error(text, "minute out of range", index + 3);
+        }
+        int secondOfDay = hour * 3_600 + minute * 60;
+        index += 5;
+
+        if (index < text.length() && text.charAt(index) == ':') {
+            int second = parseDigits(text, index + 1, 2);
+            if (second > 59) {
+                throw error(text, "second out of range", index + 1);
+            }
+            secondOfDay += second;
+            index += 3;
+
+            // Fractions of a second can't move the instant onto another day, so they are checked but not kept.
+            if (index < text.length() && (text.charAt(index) == '.' || text.charAt(index) == ',')) {
+                int fractionStart = ++index;
+                while (index < text.length() && isDigit(text.charAt(index))) {
+                    index++;
+                }
+                if (index == fractionStart) {
+                    throw error(text, "expected a digit", index);
+                }
+            }
+        }
+
+        return secondOfDay - parseOffsetSeconds(text, index);
+    }
+
+    /**
+     * Parses the offset at the end of an ISO 8601 date-time, which must run to the end of the text.
+     * @return The offset from UTC in seconds.
+     */
+    private static int parseOffsetSeconds(CharSequence text, int index) throws ParseException {
+        if (index >= text.length()) {
+            throw error(text, "expected an offset", index);
+        }
+
+        char sign = text.charAt(index);
+        if (sign == 'Z' || sign == 'z') {
+            expectEnd(text, index + 1);
+            return 0;
+        }
+        if (sign != '+' && sign != '-') {
+            throw error(text, "expected 'Z', '+' or '-'", index);
+        }
+
+        int hours = parseDigits(text, index + 1, 2);
+        int minutes = 0;
+        index += 3;
+        if (index < text.length()) {
+            if (text.charAt(index) == ':') {
+                index++;
+            }
+            minutes = parseDigits(text, index, 2);
+            index += 2;
+        }
+        expectEnd(text, index);
+        if (hours > 18 || minutes > 59) {
+            throw error(text, "offset out of range", index - 2);
+        }
+
+        int offsetSeconds = hours * 3_600 + minutes * 60;
+        return sign == '-' ? -offsetSeconds : offsetSeconds;
+    }
+
+    /**
+     * Converts a proleptic Gregorian date to days since 1970-01-01. Years are counted in 400 year eras that start on
+     * March 1st, so the leap day falls at the end of each year and needs no special case. January and February of
+     * year 0 belong to year -1, so the era is floored rather than truncated toward zero.
+     */
+    private static int toEpochDay(int year, int month, int day) {
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(shiftedYear, 400);
+        int yearOfEra = shiftedYear - era * 400;
+        int shiftedMonth = month > 2 ? month - 3 : month + 9;
+        int dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_400_YEARS + dayOfEra - DAYS_FROM_YEAR_0_TO_1970;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean isLeapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return isLeapYear ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static int parseDigits(CharSequence text, int index, int digitCount) throws ParseException {
+        int value = 0;
+        for (int end = index + digitCount; index < end; index++) {
+            if (index >= text.length() || !isDigit(text.charAt(index))) {
+                throw error(text, "expected a digit", index);
+            }
+            value = value * 10 + (text.charAt(index) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static void expect(CharSequence text, int index, char expected) throws ParseException {
+        if (index >= text.length() || text.charAt(index) != expected) {
+            throw error(text, "expected '" + expected + "'", index);
+        }
+    }
+
+    private static void expectEnd(CharSequence text, int index) throws ParseException {
+        if (index != text.length()) {
+            throw error(text, "unexpected trailing characters", index);
+        }
+    }
+
+    private static ParseException error(CharSequence text, String reason, int index) {
+        return new ParseException("Cannot parse date \"" + text + "\": " + reason + " at index " + index, index);
+    }
+}
@@ -0,0 +1,59 @@
+package utilities;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class holds helpers for waiting on CompletableFutures from code that blocks, such as the command line and the
+ * refreshes of a DebtInfoServer.
+ */
+public final class Futures {
+    private Futures() {
+    }
+
+    /**
+     * Waits for every future to complete, under one deadline shared by all of them. If any future fails, this stops
+     * waiting straight away, cancels the others, and throws the exception that future failed with. If the deadline
+     * passes, every future is cancelled.
+     * @param timeoutSeconds How long to wait for all of the futures, in total.
+     * @param futures The futures to wait for.
+     * @throws TimeoutException If the futures did not all complete in time.
+     * @throws Exception Whatever exception the first failing future failed with.
+     */
+    public static void awaitAll(long timeoutSeconds, CompletableFuture<?>... futures) throws Exception {
+        CompletableFuture<Void> allFutures = CompletableFuture.allOf(futures);
+        for (CompletableFuture<?> future : futures) {
+            future.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    allFutures.completeExceptionally(throwable);
+                }
+            });
+        }
+
+        try {
+            allFutures.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            cancelAll(futures);
+            throw e;
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static void cancelAll(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package utilities;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class holds the thread pool that blocking retrieval work runs on, such as reading response bodies and files.
+ * That work spends most of its time waiting, so it is kept off the common ForkJoinPool, which is left to the CPU bound
+ * work of the analysis and parallel streams. A thread blocked on a read in the common pool would otherwise hold up
+ * that work, and with few enough threads could stop it altogether.
+ *
+ * The pool is shared by every retriever, and bounded, so any number of retrievals at once never start more than
+ * MAX_THREADS threads; further work waits in a queue. Its threads are daemons that exit after a minute of idling, so
+ * the pool never needs shutting down.
+ */
+public final class IOExecutor {
+    /**
+     * The most threads the pool runs at once. Each outstanding request reads its body on one thread, so this is well
+     * above the pages in flight of a few retrievals running together.
+     */
+    static final int MAX_THREADS = 32;
+
+    private static final long IDLE_SECONDS = 60;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private IOExecutor() {
+    }
+
+    /**
+     * @return The shared executor for blocking retrieval work.
+     */
+    public static Executor get() {
+        return EXECUTOR;
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "IOExecutor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
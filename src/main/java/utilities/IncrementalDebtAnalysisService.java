@@ -0,0 +1,224 @@
+package utilities;
+
+import data.Debt;
+import data.DebtInfo;
+import data.Money;
+import data.Payment;
+import data.PaymentPlan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This service keeps the metadata for a changing set of debts, payment plans, and payments up to date as a
+ * materialized view. Rather than being given every record up front, it is told about records one at a time as they
+ * are added, and after each addition only the DebtInfo of the one debt it affects is recomputed. The results are
+ * always identical to what a DebtAnalysisService given the same records in the same order would produce.
+ *
+ * Payments are never stored. Each payment plan only keeps the running totals of its payments that the payment
+ * schedule depends on (see DebtAnalysisService.evaluateDebt), so adding a payment costs the same no matter how many
+ * payments its plan already has, and the memory needed does not grow with the number of payments. Records may arrive
+ * in any order; a payment made before its plan or debt is known is still counted once they arrive.
+ *
+ * The service is thread-safe. Additions are applied one at a time, and readers always see the state between two
+ * additions, never part of one. snapshot returns an unmodifiable List of every DebtInfo as of a single point in time,
+ * which is shared between callers until the next addition.
+ */
+public class IncrementalDebtAnalysisService {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<DebtInfo> debtInfos = new ArrayList<>();
+    private final IntObjectMap<Integer> debtInfoIndexesByDebtId = new IntObjectMap<>();
+    private final IntObjectMap<PaymentPlan> paymentPlansById = new IntObjectMap<>();
+    private final IntObjectMap<PaymentPlan> paymentPlansByDebtId = new IntObjectMap<>();
+    private final IntObjectMap<PaymentTotals> paymentTotalsByPaymentPlanId = new IntObjectMap<>();
+
+    /**
+     * The last snapshot taken, or null if there has been an addition since.
+     */
+    private volatile List<DebtInfo> snapshot;
+
+    public IncrementalDebtAnalysisService() {
+    }
+
+    /**
+     * Creates a service that starts out with the given records, as if each had been added in turn.
+     * @param allDebts The debts to start with.
+     * @param allPaymentPlans The payment plans to start with.
+     * @param allPayments The payments to start with.
+     */
+    public IncrementalDebtAnalysisService(List<Debt> allDebts,
+                                          List<PaymentPlan> allPaymentPlans,
+                                          List<Payment> allPayments) {
+        Objects.requireNonNull(allDebts,
+                "Cannot construct IncrementalDebtAnalysisService: allDebts must not be null.");
+        Objects.requireNonNull(allPaymentPlans,
+                "Cannot construct IncrementalDebtAnalysisService: allPaymentPlans must not be null.");
+        Objects.requireNonNull(allPayments,
+                "Cannot construct IncrementalDebtAnalysisService: allPayments must not be null.");
+
+        allPaymentPlans.forEach(this::addPaymentPlan);
+        allPayments.forEach(this::addPayment);
+        allDebts.forEach(this::addDebt);
+    }
+
+    /**
+     * Adds a debt, or replaces the debt with the same id. A new debt is placed after every debt added before it, and a
+     * replaced debt keeps its place.
+     * @param debt The debt to add.
+     */
+    public void addDebt(Debt debt) {
+        Objects.requireNonNull(debt, "Cannot add debt: debt must not be null");
+
+        lock.writeLock().lock();
+        try {
+            Integer index = debtInfoIndexesByDebtId.get(debt.getId());
+            if (index == null) {
+                debtInfoIndexesByDebtId.put(debt.getId(), debtInfos.size());
+                debtInfos.add(evaluateDebt(debt));
+            } else {
+                debtInfos.set(index, evaluateDebt(debt));
+            }
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a payment plan. As in DebtAnalysisService, a debt only ever uses the first payment plan added for it.
+     * Payment plan ids are expected to be unique.
+     * @param paymentPlan The payment plan to add.
+     */
+    public void addPaymentPlan(PaymentPlan paymentPlan) {
+        Objects.requireNonNull(paymentPlan, "Cannot add payment plan: paymentPlan must not be null");
+
+        lock.writeLock().lock();
+        try {
+            paymentPlansById.putIfAbsent(paymentPlan.getId(), paymentPlan);
+            if (paymentPlansByDebtId.putIfAbsent(paymentPlan.getDebtId(), paymentPlan) == null) {
+                reevaluateDebt(paymentPlan.getDebtId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a payment. Payments count towards their plan in the order they are added.
+     * @param payment The payment to add.
+     */
+    public void addPayment(Payment payment) {
+        Objects.requireNonNull(payment, "Cannot add payment: payment must not be null");
+
+        lock.writeLock().lock();
+        try {
+            PaymentTotals paymentTotals = paymentTotalsByPaymentPlanId.get(payment.getPaymentPlanId());
+            if (paymentTotals == null) {
+                paymentTotals = new PaymentTotals();
+                paymentTotalsByPaymentPlanId.put(payment.getPaymentPlanId(), paymentTotals);
+            }
+            paymentTotals.add(payment.getAmountInMinorUnits());
+
+            PaymentPlan paymentPlan = paymentPlansById.get(payment.getPaymentPlanId());
+            if (paymentPlan != null && paymentPlansByDebtId.get(paymentPlan.getDebtId()) == paymentPlan) {
+                reevaluateDebt(paymentPlan.getDebtId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up the current metadata for a single debt.
+     * @param debtId The id of the debt.
+     * @return The debt's DebtInfo, or null if no debt with that id has been added.
+     */
+    public DebtInfo getDebtInfo(int debtId) {
+        lock.readLock().lock();
+        try {
+            Integer index = debtInfoIndexesByDebtId.get(debtId);
+            return index != null ? debtInfos.get(index) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes a consistent snapshot of the metadata for every debt. The snapshot is unaffected by later additions, and
+     * is only rebuilt when something has been added since the last one was taken.
+     * @return An unmodifiable List of DebtInfos, one per debt, in the order the debts were first added.
+     */
+    public List<DebtInfo> snapshot() {
+        List<DebtInfo> currentSnapshot = snapshot;
+        if (currentSnapshot != null) {
+            return currentSnapshot;
+        }
+
+        lock.readLock().lock();
+        try {
+            // Writers are held off while the read lock is held, so nothing can invalidate this copy before it is
+            // published.
+            currentSnapshot = Collections.unmodifiableList(new ArrayList<>(debtInfos));
+            snapshot = currentSnapshot;
+            return currentSnapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes the DebtInfo for a debt, if the debt has been added. Must be called with the write lock held.
+     */
+    private void reevaluateDebt(int debtId) {
+        Integer index = debtInfoIndexesByDebtId.get(debtId);
+        if (index != null) {
+            debtInfos.set(index, evaluateDebt(debtInfos.get(index).getDebt()));
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Computes the metadata for a debt from its payment plan's running totals. This gives the same result as
+     * DebtAnalysisService.evaluateDebt walking every payment: a debt is paid off if the running total of its payments
+     * ever reached the debt amount, and otherwise its schedule depends only on the final and highest totals.
+     */
+    private DebtInfo evaluateDebt(Debt debt) {
+        PaymentPlan paymentPlan = paymentPlansByDebtId.get(debt.getId());
+        if (paymentPlan == null) {
+            return new DebtInfo(debt, false, Money.toDollars(debt.getAmountInMinorUnits()), null);
+        }
+
+        PaymentTotals paymentTotals = paymentTotalsByPaymentPlanId.get(paymentPlan.getId());
+        if (paymentTotals == null) {
+            // As in DebtAnalysisService, a plan with no payments has only paid off a debt of nothing.
+            if (debt.getAmountInMinorUnits() == 0) {
+                return new DebtInfo(debt, true, 0.0, null);
+            }
+            return DebtAnalysisService.scheduledDebtInfo(debt, paymentPlan, 0, 0);
+        }
+
+        if (paymentTotals.highestTotalPaid >= debt.getAmountInMinorUnits()) {
+            return new DebtInfo(debt, true, 0.0, null);
+        }
+        return DebtAnalysisService.scheduledDebtInfo(debt, paymentPlan, paymentTotals.totalPaid,
+                Math.max(paymentTotals.highestTotalPaid, 0));
+    }
+
+    /**
+     * The running totals of the payments made against one payment plan, in minor units.
+     */
+    private static class PaymentTotals {
+        private long totalPaid;
+        private long highestTotalPaid = Long.MIN_VALUE;
+
+        void add(long amountInMinorUnits) {
+            totalPaid += amountInMinorUnits;
+            highestTotalPaid = Math.max(highestTotalPaid, totalPaid);
+        }
+    }
+}
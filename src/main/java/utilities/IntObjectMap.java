@@ -0,0 +1,140 @@
+package utilities;
+
+/**
+ * This class is a minimal hash map keyed by primitive ints. It exists so the analysis indexes can look records up by
+ * id without boxing every key into an Integer. Keys are stored with open addressing and linear probing in a power of
+ * two sized table. Entries can be added or replaced, but never removed, which is all the indexes need.
+ * @param <V> The type of value stored against each int key.
+ */
+public final class IntObjectMap<V> {
+    private static final int DEFAULT_EXPECTED_SIZE = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public IntObjectMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Creates a map sized so that the given number of entries can be added without resizing.
+     * @param expectedSize The number of entries the map is expected to hold.
+     */
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Cannot construct IntObjectMap: expectedSize must not be negative");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up the value stored against a key.
+     * @param key The key to look up.
+     * @return The value for the key, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Stores a value against a key, replacing any value already stored there.
+     * @param key The key to store the value against.
+     * @param value The value to store. Must not be null, since null is how empty slots are recognized.
+     * @return The value previously stored against the key, or null if there was none.
+     */
+    public V put(int key, V value) {
+        return insert(key, value, true);
+    }
+
+    /**
+     * Stores a value against a key only if the key is not already in the map.
+     * @param key The key to store the value against.
+     * @param value The value to store. Must not be null, since null is how empty slots are recognized.
+     * @return The value already stored against the key, or null if the given value was stored.
+     */
+    public V putIfAbsent(int key, V value) {
+        return insert(key, value, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V insert(int key, V value, boolean replaceExisting) {
+        if (value == null) {
+            throw new NullPointerException("Cannot add to IntObjectMap: value must not be null");
+        }
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V existing = (V) values[slot];
+                if (replaceExisting) {
+                    values[slot] = value;
+                }
+                return existing;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return null;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+
+        int mask = keys.length - 1;
+        for (int index = 0; index < oldKeys.length; index++) {
+            if (oldValues[index] != null) {
+                int slot = hash(oldKeys[index]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[index];
+                values[slot] = oldValues[index];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new Object[tableSize];
+        resizeThreshold = (int) (tableSize * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long minimumSize = (long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR) + 1;
+        return (int) Math.min(1L << 30, Long.highestOneBit(minimumSize - 1) << 1);
+    }
+
+    /**
+     * Spreads the bits of the key so that sequential ids don't cluster into neighbouring slots.
+     */
+    private static int hash(int key) {
+        int mixed = key * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
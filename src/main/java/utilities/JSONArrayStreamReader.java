@@ -0,0 +1,130 @@
+package utilities;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class reads a JSON array of objects from a stream one element at a time, decoding each element into a data
+ * object as soon as it has been read. Only the element currently being decoded is ever held as a JSONObject, so the
+ * memory needed is proportional to the decoded objects rather than to the raw text plus a tree of the whole array.
+ * @param <T> The type of data object each element decodes to.
+ */
+public class JSONArrayStreamReader<T> {
+    private final JSONTokener tokener;
+    private final ElementDecoder<T> decoder;
+    private boolean finished;
+
+    /**
+     * Starts reading an array from a stream. The opening '[' is consumed straight away.
+     * @param inputStream The UTF-8 encoded stream holding the array. The caller remains responsible for closing it.
+     * @param decoder Turns each element of the array into a data object.
+     * @throws JSONException If the stream does not start with a JSON array.
+     */
+    public JSONArrayStreamReader(InputStream inputStream, ElementDecoder<T> decoder) throws JSONException {
+        this.tokener = new JSONTokener(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.decoder = decoder;
+
+        if (tokener.nextClean() != '[') {
+            throw tokener.syntaxError("A JSONArray text must start with '['");
+        }
+        if (tokener.nextClean() == ']') {
+            finished = true;
+        } else {
+            tokener.back();
+        }
+    }
+
+    /**
+     * @return True if there is at least one more element in the array to read.
+     */
+    public boolean hasNext() {
+        return !finished;
+    }
+
+    /**
+     * Reads and decodes the next element of the array.
+     * @return The data object the element decoded to.
+     * @throws JSONException If the element, or the separator after it, is malformed.
+     * @throws ParseException If the decoder could not parse a value in the element.
+     * @throws NoSuchElementException If the end of the array has already been reached.
+     */
+    public T next() throws JSONException, ParseException {
+        if (finished) {
+            throw new NoSuchElementException("Cannot read next element: the end of the array has been reached");
+        }
+
+        T element = decoder.decode(new JSONObject(tokener));
+
+        char separator = tokener.nextClean();
+        if (separator == ']') {
+            finished = true;
+        } else if (separator != ',') {
+            throw tokener.syntaxError("Expected a ',' or ']'");
+        }
+
+        return element;
+    }
+
+    /**
+     * Reads and decodes every remaining element of the array.
+     * @return A List of the decoded data objects, in the order they appear in the array.
+     * @throws JSONException If the array is malformed.
+     * @throws ParseException If the decoder could not parse a value in an element.
+     */
+    public List<T> readAll() throws JSONException, ParseException {
+        List<T> elements = new ArrayList<>();
+        while (hasNext()) {
+            elements.add(next());
+        }
+        return elements;
+    }
+
+    /**
+     * Exposes the remaining elements of the array as a lazy, sequential Stream. Elements are read and decoded only as
+     * the Stream pulls them. Since a Stream can't throw checked exceptions, a ParseException thrown by the decoder is
+     * rethrown as a JSONException with the ParseException as its cause.
+     * @return A Stream of the decoded data objects, in the order they appear in the array.
+     */
+    public Stream<T> stream() {
+        Iterator<T> iterator = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return JSONArrayStreamReader.this.hasNext();
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return JSONArrayStreamReader.this.next();
+                } catch (ParseException e) {
+                    throw new JSONException(e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Turns a single element of a JSON array into a data object.
+     * @param <T> The type of data object the element decodes to.
+     */
+    @FunctionalInterface
+    public interface ElementDecoder<T> {
+        T decode(JSONObject jsonObject) throws JSONException, ParseException;
+    }
+}
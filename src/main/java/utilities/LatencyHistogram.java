@@ -0,0 +1,132 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a fixed-size histogram of durations, cheap enough to record every event of a hot path into. Recording
+ * a value is a few bit operations and an atomic increment, with no allocation and no locks, and any number of threads
+ * may record at once.
+ *
+ * Values are counted in buckets that grow exponentially, with each power of two split into eight equal sub-buckets,
+ * so any value is known to within 12.5% no matter its size, in about 4KB of counters. Percentiles report the upper
+ * bound of the bucket they fall in, never more than the largest value recorded.
+ */
+public final class LatencyHistogram {
+    /**
+     * Each power of two is split into 2 to the power of this many sub-buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value.
+     * @param value The value, such as a duration in nanoseconds. Negative values, which a clock going backwards can
+     * produce, are recorded as 0.
+     */
+    public void record(long value) {
+        long clamped = Math.max(value, 0);
+        buckets.incrementAndGet(bucketOf(clamped));
+        count.increment();
+        total.add(clamped);
+
+        long currentMax = max.get();
+        while (clamped > currentMax && !max.compareAndSet(currentMax, clamped)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * @return The number of values recorded.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return The sum of every value recorded.
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return The largest value recorded, or 0 if none have been.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return The mean of the values recorded, or 0 if none have been.
+     */
+    public double getMean() {
+        long currentCount = count.sum();
+        return currentCount == 0 ? 0 : (double) total.sum() / currentCount;
+    }
+
+    /**
+     * Finds the value that the given fraction of recorded values are no larger than. Values recorded while this runs
+     * may or may not be included.
+     * @param fraction The fraction of values, from 0 to 1, i.e. 0.99 for the 99th percentile.
+     * @return The upper bound of the bucket that value falls in, capped at the largest value recorded, or 0 if no
+     * values have been recorded.
+     */
+    public long getPercentile(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Cannot get percentile: fraction must be between 0 and 1");
+        }
+
+        long[] counts = new long[BUCKET_COUNT];
+        long recorded = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counts[bucket] = buckets.get(bucket);
+            recorded += counts[bucket];
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        long rank = Math.max((long) Math.ceil(fraction * recorded), 1);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Finds the bucket a value is counted in. Values below SUB_BUCKETS each have a bucket of their own. Above that,
+     * a value's highest set bit picks its power of two, and the bits just below it pick the sub-bucket.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The largest value counted in the given bucket.
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
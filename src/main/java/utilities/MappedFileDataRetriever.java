@@ -0,0 +1,418 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import interfaces.DataRetriever;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * This class is a DataRetriever that gets it's data from files on local disk, such as exports of the API's endpoints.
+ * Each file may hold either a JSON array of records, in the same format the API returns, or newline-delimited JSON with
+ * one record per line. Which one is decided by the first character of the file.
+ *
+ * Files are memory-mapped rather than read, and records are parsed straight from the mapped bytes (see
+ * ByteBufferJSONReader), so the text of a file is never copied onto the heap. Large files are split into chunks at
+ * record boundaries, and the chunks are parsed in parallel on the common ForkJoinPool. The records are returned in
+ * the order they appear in the file either way.
+ *
+ * Newline-delimited files can be split anywhere, by moving forward to the next line break. A JSON array can't, since a
+ * string value may contain anything that marks the end of a record, so the boundaries are found with a quick pass over
+ * the structure of the array that tracks strings and nesting without parsing any values.
+ */
+public class MappedFileDataRetriever implements DataRetriever {
+    /**
+     * Files smaller than this are parsed by a single thread, since splitting them would cost more than it saves.
+     */
+    private static final long DEFAULT_MIN_CHUNK_BYTES = 1 << 20;
+
+    /**
+     * A single mapping can't be larger than 2GB, so chunks are kept well below that however few threads are used.
+     */
+    private static final long MAX_CHUNK_BYTES = 1 << 30;
+
+    /**
+     * How much of a file is mapped at a time while looking for record boundaries.
+     */
+    private static final int SCAN_WINDOW_BYTES = 1 << 16;
+
+    private static final byte[][] DEBT_FIELDS = ByteBufferJSONReader.fieldNames("id", "amount");
+    private static final byte[][] PAYMENT_PLAN_FIELDS = ByteBufferJSONReader.fieldNames("id", "debt_id",
+            "amount_to_pay", "installment_frequency", "installment_amount", "start_date");
+    private static final byte[][] PAYMENT_FIELDS = ByteBufferJSONReader.fieldNames("payment_plan_id", "amount",
+            "date");
+
+    private final Path debtsFile;
+    private final Path paymentPlansFile;
+    private final Path paymentsFile;
+
+    /**
+     * The most chunks a single file is split into.
+     */
+    private final int parallelism;
+    private final long minChunkBytes;
+
+    /**
+     * Creates a retriever that splits each file across as many threads as there are processors.
+     * @param debtsFile The file holding the debts.
+     * @param paymentPlansFile The file holding the payment plans.
+     * @param paymentsFile The file holding the payments.
+     */
+    public MappedFileDataRetriever(Path debtsFile, Path paymentPlansFile, Path paymentsFile) {
+        this(debtsFile, paymentPlansFile, paymentsFile, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a retriever that splits each file across at most the given number of threads.
+     * @param debtsFile The file holding the debts.
+     * @param paymentPlansFile The file holding the payment plans.
+     * @param paymentsFile The file holding the payments.
+     * @param parallelism The most chunks a single file is split into. Must be at least 1.
+     */
+    public MappedFileDataRetriever(Path debtsFile, Path paymentPlansFile, Path paymentsFile, int parallelism) {
+        this(debtsFile, paymentPlansFile, paymentsFile, parallelism, DEFAULT_MIN_CHUNK_BYTES);
+    }
+
+    MappedFileDataRetriever(Path debtsFile, Path paymentPlansFile, Path paymentsFile, int parallelism,
+                            long minChunkBytes) {
+        Objects.requireNonNull(debtsFile, "Cannot construct MappedFileDataRetriever: debtsFile must not be null");
+        Objects.requireNonNull(paymentPlansFile,
+                "Cannot construct MappedFileDataRetriever: paymentPlansFile must not be null");
+        Objects.requireNonNull(paymentsFile, "Cannot construct MappedFileDataRetriever: paymentsFile must not be null");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Cannot construct MappedFileDataRetriever: parallelism must be at least 1");
+        }
+
+        this.debtsFile = debtsFile;
+        this.paymentPlansFile = paymentPlansFile;
+        this.paymentsFile = paymentsFile;
+        this.parallelism = parallelism;
+        this.minChunkBytes = Math.max(minChunkBytes, 1);
+    }
+
+    /**
+     * Reads all of the debts from the debts file.
+     * @return A List of Debt objects, in the order they appear in the file.
+     * @throws IOException If the file could not be opened or mapped.
+     * @throws JSONException If the file is malformed, or a record is missing a field.
+     */
+    @Override
+    public List<Debt> getAllDebts() throws IOException, JSONException {
+        try {
+            return readAll(debtsFile, DEBT_FIELDS, MappedFileDataRetriever::readDebt);
+        } catch (ParseException e) {
+            // Debts hold no dates, so there is nothing that could fail to parse.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads all of the payment plans from the payment plans file.
+     * @return A List of PaymentPlan objects, in the order they appear in the file.
+     * @throws IOException If the file could not be opened or mapped.
+     * @throws JSONException If the file is malformed, or a record is missing a field.
+     * @throws ParseException If a start date is not a valid date.
+     */
+    @Override
+    public List<PaymentPlan> getAllPaymentPlans() throws IOException, JSONException, ParseException {
+        return readAll(paymentPlansFile, PAYMENT_PLAN_FIELDS, MappedFileDataRetriever::readPaymentPlan);
+    }
+
+    /**
+     * Reads all of the payments from the payments file.
+     * @return A List of Payment objects, in the order they appear in the file.
+     * @throws IOException If the file could not be opened or mapped.
+     * @throws JSONException If the file is malformed, or a record is missing a field.
+     * @throws ParseException If a payment date is not a valid date.
+     */
+    @Override
+    public List<Payment> getAllPayments() throws IOException, JSONException, ParseException {
+        return readAll(paymentsFile, PAYMENT_FIELDS, MappedFileDataRetriever::readPayment);
+    }
+
+    private <T> List<T> readAll(Path file, byte[][] fieldNames, RecordDecoder<T> decoder)
+            throws IOException, JSONException, ParseException {
+        List<MappedByteBuffer> chunks;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            chunks = mapChunks(channel, file.toString());
+        }
+
+        // The mappings stay valid after the channel is closed, until they are garbage collected.
+        String sourceName = file.toString();
+        long[] chunkOffsets = new long[chunks.size()];
+        for (int index = 1; index < chunks.size(); index++) {
+            chunkOffsets[index] = chunkOffsets[index - 1] + chunks.get(index - 1).capacity();
+        }
+
+        List<List<T>> chunkRecords;
+        try {
+            chunkRecords = IntStream.range(0, chunks.size()).parallel()
+                    .mapToObj(index -> readChunk(chunks.get(index), chunkOffsets[index], sourceName, fieldNames,
+                            decoder))
+                    .collect(Collectors.toList());
+        } catch (JSONException e) {
+            if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
+            }
+            throw e;
+        }
+
+        int recordCount = chunkRecords.stream().mapToInt(List::size).sum();
+        List<T> records = new ArrayList<>(recordCount);
+        chunkRecords.forEach(records::addAll);
+        return records;
+    }
+
+    /**
+     * Reads every record in one chunk. Since this runs inside a Stream, a ParseException from the decoder is rethrown
+     * as a JSONException with the ParseException as its cause, as JSONArrayStreamReader.stream does.
+     */
+    private static <T> List<T> readChunk(MappedByteBuffer chunk, long chunkOffset, String sourceName,
+                                         byte[][] fieldNames, RecordDecoder<T> decoder) {
+        ByteBufferJSONReader reader = new ByteBufferJSONReader(chunk, 0, chunk.capacity(), chunkOffset, sourceName);
+        List<T> records = new ArrayList<>();
+        try {
+            while (reader.nextRecord(fieldNames)) {
+                records.add(decoder.decode(reader));
+            }
+        } catch (ParseException e) {
+            throw new JSONException(e.getMessage(), e);
+        }
+        return records;
+    }
+
+    /**
+     * Splits a file into chunks that each start and end on a record boundary, and maps each of them.
+     */
+    private List<MappedByteBuffer> mapChunks(FileChannel channel, String sourceName) throws IOException {
+        long size = channel.size();
+        int chunkCount = (int) Math.max(Math.min(parallelism, size / minChunkBytes),
+                (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+
+        long[] boundaries = new long[Math.max(chunkCount, 1) + 1];
+        boundaries[boundaries.length - 1] = size;
+        if (chunkCount > 1) {
+            long[] targets = new long[chunkCount - 1];
+            for (int index = 0; index < targets.length; index++) {
+                targets[index] = size * (index + 1) / chunkCount;
+            }
+            if (isJSONArray(channel, size, sourceName)) {
+                findArrayBoundaries(channel, size, targets, boundaries);
+            } else {
+                for (int index = 0; index < targets.length; index++) {
+                    boundaries[index + 1] = findLineStart(channel, size, targets[index]);
+                }
+            }
+        }
+
+        List<MappedByteBuffer> chunks = new ArrayList<>(boundaries.length - 1);
+        for (int index = 0; index + 1 < boundaries.length; index++) {
+            // A chunk that starts at or past the next boundary, because a single record spans several targets, is
+            // left empty, and its records are read as part of the chunk before it.
+            long start = boundaries[index];
+            long end = Math.max(start, boundaries[index + 1]);
+            boundaries[index + 1] = end;
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Cannot map " + sourceName + ": a single record spans more than 2GB");
+            }
+            chunks.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+        }
+        return chunks;
+    }
+
+    /**
+     * Decides whether a file holds a JSON array or newline-delimited records, from its first non-whitespace byte.
+     */
+    private static boolean isJSONArray(FileChannel channel, long size, String sourceName) throws IOException {
+        for (long windowStart = 0; windowStart < size; windowStart += SCAN_WINDOW_BYTES) {
+            MappedByteBuffer window = mapWindow(channel, size, windowStart);
+            for (int index = 0; index < window.capacity(); index++) {
+                byte next = window.get(index);
+                if (next == '[') {
+                    return true;
+                }
+                if (next == '{') {
+                    return false;
+                }
+                if (!ByteBufferJSONReader.isWhitespace(next)) {
+                    throw new JSONException("Expected a JSON array or newline-delimited JSON objects at byte "
+                            + (windowStart + index) + " of " + sourceName);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the first byte after the first line break at or after a position, or the end of the file if there is none.
+     */
+    private static long findLineStart(FileChannel channel, long size, long position) throws IOException {
+        for (long windowStart = position; windowStart < size; windowStart += SCAN_WINDOW_BYTES) {
+            MappedByteBuffer window = mapWindow(channel, size, windowStart);
+            for (int index = 0; index < window.capacity(); index++) {
+                if (window.get(index) == '\n') {
+                    return windowStart + index + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Walks the structure of a JSON array from the start, and records the position just after the first comma
+     * separating two elements at or after each target. The walk stops as soon as the last target has been passed.
+     */
+    private static void findArrayBoundaries(FileChannel channel, long size, long[] targets, long[] boundaries)
+            throws IOException {
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        int target = 0;
+        for (long windowStart = 0; windowStart < size && target < targets.length; windowStart += MAX_CHUNK_BYTES) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                    Math.min(MAX_CHUNK_BYTES, size - windowStart));
+            for (int index = 0; index < window.capacity() && target < targets.length; index++) {
+                byte next = window.get(index);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (next == '\\') {
+                        escaped = true;
+                    } else if (next == '"') {
+                        inString = false;
+                    }
+                } else if (next == '"') {
+                    inString = true;
+                } else if (next == '{' || next == '[') {
+                    depth++;
+                } else if (next == '}' || next == ']') {
+                    depth--;
+                } else if (next == ',' && depth == 1) {
+                    long position = windowStart + index;
+                    while (target < targets.length && targets[target] <= position) {
+                        boundaries[++target] = position + 1;
+                    }
+                }
+            }
+        }
+        while (target < targets.length) {
+            boundaries[++target] = size;
+        }
+    }
+
+    private static MappedByteBuffer mapWindow(FileChannel channel, long size, long windowStart) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(SCAN_WINDOW_BYTES, size - windowStart));
+    }
+
+    private static Debt readDebt(ByteBufferJSONReader reader) {
+        int id = 0;
+        double amount = 0;
+        for (int field = reader.nextField(); field != ByteBufferJSONReader.END_OF_RECORD; field = reader.nextField()) {
+            switch (field) {
+                case 0:
+                    id = reader.readInt();
+                    break;
+                case 1:
+                    amount = reader.readDouble();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.requireAllFields();
+        return new Debt(id, amount);
+    }
+
+    private static PaymentPlan readPaymentPlan(ByteBufferJSONReader reader) throws ParseException {
+        int id = 0;
+        int debtId = 0;
+        double amountToPay = 0;
+        InstallmentFrequency installmentFrequency = null;
+        double installmentAmount = 0;
+        int startEpochDay = 0;
+        for (int field = reader.nextField(); field != ByteBufferJSONReader.END_OF_RECORD; field = reader.nextField()) {
+            switch (field) {
+                case 0:
+                    id = reader.readInt();
+                    break;
+                case 1:
+                    debtId = reader.readInt();
+                    break;
+                case 2:
+                    amountToPay = reader.readDouble();
+                    break;
+                case 3:
+                    installmentFrequency = toInstallmentFrequency(reader.readString());
+                    break;
+                case 4:
+                    installmentAmount = reader.readDouble();
+                    break;
+                case 5:
+                    // As with the API, plain dates are assumed to be in UTC.
+                    startEpochDay = EpochDayParser.parseEpochDay(reader.readString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.requireAllFields();
+        return new PaymentPlan(id, debtId, amountToPay, installmentFrequency, installmentAmount, startEpochDay);
+    }
+
+    private static Payment readPayment(ByteBufferJSONReader reader) throws ParseException {
+        int paymentPlanId = 0;
+        double amount = 0;
+        int epochDay = 0;
+        for (int field = reader.nextField(); field != ByteBufferJSONReader.END_OF_RECORD; field = reader.nextField()) {
+            switch (field) {
+                case 0:
+                    paymentPlanId = reader.readInt();
+                    break;
+                case 1:
+                    amount = reader.readDouble();
+                    break;
+                case 2:
+                    epochDay = EpochDayParser.parseEpochDay(reader.readString());
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.requireAllFields();
+        return new Payment(paymentPlanId, amount, epochDay);
+    }
+
+    /**
+     * Matches a frequency by name without copying the name into a String. Anything unrecognized is passed to valueOf,
+     * so it fails with the same exception the API retriever gives.
+     */
+    private static InstallmentFrequency toInstallmentFrequency(CharSequence name) {
+        for (InstallmentFrequency installmentFrequency : InstallmentFrequency.values()) {
+            if (installmentFrequency.name().contentEquals(name)) {
+                return installmentFrequency;
+            }
+        }
+        return InstallmentFrequency.valueOf(name.toString());
+    }
+
+    /**
+     * Turns the record a reader has just moved into into a data object.
+     */
+    private interface RecordDecoder<T> {
+        T decode(ByteBufferJSONReader reader) throws JSONException, ParseException;
+    }
+}
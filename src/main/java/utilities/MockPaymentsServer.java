@@ -0,0 +1,446 @@
+package utilities;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import interfaces.DataRetriever;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * This class is an embedded HTTP server that imitates the payments API on the loopback interface, so APIDataRetriever
+ * can be tested and benchmarked without touching the network. It serves '/debts', '/payment_plans', and '/payments'
+ * from data held in memory, which can come from any DataRetriever, such as a generated portfolio (see
+ * PortfolioGenerator) or local files (see MappedFileDataRetriever).
+ *
+ * Collections can be requested in pages with the json-server style '_page' and '_limit' query parameters, as
+ * APIDataRetriever does, and every response reports the size of the whole collection in an 'X-Total-Count' header.
+ * Collections can also be filtered on their id fields, as json-server does: '/debts' on 'id', '/payment_plans' on
+ * 'id' and 'debt_id', and '/payments' on 'payment_plan_id'. A parameter repeated with several values matches any of
+ * them, and different parameters must all match. Filtering happens before paging, and the total count is of the
+ * records that matched.
+ *
+ * The server's behaviour can be degraded while it runs, to see how the retriever copes:
+ * - Latency delays every response by a random time within a range before its headers are sent.
+ * - Bandwidth limits how fast response bodies are written.
+ * - The error rate is the probability that a request is answered with '503 Service Unavailable' instead of data.
+ * - The maximum page size caps how many records one response holds, whatever the client asked for, so a client that
+ * does not paginate receives only the first page.
+ *
+ * The server starts as soon as it is constructed, and runs until it is closed. Each request is handled on its own
+ * thread, so slow responses do not hold up the ones behind them.
+ */
+public class MockPaymentsServer implements AutoCloseable {
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_SERVICE_UNAVAILABLE = 503;
+
+    /**
+     * How many slices each second is divided into when limiting bandwidth. Each slice's share of the body is written
+     * at once, then the writer waits for the next slice.
+     */
+    private static final int BANDWIDTH_SLICES_PER_SECOND = 50;
+
+    /**
+     * The records of each collection, keyed by request path, already encoded as JSON objects so pages can be
+     * assembled without encoding anything.
+     */
+    private final Map<String, List<byte[]>> collections = new HashMap<>();
+
+    /**
+     * The fields each collection can be filtered on, keyed by request path then by query parameter, each holding the
+     * field's value for every record in order.
+     */
+    private final Map<String, Map<String, int[]>> filterFields = new HashMap<>();
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final AtomicInteger maxRequestsInFlight = new AtomicInteger();
+
+    private volatile long minLatencyMillis;
+    private volatile long maxLatencyMillis;
+    private volatile long bytesPerSecond;
+    private volatile double errorRate;
+    private volatile double truncationRate;
+    private volatile int maxPageSize;
+    private volatile boolean ignoresPageNumber;
+
+    /**
+     * Starts a server that serves everything the given DataRetriever retrieves.
+     * @param data The data to serve. It is retrieved once, up front.
+     * @throws Exception If the data could not be retrieved, or the server could not be started.
+     */
+    public MockPaymentsServer(DataRetriever data) throws Exception {
+        this(data.getAllDebts(), data.getAllPaymentPlans(), data.getAllPayments());
+    }
+
+    /**
+     * Starts a server that serves the given data, on a free port of the loopback interface.
+     * @param debts The debts to serve from '/debts', in order.
+     * @param paymentPlans The payment plans to serve from '/payment_plans', in order.
+     * @param payments The payments to serve from '/payments', in order.
+     * @throws IOException If the server could not be started.
+     */
+    public MockPaymentsServer(List<Debt> debts, List<PaymentPlan> paymentPlans, List<Payment> payments)
+            throws IOException {
+        collections.put("/debts", encodeAll(Objects.requireNonNull(debts,
+                "Cannot construct MockPaymentsServer: debts must not be null"), APIJSONEncoder::encode));
+        collections.put("/payment_plans", encodeAll(Objects.requireNonNull(paymentPlans,
+                "Cannot construct MockPaymentsServer: paymentPlans must not be null"), APIJSONEncoder::encode));
+        collections.put("/payments", encodeAll(Objects.requireNonNull(payments,
+                "Cannot construct MockPaymentsServer: payments must not be null"), APIJSONEncoder::encode));
+
+        filterFields.put("/debts", Map.of("id", fieldOf(debts, Debt::getId)));
+        filterFields.put("/payment_plans", Map.of("id", fieldOf(paymentPlans, PaymentPlan::getId),
+                "debt_id", fieldOf(paymentPlans, PaymentPlan::getDebtId)));
+        filterFields.put("/payments", Map.of("payment_plan_id", fieldOf(payments, Payment::getPaymentPlanId)));
+
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "MockPaymentsServer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext("/", this::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+    }
+
+    /**
+     * @return The URL to give an APIDataRetriever to retrieve from this server, ending in '/'.
+     */
+    public String getRootUrl() {
+        InetSocketAddress address = httpServer.getAddress();
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort() + "/";
+    }
+
+    /**
+     * @return The number of requests received since the server started, including those answered with an error.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return The number of requests in progress, up until the last of their response is written. A client can only
+     * have finished with a response once that is sent, so a request it has finished with is never counted.
+     */
+    public int getRequestsInFlight() {
+        return requestsInFlight.get();
+    }
+
+    /**
+     * @return The most requests that have been in progress at once since the server started.
+     */
+    public int getMaxRequestsInFlight() {
+        return maxRequestsInFlight.get();
+    }
+
+    /**
+     * Delays every response by a random time from minMillis up to maxMillis, chosen uniformly for each request.
+     * @param minMillis The shortest delay. Must not be negative.
+     * @param maxMillis The longest delay. Must not be smaller than minMillis.
+     */
+    public void setLatencyMillis(long minMillis, long maxMillis) {
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException(
+                    "Cannot set latency: minMillis must not be negative, and maxMillis must not be smaller than it");
+        }
+        this.minLatencyMillis = minMillis;
+        this.maxLatencyMillis = maxMillis;
+    }
+
+    /**
+     * Limits how fast each response body is written. The limit applies to each response on its own, not to the
+     * server as a whole.
+     * @param bytesPerSecond The most bytes written per second, or 0 to write as fast as possible.
+     */
+    public void setBandwidthBytesPerSecond(long bytesPerSecond) {
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("Cannot set bandwidth: bytesPerSecond must not be negative");
+        }
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * @param errorRate The probability, from 0 to 1, that a request is answered with '503 Service Unavailable'.
+     */
+    public void setErrorRate(double errorRate) {
+        if (!(errorRate >= 0 && errorRate <= 1)) {
+            throw new IllegalArgumentException("Cannot set error rate: errorRate must be between 0 and 1");
+        }
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @param truncationRate The probability, from 0 to 1, that the connection is dropped halfway through sending an
+     * 'OK' response's body.
+     */
+    public void setTruncationRate(double truncationRate) {
+        if (!(truncationRate >= 0 && truncationRate <= 1)) {
+            throw new IllegalArgumentException("Cannot set truncation rate: truncationRate must be between 0 and 1");
+        }
+        this.truncationRate = truncationRate;
+    }
+
+    /**
+     * @param maxPageSize The most records any one response holds, or 0 to return as many as were asked for.
+     */
+    public void setMaxPageSize(int maxPageSize) {
+        if (maxPageSize < 0) {
+            throw new IllegalArgumentException("Cannot set max page size: maxPageSize must not be negative");
+        }
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * @param ignoresPageNumber Whether to ignore '_page' and always answer with the first page, as a server that
+     * supports '_limit' but not '_page' would.
+     */
+    public void setIgnoresPageNumber(boolean ignoresPageNumber) {
+        this.ignoresPageNumber = ignoresPageNumber;
+    }
+
+    /**
+     * Stops the server straight away, abandoning any responses still being written.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        maxRequestsInFlight.accumulateAndGet(requestsInFlight.incrementAndGet(), Math::max);
+        AtomicBoolean inFlight = new AtomicBoolean(true);
+        try (exchange) {
+            long latencyMillis = minLatencyMillis + (maxLatencyMillis > minLatencyMillis
+                    ? ThreadLocalRandom.current().nextLong(maxLatencyMillis - minLatencyMillis + 1)
+                    : 0);
+            TimeUnit.MILLISECONDS.sleep(latencyMillis);
+
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                endRequest(inFlight);
+                exchange.sendResponseHeaders(STATUS_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            List<byte[]> records = collections.get(path);
+            if (records == null) {
+                endRequest(inFlight);
+                exchange.sendResponseHeaders(STATUS_NOT_FOUND, -1);
+                return;
+            }
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                endRequest(inFlight);
+                exchange.sendResponseHeaders(STATUS_SERVICE_UNAVAILABLE, -1);
+                return;
+            }
+
+            byte[] body;
+            try {
+                Map<String, List<String>> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                records = filter(path, records, query);
+                body = page(records, query);
+            } catch (IllegalArgumentException e) {
+                endRequest(inFlight);
+                exchange.sendResponseHeaders(STATUS_BAD_REQUEST, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("X-Total-Count", Integer.toString(records.size()));
+            exchange.sendResponseHeaders(STATUS_OK, body.length);
+            if (ThreadLocalRandom.current().nextDouble() < truncationRate) {
+                // Closing the exchange before the whole body is written drops the connection.
+                writeBody(exchange.getResponseBody(), Arrays.copyOf(body, body.length / 2), inFlight);
+                return;
+            }
+            writeBody(exchange.getResponseBody(), body, inFlight);
+        } catch (InterruptedException e) {
+            // The server is being closed, so the response is abandoned.
+            Thread.currentThread().interrupt();
+        } finally {
+            endRequest(inFlight);
+        }
+    }
+
+    /**
+     * Stops counting a request as in flight, if it still is. This is done just before the last of its response is
+     * written, since the client may send its next request as soon as that arrives.
+     */
+    private void endRequest(AtomicBoolean inFlight) {
+        if (inFlight.getAndSet(false)) {
+            requestsInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Keeps the records of a collection that match every filter in a request. Parameters starting with '_' control
+     * paging, and are not filters.
+     * @param path The request path of the collection.
+     * @param records The encoded records of the whole collection.
+     * @param query The request's query parameters.
+     * @return The encoded records that match, in order.
+     * @throws IllegalArgumentException If the collection cannot be filtered on a parameter, or a value is not a whole
+     * number.
+     */
+    private List<byte[]> filter(String path, List<byte[]> records, Map<String, List<String>> query) {
+        boolean[] matches = null;
+        for (Map.Entry<String, List<String>> parameter : query.entrySet()) {
+            if (parameter.getKey().startsWith("_")) {
+                continue;
+            }
+            int[] field = filterFields.get(path).get(parameter.getKey());
+            if (field == null) {
+                throw new IllegalArgumentException("Cannot filter " + path + " on " + parameter.getKey());
+            }
+            Set<Integer> values = new HashSet<>();
+            for (String value : parameter.getValue()) {
+                values.add(Integer.parseInt(value));
+            }
+
+            if (matches == null) {
+                matches = new boolean[records.size()];
+                Arrays.fill(matches, true);
+            }
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] &= values.contains(field[i]);
+            }
+        }
+        if (matches == null) {
+            return records;
+        }
+
+        List<byte[]> filtered = new ArrayList<>();
+        for (int i = 0; i < matches.length; i++) {
+            if (matches[i]) {
+                filtered.add(records.get(i));
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Assembles the JSON array for the page of records a request asked for.
+     * @param records The encoded records of the collection, after filtering.
+     * @param query The request's query parameters.
+     * @return The page's JSON array, encoded in UTF-8.
+     * @throws IllegalArgumentException If '_page' or '_limit' is not a positive whole number.
+     */
+    private byte[] page(List<byte[]> records, Map<String, List<String>> query) {
+        int limit = query.containsKey("_limit") ? parsePositive(query.get("_limit").get(0)) : records.size();
+        if (maxPageSize > 0) {
+            limit = Math.min(limit, maxPageSize);
+        }
+        int pageNumber = query.containsKey("_page") ? parsePositive(query.get("_page").get(0)) : 1;
+        if (ignoresPageNumber) {
+            pageNumber = 1;
+        }
+        long from = Math.min((long) (pageNumber - 1) * limit, records.size());
+        long to = Math.min(from + limit, records.size());
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write('[');
+        for (int i = (int) from; i < to; i++) {
+            if (i > from) {
+                body.write(',');
+            }
+            body.writeBytes(records.get(i));
+        }
+        body.write(']');
+        return body.toByteArray();
+    }
+
+    /**
+     * Writes a response body, no faster than the bandwidth limit allows, ending the request just before the last of it
+     * is written.
+     */
+    private void writeBody(OutputStream out, byte[] body, AtomicBoolean inFlight)
+            throws IOException, InterruptedException {
+        long limit = bytesPerSecond;
+        if (limit == 0) {
+            endRequest(inFlight);
+            out.write(body);
+            return;
+        }
+
+        int sliceLength = (int) Math.max(1, Math.min(body.length, limit / BANDWIDTH_SLICES_PER_SECOND));
+        long startNanos = System.nanoTime();
+        for (int offset = 0; offset < body.length; offset += sliceLength) {
+            int length = Math.min(sliceLength, body.length - offset);
+            if (offset + length == body.length) {
+                endRequest(inFlight);
+            }
+            out.write(body, offset, length);
+            out.flush();
+
+            long dueNanos = startNanos + (long) ((offset + length) * (double) TimeUnit.SECONDS.toNanos(1) / limit);
+            TimeUnit.NANOSECONDS.sleep(dueNanos - System.nanoTime());
+        }
+    }
+
+    /**
+     * Splits a query into its parameters, each with every value it was given, in order.
+     */
+    private static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            String value = equals < 0 ? "" : parameter.substring(equals + 1);
+            query.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        return query;
+    }
+
+    private static int parsePositive(String value) {
+        int number = Integer.parseInt(value);
+        if (number < 1) {
+            throw new IllegalArgumentException("Expected a positive whole number, but was " + value);
+        }
+        return number;
+    }
+
+    private static <T> int[] fieldOf(List<T> records, ToIntFunction<T> field) {
+        return records.stream().mapToInt(field).toArray();
+    }
+
+    private static <T> List<byte[]> encodeAll(List<T> records, Function<T, String> encoder) {
+        return records.stream()
+                .map(record -> encoder.apply(record).getBytes(StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,314 @@
+package utilities;
+
+import data.Debt;
+import data.Money;
+import data.Payment;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import interfaces.DataRetriever;
+import interfaces.Distribution;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * This class generates synthetic portfolios of debts, payment plans, and payments of any size, for testing and
+ * benchmarking at scale. The same seed and settings always generate exactly the same portfolio, whichever form it is
+ * generated in.
+ *
+ * Each debt is generated in turn, along with its payment plan, if it has one, and that plan's payments:
+ * - The debt's amount is drawn from the debt amount distribution, rounded to the cent.
+ * - The debt gets a payment plan with the given probability. The plan is for the whole debt, is WEEKLY with the given
+ * probability and BI_WEEKLY otherwise, and starts on a random day of 2020. Its installment amount is the debt amount
+ * times a fraction drawn from the installment fraction distribution.
+ * - The number of installments that have come due is drawn from the payment count distribution. Each installment is
+ * missed with the given probability. Otherwise it is paid up to two days late, and with the given probability the
+ * payment is a lump sum several times the installment, the multiple drawn from the overpayment distribution. Payments
+ * stop once the debt is paid off, and the last one never pays more than what remains.
+ *
+ * A portfolio can be generated into memory, or written as JSON in the shape the API serves. Written portfolios are
+ * streamed record by record, so any size can be written in constant memory. Since payments are generated debt by
+ * debt, they are grouped by payment plan rather than interleaved by date.
+ */
+public class PortfolioGenerator {
+    /**
+     * The names of the files writeJson writes, which match the API endpoints they imitate, so a directory of them can
+     * be served as a mock API.
+     */
+    public static final String DEBTS_FILE = "debts";
+    public static final String PAYMENT_PLANS_FILE = "payment_plans";
+    public static final String PAYMENTS_FILE = "payments";
+
+    private static final LocalDate FIRST_START_DATE = LocalDate.of(2020, 1, 1);
+    private static final int START_DATE_RANGE_DAYS = 366;
+    private static final int MAX_DAYS_LATE = 2;
+    private static final long MIN_AMOUNT_IN_CENTS = 1;
+    private static final long MAX_AMOUNT_IN_CENTS = 100_000_000_000L;
+
+    private final long seed;
+    private final Distribution debtAmounts;
+    private final double paymentPlanProbability;
+    private final double weeklyProbability;
+    private final Distribution installmentFractions;
+    private final Distribution paymentCounts;
+    private final double overpaymentProbability;
+    private final Distribution overpaymentMultiples;
+    private final double missedPaymentProbability;
+
+    /**
+     * Creates a generator with settings loosely modelled on the mock API: debts of a few thousand dollars, most of
+     * them in payment plans of four to twenty installments, with the occasional missed payment or lump sum.
+     * @param seed The seed every portfolio is generated from.
+     */
+    public PortfolioGenerator(long seed) {
+        this(seed,
+                Distribution.logNormal(2_000, 1.0),
+                0.75,
+                0.5,
+                Distribution.uniform(0.05, 0.25),
+                Distribution.uniform(0, 24),
+                0.05,
+                Distribution.uniform(2, 6),
+                0.1);
+    }
+
+    /**
+     * Creates a generator with the given settings.
+     * @param seed The seed every portfolio is generated from.
+     * @param debtAmounts The distribution of debt amounts, in dollars. Samples are clamped between one cent and a
+     * billion dollars.
+     * @param paymentPlanProbability The probability that a debt has a payment plan, from 0 to 1.
+     * @param weeklyProbability The probability that a payment plan is WEEKLY rather than BI_WEEKLY, from 0 to 1.
+     * @param installmentFractions The distribution of installment amounts, as a fraction of the debt amount.
+     * @param paymentCounts The distribution of the number of installments that have come due on a payment plan.
+     * Samples are rounded to the nearest whole number, and negative samples count as 0.
+     * @param overpaymentProbability The probability that a payment is a lump sum rather than a single installment,
+     * from 0 to 1.
+     * @param overpaymentMultiples The distribution of lump sums, as a multiple of the installment amount.
+     * @param missedPaymentProbability The probability that an installment is missed, from 0 to 1.
+     */
+    public PortfolioGenerator(long seed,
+                              Distribution debtAmounts,
+                              double paymentPlanProbability,
+                              double weeklyProbability,
+                              Distribution installmentFractions,
+                              Distribution paymentCounts,
+                              double overpaymentProbability,
+                              Distribution overpaymentMultiples,
+                              double missedPaymentProbability) {
+        this.seed = seed;
+        this.debtAmounts = Objects.requireNonNull(debtAmounts,
+                "Cannot construct PortfolioGenerator: debtAmounts must not be null");
+        this.paymentPlanProbability = requireProbability(paymentPlanProbability, "paymentPlanProbability");
+        this.weeklyProbability = requireProbability(weeklyProbability, "weeklyProbability");
+        this.installmentFractions = Objects.requireNonNull(installmentFractions,
+                "Cannot construct PortfolioGenerator: installmentFractions must not be null");
+        this.paymentCounts = Objects.requireNonNull(paymentCounts,
+                "Cannot construct PortfolioGenerator: paymentCounts must not be null");
+        this.overpaymentProbability = requireProbability(overpaymentProbability, "overpaymentProbability");
+        this.overpaymentMultiples = Objects.requireNonNull(overpaymentMultiples,
+                "Cannot construct PortfolioGenerator: overpaymentMultiples must not be null");
+        this.missedPaymentProbability = requireProbability(missedPaymentProbability, "missedPaymentProbability");
+    }
+
+    /**
+     * Generates a portfolio, handing each record to a consumer as soon as it is generated. Nothing is kept once it has
+     * been handed over. A debt is always handed over before its payment plan, and a payment plan before its payments.
+     * @param debtCount The number of debts to generate.
+     * @param debtConsumer Receives each debt.
+     * @param paymentPlanConsumer Receives each payment plan.
+     * @param paymentConsumer Receives each payment.
+     */
+    public void generate(int debtCount,
+                         Consumer<Debt> debtConsumer,
+                         Consumer<PaymentPlan> paymentPlanConsumer,
+                         Consumer<Payment> paymentConsumer) {
+        if (debtCount < 0) {
+            throw new IllegalArgumentException("Cannot generate portfolio: debtCount must not be negative");
+        }
+        Objects.requireNonNull(debtConsumer, "Cannot generate portfolio: debtConsumer must not be null");
+        Objects.requireNonNull(paymentPlanConsumer, "Cannot generate portfolio: paymentPlanConsumer must not be null");
+        Objects.requireNonNull(paymentConsumer, "Cannot generate portfolio: paymentConsumer must not be null");
+
+        Random random = new Random(seed);
+        int nextPaymentPlanId = 0;
+        for (int debtId = 0; debtId < debtCount; debtId++) {
+            long debtCents = toCents(debtAmounts.sample(random));
+            debtConsumer.accept(new Debt(debtId, toDollars(debtCents)));
+            if (random.nextDouble() >= paymentPlanProbability) {
+                continue;
+            }
+
+            InstallmentFrequency installmentFrequency = random.nextDouble() < weeklyProbability
+                    ? InstallmentFrequency.WEEKLY
+                    : InstallmentFrequency.BI_WEEKLY;
+            long installmentCents = toCents(toDollars(debtCents) * installmentFractions.sample(random));
+            int startEpochDay = (int) FIRST_START_DATE.toEpochDay() + random.nextInt(START_DATE_RANGE_DAYS);
+            PaymentPlan paymentPlan = new PaymentPlan(nextPaymentPlanId++, debtId, toDollars(debtCents),
+                    installmentFrequency, toDollars(installmentCents), startEpochDay);
+            paymentPlanConsumer.accept(paymentPlan);
+
+            long installmentsDue = Math.max(Math.round(paymentCounts.sample(random)), 0);
+            long remainingCents = debtCents;
+            for (long installment = 0; installment < installmentsDue && remainingCents > 0; installment++) {
+                if (random.nextDouble() < missedPaymentProbability) {
+                    continue;
+                }
+                long paymentCents = installmentCents;
+                if (random.nextDouble() < overpaymentProbability) {
+                    paymentCents = toCents(toDollars(installmentCents) * overpaymentMultiples.sample(random));
+                }
+                paymentCents = Math.min(paymentCents, remainingCents);
+                remainingCents -= paymentCents;
+
+                long dueEpochDay = startEpochDay + installment * installmentFrequency.getDaysBetweenInstallments();
+                int paidEpochDay = (int) (dueEpochDay + random.nextInt(MAX_DAYS_LATE + 1));
+                paymentConsumer.accept(new Payment(paymentPlan.getId(), toDollars(paymentCents), paidEpochDay));
+            }
+        }
+    }
+
+    /**
+     * Generates a portfolio into memory.
+     * @param debtCount The number of debts to generate.
+     * @return The portfolio, which can be read like any other DataRetriever.
+     */
+    public Portfolio generate(int debtCount) {
+        List<Debt> debts = new ArrayList<>(debtCount);
+        List<PaymentPlan> paymentPlans = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        generate(debtCount, debts::add, paymentPlans::add, payments::add);
+        return new Portfolio(debts, paymentPlans, payments);
+    }
+
+    /**
+     * Generates a portfolio straight into a directory of JSON files, one per collection, in the shape the API serves.
+     * The files are named after the endpoints (see DEBTS_FILE, PAYMENT_PLANS_FILE, and PAYMENTS_FILE), and any existing
+     * files are replaced.
+     * @param debtCount The number of debts to generate.
+     * @param directory The directory to write the files to. It is created if it does not already exist.
+     * @throws IOException If a file could not be written.
+     */
+    public void writeJson(int debtCount, Path directory) throws IOException {
+        Objects.requireNonNull(directory, "Cannot write portfolio: directory must not be null");
+        Files.createDirectories(directory);
+        try (Writer debts = Files.newBufferedWriter(directory.resolve(DEBTS_FILE), StandardCharsets.UTF_8);
+             Writer paymentPlans = Files.newBufferedWriter(directory.resolve(PAYMENT_PLANS_FILE),
+                     StandardCharsets.UTF_8);
+             Writer payments = Files.newBufferedWriter(directory.resolve(PAYMENTS_FILE), StandardCharsets.UTF_8)) {
+            writeJson(debtCount, debts, paymentPlans, payments);
+        }
+    }
+
+    /**
+     * Generates a portfolio as JSON, writing each collection to its own Writer as a JSON array in the shape the API
+     * serves. The Writers are not closed, but are flushed once the portfolio has been written.
+     * @param debtCount The number of debts to generate.
+     * @param debts Where to write the debts.
+     * @param paymentPlans Where to write the payment plans.
+     * @param payments Where to write the payments.
+     * @throws IOException If a Writer fails.
+     */
+    public void writeJson(int debtCount, Writer debts, Writer paymentPlans, Writer payments) throws IOException {
+        JsonArrayWriter debtsArray = new JsonArrayWriter(debts);
+        JsonArrayWriter paymentPlansArray = new JsonArrayWriter(paymentPlans);
+        JsonArrayWriter paymentsArray = new JsonArrayWriter(payments);
+        try {
+            generate(debtCount,
+                    debt -> debtsArray.writeElement(APIJSONEncoder.encode(debt)),
+                    paymentPlan -> paymentPlansArray.writeElement(APIJSONEncoder.encode(paymentPlan)),
+                    payment -> paymentsArray.writeElement(APIJSONEncoder.encode(payment)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        debtsArray.close();
+        paymentPlansArray.close();
+        paymentsArray.close();
+    }
+
+    private static double requireProbability(double probability, String name) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("Cannot construct PortfolioGenerator: " + name
+                    + " must be between 0 and 1");
+        }
+        return probability;
+    }
+
+    private static long toCents(double dollars) {
+        long cents = Double.isNaN(dollars) ? MIN_AMOUNT_IN_CENTS : Math.round(dollars * 100);
+        return Math.min(Math.max(cents, MIN_AMOUNT_IN_CENTS), MAX_AMOUNT_IN_CENTS);
+    }
+
+    private static double toDollars(long cents) {
+        return Money.toDollars(cents * (Money.MINOR_UNITS_PER_DOLLAR / 100));
+    }
+
+    /**
+     * Writes the elements of one JSON array to a Writer as they are generated.
+     */
+    private static class JsonArrayWriter {
+        private final Writer writer;
+        private boolean empty = true;
+
+        JsonArrayWriter(Writer writer) {
+            this.writer = Objects.requireNonNull(writer, "Cannot write portfolio: writers must not be null");
+        }
+
+        void writeElement(String element) {
+            try {
+                writer.write(empty ? "[" : ",");
+                writer.write(element);
+                empty = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() throws IOException {
+            writer.write(empty ? "[]" : "]");
+            writer.flush();
+        }
+    }
+
+    /**
+     * A portfolio generated into memory. Its Lists are unmodifiable.
+     */
+    public static final class Portfolio implements DataRetriever {
+        private final List<Debt> debts;
+        private final List<PaymentPlan> paymentPlans;
+        private final List<Payment> payments;
+
+        private Portfolio(List<Debt> debts, List<PaymentPlan> paymentPlans, List<Payment> payments) {
+            this.debts = Collections.unmodifiableList(debts);
+            this.paymentPlans = Collections.unmodifiableList(paymentPlans);
+            this.payments = Collections.unmodifiableList(payments);
+        }
+
+        @Override
+        public List<Debt> getAllDebts() {
+            return debts;
+        }
+
+        @Override
+        public List<PaymentPlan> getAllPaymentPlans() {
+            return paymentPlans;
+        }
+
+        @Override
+        public List<Payment> getAllPayments() {
+            return payments;
+        }
+    }
+}
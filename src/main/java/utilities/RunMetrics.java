@@ -0,0 +1,343 @@
+package utilities;
+
+import interfaces.RunMetricsMXBean;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * This class collects the metrics of one run: how long each phase took, how much data passed through it, and how long
+ * each debt took to evaluate. APIDataRetriever records its requests here, DebtAnalysisService its debts, and the
+ * output is timed by writing through timeOutput. The metrics can be read while the run is in progress, through JMX
+ * once registered (see RunMetricsMXBean), or as a summary at the end.
+ *
+ * Recording is meant to stay on in production. Counters are LongAdders, which threads can add to without contending,
+ * and per-debt latencies go into a fixed-size LatencyHistogram. Nothing is allocated per record, and the only cost on
+ * the hot path is reading the clock around each debt.
+ */
+public class RunMetrics implements RunMetricsMXBean {
+    /**
+     * The name RunMetrics are registered under with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "true-accord-challenge:type=RunMetrics";
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder indexingNanos = new LongAdder();
+    private final LatencyHistogram debtLatencies = new LatencyHistogram();
+    private final LongAdder paymentPlansOfDebts = new LongAdder();
+    private final LongAdder paymentPlanCount = new LongAdder();
+    private final LongAdder paymentCount = new LongAdder();
+    private final LongAdder orphanedPaymentCount = new LongAdder();
+    private final LongAdder outputNanos = new LongAdder();
+    private final LongAdder outputBytes = new LongAdder();
+    private volatile String failure;
+
+    /**
+     * Registers these metrics with the platform MBean server under OBJECT_NAME, replacing any registered before them.
+     * @throws JMException If the metrics could not be registered.
+     */
+    public void register() throws JMException {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(OBJECT_NAME);
+        if (mBeanServer.isRegistered(objectName)) {
+            mBeanServer.unregisterMBean(objectName);
+        }
+        mBeanServer.registerMBean(this, objectName);
+    }
+
+    /**
+     * Records a request that was answered successfully.
+     * @param endpoint The endpoint's name, i.e. 'debts'.
+     * @param nanos How long the response took to arrive, up to its headers.
+     */
+    public void recordRequest(String endpoint, long nanos) {
+        EndpointMetrics metrics = endpoint(endpoint);
+        metrics.requests.increment();
+        metrics.fetchNanos.add(nanos);
+    }
+
+    /**
+     * Records a request attempt that failed.
+     * @param endpoint The endpoint's name, i.e. 'debts'.
+     */
+    public void recordFailedRequest(String endpoint) {
+        endpoint(endpoint).failedRequests.increment();
+    }
+
+    /**
+     * Records a response body being read and unpacked.
+     * @param endpoint The endpoint's name, i.e. 'debts'.
+     * @param nanos How long the body took to read and unpack.
+     * @param records The number of records unpacked.
+     * @param bytes The number of bytes read.
+     */
+    public void recordUnpack(String endpoint, long nanos, long records, long bytes) {
+        EndpointMetrics metrics = endpoint(endpoint);
+        metrics.unpackNanos.add(nanos);
+        metrics.records.add(records);
+        metrics.bytes.add(bytes);
+    }
+
+    /**
+     * Records the payment plans and payments being indexed for analysis.
+     * @param nanos How long indexing took.
+     * @param paymentPlans The number of payment plans indexed.
+     * @param payments The number of payments indexed.
+     * @param orphanedPayments The number of those payments made against a payment plan that does not exist.
+     */
+    public void recordIndexing(long nanos, int paymentPlans, int payments, int orphanedPayments) {
+        indexingNanos.add(nanos);
+        paymentPlanCount.add(paymentPlans);
+        paymentCount.add(payments);
+        orphanedPaymentCount.add(orphanedPayments);
+    }
+
+    /**
+     * Records one debt being evaluated. Each debt is expected to be recorded once, so the payment plans of the debts
+     * can be told apart from the orphaned ones.
+     * @param nanos How long the debt took to evaluate.
+     * @param paymentPlans The number of payment plans for the debt, 0 if it is in none.
+     */
+    public void recordDebt(long nanos, int paymentPlans) {
+        debtLatencies.record(nanos);
+        paymentPlansOfDebts.add(paymentPlans);
+    }
+
+    /**
+     * Records the exception the run failed with.
+     * @param exception The exception.
+     */
+    public void recordFailure(Exception exception) {
+        failure = exception.getClass().getName()
+                + (exception.getMessage() != null ? ": " + exception.getMessage() : "");
+    }
+
+    /**
+     * Wraps an OutputStream so that the time spent in it, and the bytes written to it, are recorded as output.
+     * @param outputStream The stream output is written to.
+     * @return A stream that writes to the given one. Closing it closes the given stream.
+     */
+    public OutputStream timeOutput(OutputStream outputStream) {
+        return new TimedOutputStream(outputStream);
+    }
+
+    @Override
+    public Map<String, Long> getRequestCounts() {
+        return perEndpoint(metrics -> metrics.requests.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFailedRequestCounts() {
+        return perEndpoint(metrics -> metrics.failedRequests.sum());
+    }
+
+    @Override
+    public Map<String, Long> getResponseBytes() {
+        return perEndpoint(metrics -> metrics.bytes.sum());
+    }
+
+    @Override
+    public Map<String, Long> getFetchMillis() {
+        return perEndpoint(metrics -> TimeUnit.NANOSECONDS.toMillis(metrics.fetchNanos.sum()));
+    }
+
+    @Override
+    public Map<String, Long> getUnpackMillis() {
+        return perEndpoint(metrics -> TimeUnit.NANOSECONDS.toMillis(metrics.unpackNanos.sum()));
+    }
+
+    @Override
+    public Map<String, Long> getRecordCounts() {
+        return perEndpoint(metrics -> metrics.records.sum());
+    }
+
+    @Override
+    public long getIndexingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(indexingNanos.sum());
+    }
+
+    @Override
+    public long getTotalDebtEvaluationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(debtLatencies.getTotal());
+    }
+
+    @Override
+    public long getOutputMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(outputNanos.sum());
+    }
+
+    @Override
+    public long getOutputBytes() {
+        return outputBytes.sum();
+    }
+
+    @Override
+    public long getDebtCount() {
+        return debtLatencies.getCount();
+    }
+
+    @Override
+    public long getPaymentPlanCount() {
+        return paymentPlanCount.sum();
+    }
+
+    @Override
+    public long getPaymentCount() {
+        return paymentCount.sum();
+    }
+
+    @Override
+    public long getOrphanedPaymentPlanCount() {
+        return Math.max(paymentPlanCount.sum() - paymentPlansOfDebts.sum(), 0);
+    }
+
+    @Override
+    public long getOrphanedPaymentCount() {
+        return orphanedPaymentCount.sum();
+    }
+
+    @Override
+    public double getDebtLatencyMeanNanos() {
+        return debtLatencies.getMean();
+    }
+
+    @Override
+    public long getDebtLatencyP50Nanos() {
+        return debtLatencies.getPercentile(0.5);
+    }
+
+    @Override
+    public long getDebtLatencyP90Nanos() {
+        return debtLatencies.getPercentile(0.9);
+    }
+
+    @Override
+    public long getDebtLatencyP99Nanos() {
+        return debtLatencies.getPercentile(0.99);
+    }
+
+    @Override
+    public long getDebtLatencyP999Nanos() {
+        return debtLatencies.getPercentile(0.999);
+    }
+
+    @Override
+    public long getDebtLatencyMaxNanos() {
+        return debtLatencies.getMax();
+    }
+
+    @Override
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public String getFailure() {
+        return failure;
+    }
+
+    /**
+     * The summary has one line per endpoint, then a line each for the records, the analysis, and the output, and a
+     * last line for the failure if the run failed.
+     */
+    @Override
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder("Run summary (" + getElapsedMillis() + " ms):\n");
+        new TreeMap<>(endpoints).forEach((endpoint, metrics) -> summary.append("  ").append(endpoint).append(": ")
+                .append(metrics.requests.sum()).append(" requests (")
+                .append(metrics.failedRequests.sum()).append(" failed), ")
+                .append(metrics.bytes.sum()).append(" bytes, fetch ")
+                .append(TimeUnit.NANOSECONDS.toMillis(metrics.fetchNanos.sum())).append(" ms, unpack ")
+                .append(TimeUnit.NANOSECONDS.toMillis(metrics.unpackNanos.sum())).append(" ms, ")
+                .append(metrics.records.sum()).append(" records\n"));
+        summary.append("  records: ").append(getDebtCount()).append(" debts, ")
+                .append(getPaymentPlanCount()).append(" payment plans (")
+                .append(getOrphanedPaymentPlanCount()).append(" orphaned), ")
+                .append(getPaymentCount()).append(" payments (")
+                .append(getOrphanedPaymentCount()).append(" orphaned)\n");
+        summary.append("  analysis: indexing ").append(getIndexingMillis()).append(" ms, debts ")
+                .append(getTotalDebtEvaluationMillis()).append(" ms in total, per debt mean ")
+                .append(Math.round(getDebtLatencyMeanNanos())).append(" ns, p50 ")
+                .append(getDebtLatencyP50Nanos()).append(" ns, p90 ")
+                .append(getDebtLatencyP90Nanos()).append(" ns, p99 ")
+                .append(getDebtLatencyP99Nanos()).append(" ns, p99.9 ")
+                .append(getDebtLatencyP999Nanos()).append(" ns, max ")
+                .append(getDebtLatencyMaxNanos()).append(" ns\n");
+        summary.append("  output: ").append(getOutputMillis()).append(" ms, ")
+                .append(getOutputBytes()).append(" bytes\n");
+        if (failure != null) {
+            summary.append("  failed: ").append(failure).append('\n');
+        }
+        return summary.toString();
+    }
+
+    private EndpointMetrics endpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, name -> new EndpointMetrics());
+    }
+
+    private Map<String, Long> perEndpoint(Function<EndpointMetrics, Long> metric) {
+        Map<String, Long> values = new TreeMap<>();
+        endpoints.forEach((endpoint, metrics) -> values.put(endpoint, metric.apply(metrics)));
+        return values;
+    }
+
+    /**
+     * The counters kept for one endpoint.
+     */
+    private static class EndpointMetrics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failedRequests = new LongAdder();
+        private final LongAdder fetchNanos = new LongAdder();
+        private final LongAdder unpackNanos = new LongAdder();
+        private final LongAdder records = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    /**
+     * An OutputStream that records the time spent writing to and flushing the stream it wraps. Output is normally
+     * buffered before it gets here, so the clock is read once per buffer rather than once per line.
+     */
+    private class TimedOutputStream extends FilterOutputStream {
+        TimedOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            try {
+                out.write(bytes, offset, length);
+                outputBytes.add(length);
+            } finally {
+                outputNanos.add(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long start = System.nanoTime();
+            try {
+                out.flush();
+            } finally {
+                outputNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package utilities;
+
+import data.Debt;
+import data.Money;
+import data.Payment;
+import data.PaymentColumns;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import interfaces.DataRetriever;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * This class is a DataRetriever that gets it's data from a binary snapshot file written by SnapshotWriter (see
+ * SnapshotFormat for the layout).
+ *
+ * Loading a snapshot only reads and checks its header. The rest of the file is memory-mapped, and the Lists this
+ * retriever returns are views over the mapped records: a data object is only built when an element is asked for, and
+ * nothing is kept once it has been handed over, so loading takes the same time however many records the snapshot
+ * holds. Code that works on raw values can skip building objects altogether, for example with getPaymentColumns.
+ *
+ * If the snapshot has an index section, records can also be looked up by key with a binary search, without building
+ * the objects in between. Without one, the same lookups scan the records instead.
+ *
+ * A SnapshotDataRetriever never changes once loaded, so it and the Lists it returns can be shared by any number of
+ * threads.
+ */
+public class SnapshotDataRetriever implements DataRetriever {
+    /**
+     * A single mapping can't be larger than 2GB, so larger sections are mapped in pieces of at most this size.
+     */
+    private static final int DEFAULT_MAX_MAPPING_BYTES = 1 << 30;
+
+    private final Section debts;
+    private final Section paymentPlans;
+    private final Section payments;
+
+    /**
+     * The index sections, or null if the snapshot has no index.
+     */
+    private final Section debtIndex;
+    private final Section paymentPlanIndex;
+    private final Section paymentIndex;
+
+    /**
+     * Loads a snapshot file.
+     * @param file The snapshot to load.
+     * @throws IOException If the file could not be read, is not a snapshot, was written in a different version of the
+     * format, or is shorter than its header says it should be.
+     */
+    public SnapshotDataRetriever(Path file) throws IOException {
+        this(file, DEFAULT_MAX_MAPPING_BYTES);
+    }
+
+    SnapshotDataRetriever(Path file, int maxMappingBytes) throws IOException {
+        Objects.requireNonNull(file, "Cannot construct SnapshotDataRetriever: file must not be null");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SnapshotFormat.HEADER_BYTES) {
+                throw new IOException("Cannot load snapshot " + file + ": the file is too short to be a snapshot");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SnapshotFormat.HEADER_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(SnapshotFormat.MAGIC_OFFSET) != SnapshotFormat.MAGIC) {
+                throw new IOException("Cannot load snapshot " + file + ": the file is not a snapshot");
+            }
+            int version = header.getInt(SnapshotFormat.VERSION_OFFSET);
+            if (version != SnapshotFormat.VERSION) {
+                throw new IOException("Cannot load snapshot " + file + ": it was written in version " + version
+                        + " of the format, but only version " + SnapshotFormat.VERSION + " can be read");
+            }
+
+            long debtCount = readCount(header, SnapshotFormat.DEBT_COUNT_OFFSET, file);
+            long paymentPlanCount = readCount(header, SnapshotFormat.PAYMENT_PLAN_COUNT_OFFSET, file);
+            long paymentCount = readCount(header, SnapshotFormat.PAYMENT_COUNT_OFFSET, file);
+            long endOfRecords = SnapshotFormat.endOfRecords(debtCount, paymentPlanCount, paymentCount);
+            boolean indexed = (header.getInt(SnapshotFormat.FLAGS_OFFSET) & SnapshotFormat.FLAG_INDEXED) != 0;
+            long indexOffset = header.getLong(SnapshotFormat.INDEX_OFFSET_OFFSET);
+            long expectedSize = indexed
+                    ? indexOffset + (debtCount + paymentPlanCount + paymentCount) * SnapshotFormat.INDEX_ENTRY_BYTES
+                    : endOfRecords;
+            if ((indexed && indexOffset < endOfRecords) || size < expectedSize) {
+                throw new IOException("Cannot load snapshot " + file + ": the file is truncated or damaged");
+            }
+
+            debts = new Section(channel, SnapshotFormat.debtsOffset(), debtCount, SnapshotFormat.DEBT_BYTES,
+                    maxMappingBytes);
+            paymentPlans = new Section(channel, SnapshotFormat.paymentPlansOffset(debtCount), paymentPlanCount,
+                    SnapshotFormat.PAYMENT_PLAN_BYTES, maxMappingBytes);
+            payments = new Section(channel, SnapshotFormat.paymentsOffset(debtCount, paymentPlanCount), paymentCount,
+                    SnapshotFormat.PAYMENT_BYTES, maxMappingBytes);
+            if (indexed) {
+                debtIndex = new Section(channel, indexOffset, debtCount, SnapshotFormat.INDEX_ENTRY_BYTES,
+                        maxMappingBytes);
+                paymentPlanIndex = new Section(channel, debtIndex.end(), paymentPlanCount,
+                        SnapshotFormat.INDEX_ENTRY_BYTES, maxMappingBytes);
+                paymentIndex = new Section(channel, paymentPlanIndex.end(), paymentCount,
+                        SnapshotFormat.INDEX_ENTRY_BYTES, maxMappingBytes);
+            } else {
+                debtIndex = null;
+                paymentPlanIndex = null;
+                paymentIndex = null;
+            }
+        }
+    }
+
+    /**
+     * @return True if the snapshot has an index section, so the find methods use a binary search rather than a scan.
+     */
+    public boolean isIndexed() {
+        return debtIndex != null;
+    }
+
+    /**
+     * @return An unmodifiable List view over every debt in the snapshot, in the order they were written.
+     */
+    @Override
+    public List<Debt> getAllDebts() {
+        return new RecordList<>(debts, this::debtAt);
+    }
+
+    /**
+     * @return An unmodifiable List view over every payment plan in the snapshot, in the order they were written.
+     */
+    @Override
+    public List<PaymentPlan> getAllPaymentPlans() {
+        return new RecordList<>(paymentPlans, this::paymentPlanAt);
+    }
+
+    /**
+     * @return An unmodifiable List view over every payment in the snapshot, in the order they were written.
+     */
+    @Override
+    public List<Payment> getAllPayments() {
+        return new RecordList<>(payments, this::paymentAt);
+    }
+
+    /**
+     * Copies every payment straight from the snapshot into a columnar store, without building a Payment for each. If
+     * the snapshot is indexed, payments are copied in index order, which is already grouped by payment plan, so the
+     * store doesn't need to sort them.
+     * @return A store holding every payment in the snapshot.
+     */
+    public PaymentColumns getPaymentColumns() {
+        int size = payments.size();
+        int[] paymentPlanIds = new int[size];
+        int[] epochDays = new int[size];
+        long[] amountsInMinorUnits = new long[size];
+        for (int position = 0; position < size; position++) {
+            int row = paymentIndex != null ? paymentIndex.getInt(position, 0) : position;
+            paymentPlanIds[position] = payments.getInt(row, 0);
+            epochDays[position] = payments.getInt(row, 4);
+            amountsInMinorUnits[position] = payments.getLong(row, 8);
+        }
+        return paymentIndex != null
+                ? PaymentColumns.ofGrouped(paymentPlanIds, amountsInMinorUnits, epochDays)
+                : PaymentColumns.of(paymentPlanIds, amountsInMinorUnits, epochDays);
+    }
+
+    /**
+     * Looks up a debt by its id.
+     * @param debtId The id of the debt.
+     * @return The first debt written with that id, or null if there is none.
+     */
+    public Debt findDebt(int debtId) {
+        int row = findFirst(debts, debtIndex, 0, debtId);
+        return row >= 0 ? debtAt(row) : null;
+    }
+
+    /**
+     * Looks up the payment plan for a debt.
+     * @param debtId The id of the debt.
+     * @return The first payment plan written for that debt, or null if there is none.
+     */
+    public PaymentPlan findPaymentPlan(int debtId) {
+        int row = findFirst(paymentPlans, paymentPlanIndex, 4, debtId);
+        return row >= 0 ? paymentPlanAt(row) : null;
+    }
+
+    /**
+     * Looks up the payments made against a payment plan.
+     * @param paymentPlanId The id of the payment plan.
+     * @return An unmodifiable List of the plan's payments, in the order they were written.
+     */
+    public List<Payment> findPayments(int paymentPlanId) {
+        if (paymentIndex == null) {
+            List<Payment> found = new ArrayList<>();
+            for (int row = 0; row < payments.size(); row++) {
+                if (payments.getInt(row, 0) == paymentPlanId) {
+                    found.add(paymentAt(row));
+                }
+            }
+            return found;
+        }
+
+        int start = lowerBound(payments, paymentIndex, 0, paymentPlanId);
+        int end = lowerBound(payments, paymentIndex, 0, paymentPlanId + 1L);
+        return new AbstractIndexedList<>(end - start) {
+            @Override
+            public Payment get(int index) {
+                return paymentAt(paymentIndex.getInt(start + Objects.checkIndex(index, size()), 0));
+            }
+        };
+    }
+
+    /**
+     * Finds the first row of a section whose key, the int at keyOffset in each record, equals the given key.
+     * @return The row, or -1 if no record has the key.
+     */
+    private static int findFirst(Section records, Section index, int keyOffset, int key) {
+        if (index == null) {
+            for (int row = 0; row < records.size(); row++) {
+                if (records.getInt(row, keyOffset) == key) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+
+        int position = lowerBound(records, index, keyOffset, key);
+        if (position < index.size()) {
+            int row = index.getInt(position, 0);
+            if (records.getInt(row, keyOffset) == key) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first position in an index whose record has a key no smaller than the given key.
+     */
+    private static int lowerBound(Section records, Section index, int keyOffset, long key) {
+        int low = 0;
+        int high = index.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (records.getInt(index.getInt(middle, 0), keyOffset) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long readCount(ByteBuffer header, int offset, Path file) throws IOException {
+        long count = header.getLong(offset);
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new IOException("Cannot load snapshot " + file + ": the file is truncated or damaged");
+        }
+        return count;
+    }
+
+    private Debt debtAt(int row) {
+        return new Debt(debts.getInt(row, 0), Money.toDollars(debts.getLong(row, 4)));
+    }
+
+    private PaymentPlan paymentPlanAt(int row) {
+        InstallmentFrequency frequency;
+        byte frequencyCode = paymentPlans.getByte(row, 28);
+        switch (frequencyCode) {
+            case SnapshotFormat.FREQUENCY_WEEKLY:
+                frequency = InstallmentFrequency.WEEKLY;
+                break;
+            case SnapshotFormat.FREQUENCY_BI_WEEKLY:
+                frequency = InstallmentFrequency.BI_WEEKLY;
+                break;
+            default:
+                throw new IllegalStateException("Cannot read payment plan " + row + " of snapshot: unknown installment "
+                        + "frequency " + frequencyCode);
+        }
+        return new PaymentPlan(
+                paymentPlans.getInt(row, 0),
+                paymentPlans.getInt(row, 4),
+                Money.toDollars(paymentPlans.getLong(row, 8)),
+                frequency,
+                Money.toDollars(paymentPlans.getLong(row, 16)),
+                paymentPlans.getInt(row, 24));
+    }
+
+    private Payment paymentAt(int row) {
+        return new Payment(payments.getInt(row, 0), Money.toDollars(payments.getLong(row, 8)), payments.getInt(row, 4));
+    }
+
+    /**
+     * A section of fixed-width records, mapped in one or more pieces. Every piece holds a whole number of records, so a
+     * record never straddles two mappings.
+     */
+    private static class Section {
+        private final ByteBuffer[] mappings;
+        private final long offset;
+        private final int size;
+        private final int recordBytes;
+        private final int recordsPerMapping;
+
+        Section(FileChannel channel, long offset, long size, int recordBytes, int maxMappingBytes) throws IOException {
+            this.offset = offset;
+            this.size = (int) size;
+            this.recordBytes = recordBytes;
+            this.recordsPerMapping = Math.max(maxMappingBytes / recordBytes, 1);
+
+            int mappingCount = (int) ((size + recordsPerMapping - 1) / recordsPerMapping);
+            mappings = new ByteBuffer[mappingCount];
+            for (int mapping = 0; mapping < mappingCount; mapping++) {
+                long firstRecord = (long) mapping * recordsPerMapping;
+                long recordCount = Math.min(recordsPerMapping, size - firstRecord);
+                mappings[mapping] = channel.map(FileChannel.MapMode.READ_ONLY, offset + firstRecord * recordBytes,
+                        recordCount * recordBytes).order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        long end() {
+            return offset + (long) size * recordBytes;
+        }
+
+        int getInt(int row, int fieldOffset) {
+            return mappings[row / recordsPerMapping].getInt(row % recordsPerMapping * recordBytes + fieldOffset);
+        }
+
+        long getLong(int row, int fieldOffset) {
+            return mappings[row / recordsPerMapping].getLong(row % recordsPerMapping * recordBytes + fieldOffset);
+        }
+
+        byte getByte(int row, int fieldOffset) {
+            return mappings[row / recordsPerMapping].get(row % recordsPerMapping * recordBytes + fieldOffset);
+        }
+    }
+
+    /**
+     * The base of the read-only List views this class hands out.
+     */
+    private abstract static class AbstractIndexedList<T> extends AbstractList<T> implements RandomAccess {
+        private final int size;
+
+        AbstractIndexedList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A List view over every record of a section, building each element when it is asked for.
+     */
+    private static class RecordList<T> extends AbstractIndexedList<T> {
+        private final RowDecoder<T> decoder;
+
+        RecordList(Section section, RowDecoder<T> decoder) {
+            super(section.size());
+            this.decoder = decoder;
+        }
+
+        @Override
+        public T get(int row) {
+            return decoder.decode(Objects.checkIndex(row, size()));
+        }
+    }
+
+    /**
+     * Builds the data object for one row of a section.
+     */
+    private interface RowDecoder<T> {
+        T decode(int row);
+    }
+}
@@ -0,0 +1,78 @@
+package utilities;
+
+/**
+ * The layout of a snapshot file, shared by SnapshotWriter and SnapshotDataRetriever. Every value is little-endian.
+ *
+ * A snapshot starts with a fixed size header:
+ * - int    magic number, 'TACS'
+ * - int    format version
+ * - int    flags, where bit 0 says the file has an index section
+ * - int    reserved, always 0
+ * - long   number of debts
+ * - long   number of payment plans
+ * - long   number of payments
+ * - long   offset of the index section, or 0 if there is none
+ * - 16 bytes reserved, always 0
+ *
+ * The header is followed by one section of fixed-width records per collection, in the order debts, payment plans,
+ * payments. Each section starts on an 8 byte boundary, and records keep the order the collection was written in.
+ * Amounts are stored in minor units (see Money), and dates as days since 1970-01-01. Installment frequencies are
+ * stored as one of the fixed FREQUENCY codes below, never as their position in InstallmentFrequency, so reordering or
+ * adding frequencies cannot change what an existing snapshot means.
+ * - Debt (12 bytes): int id, long amount
+ * - PaymentPlan (32 bytes): int id, int debt id, long amount to pay, long installment amount, int start date,
+ * byte installment frequency code, 3 bytes padding
+ * - Payment (16 bytes): int payment plan id, int date, long amount
+ *
+ * The optional index section holds, for each collection in the same order, the row number of every record as an int,
+ * sorted by the record's key: debts by id, payment plans by debt id, and payments by payment plan id. Records with the
+ * same key keep the order they were written in, so the first of them is always the first one written.
+ *
+ * Any change to this layout must increase the version, so older snapshots are rejected rather than misread. Version 1
+ * stored installment frequencies by ordinal.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 'T' | 'A' << 8 | 'C' << 16 | 'S' << 24;
+    static final int VERSION = 2;
+    static final int FLAG_INDEXED = 1;
+
+    static final int HEADER_BYTES = 64;
+    static final int DEBT_BYTES = 12;
+    static final int PAYMENT_PLAN_BYTES = 32;
+    static final int PAYMENT_BYTES = 16;
+    static final int INDEX_ENTRY_BYTES = 4;
+
+    static final byte FREQUENCY_WEEKLY = 1;
+    static final byte FREQUENCY_BI_WEEKLY = 2;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int FLAGS_OFFSET = 8;
+    static final int DEBT_COUNT_OFFSET = 16;
+    static final int PAYMENT_PLAN_COUNT_OFFSET = 24;
+    static final int PAYMENT_COUNT_OFFSET = 32;
+    static final int INDEX_OFFSET_OFFSET = 40;
+
+    private SnapshotFormat() {
+    }
+
+    static long debtsOffset() {
+        return HEADER_BYTES;
+    }
+
+    static long paymentPlansOffset(long debtCount) {
+        return align(debtsOffset() + debtCount * DEBT_BYTES);
+    }
+
+    static long paymentsOffset(long debtCount, long paymentPlanCount) {
+        return align(paymentPlansOffset(debtCount) + paymentPlanCount * PAYMENT_PLAN_BYTES);
+    }
+
+    static long endOfRecords(long debtCount, long paymentPlanCount, long paymentCount) {
+        return align(paymentsOffset(debtCount, paymentPlanCount) + paymentCount * PAYMENT_BYTES);
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
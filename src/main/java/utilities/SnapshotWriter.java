@@ -0,0 +1,239 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import interfaces.DataRetriever;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class writes debts, payment plans, and payments to a binary snapshot file (see SnapshotFormat), which
+ * SnapshotDataRetriever can later load far faster than the same data can be parsed from JSON.
+ *
+ * Records are encoded into a reusable direct buffer and written to the file in large blocks. The snapshot is written
+ * to a temporary file next to the destination and only moved into place once it is complete, so an interrupted write
+ * never leaves a partial snapshot behind, and never replaces a good one.
+ */
+public class SnapshotWriter {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path file;
+    private final boolean indexed;
+
+    public SnapshotWriter(Path file) {
+        this(file, true);
+    }
+
+    /**
+     * Creates a writer for a snapshot file.
+     * @param file Where to write the snapshot. Any existing file is replaced.
+     * @param indexed If true, the snapshot includes an index section, so SnapshotDataRetriever can look up records by
+     * key without scanning. The index costs 4 bytes per record and a sort of each collection while writing.
+     */
+    public SnapshotWriter(Path file, boolean indexed) {
+        this.file = Objects.requireNonNull(file, "Cannot construct SnapshotWriter: file must not be null");
+        this.indexed = indexed;
+    }
+
+    /**
+     * Writes a snapshot of everything a DataRetriever returns.
+     * @param dataRetriever The source of the debts, payment plans, and payments.
+     * @throws Exception If the retriever fails, or the snapshot could not be written.
+     */
+    public void write(DataRetriever dataRetriever) throws Exception {
+        Objects.requireNonNull(dataRetriever, "Cannot write snapshot: dataRetriever must not be null");
+        write(dataRetriever.getAllDebts(), dataRetriever.getAllPaymentPlans(), dataRetriever.getAllPayments());
+    }
+
+    /**
+     * Writes a snapshot of the given collections. Records are written in the order the Lists hold them.
+     * @param debts The debts to write.
+     * @param paymentPlans The payment plans to write.
+     * @param payments The payments to write.
+     * @throws IOException If the snapshot could not be written.
+     */
+    public void write(List<Debt> debts, List<PaymentPlan> paymentPlans, List<Payment> payments) throws IOException {
+        Objects.requireNonNull(debts, "Cannot write snapshot: debts must not be null");
+        Objects.requireNonNull(paymentPlans, "Cannot write snapshot: paymentPlans must not be null");
+        Objects.requireNonNull(payments, "Cannot write snapshot: payments must not be null");
+
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeTo(channel, debts, paymentPlans, payments);
+                channel.force(false);
+            }
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private void writeTo(FileChannel channel, List<Debt> debts, List<PaymentPlan> paymentPlans,
+                         List<Payment> payments) throws IOException {
+        RecordOutput output = new RecordOutput(channel);
+        long debtCount = debts.size();
+        long paymentPlanCount = paymentPlans.size();
+        long paymentCount = payments.size();
+
+        // The header is filled in last, so a snapshot is never valid until everything else has been written.
+        output.padTo(SnapshotFormat.debtsOffset());
+        long[] debtKeys = indexed ? new long[debts.size()] : null;
+        int row = 0;
+        for (Debt debt : debts) {
+            ByteBuffer record = output.reserve(SnapshotFormat.DEBT_BYTES);
+            record.putInt(debt.getId());
+            record.putLong(debt.getAmountInMinorUnits());
+            if (indexed) {
+                debtKeys[row] = indexKey(debt.getId(), row);
+            }
+            row++;
+        }
+
+        output.padTo(SnapshotFormat.paymentPlansOffset(debtCount));
+        long[] paymentPlanKeys = indexed ? new long[paymentPlans.size()] : null;
+        row = 0;
+        for (PaymentPlan paymentPlan : paymentPlans) {
+            ByteBuffer record = output.reserve(SnapshotFormat.PAYMENT_PLAN_BYTES);
+            record.putInt(paymentPlan.getId());
+            record.putInt(paymentPlan.getDebtId());
+            record.putLong(paymentPlan.getAmountToPayInMinorUnits());
+            record.putLong(paymentPlan.getInstallmentAmountInMinorUnits());
+            record.putInt(paymentPlan.getStartEpochDay());
+            record.put(frequencyCode(paymentPlan.getInstallmentFrequency()));
+            record.put((byte) 0).put((byte) 0).put((byte) 0);
+            if (indexed) {
+                paymentPlanKeys[row] = indexKey(paymentPlan.getDebtId(), row);
+            }
+            row++;
+        }
+
+        output.padTo(SnapshotFormat.paymentsOffset(debtCount, paymentPlanCount));
+        long[] paymentKeys = indexed ? new long[payments.size()] : null;
+        row = 0;
+        for (Payment payment : payments) {
+            ByteBuffer record = output.reserve(SnapshotFormat.PAYMENT_BYTES);
+            record.putInt(payment.getPaymentPlanId());
+            record.putInt(payment.getEpochDay());
+            record.putLong(payment.getAmountInMinorUnits());
+            if (indexed) {
+                paymentKeys[row] = indexKey(payment.getPaymentPlanId(), row);
+            }
+            row++;
+        }
+
+        long indexOffset = 0;
+        output.padTo(SnapshotFormat.endOfRecords(debtCount, paymentPlanCount, paymentCount));
+        if (indexed) {
+            indexOffset = output.position();
+            writeIndex(output, debtKeys);
+            writeIndex(output, paymentPlanKeys);
+            writeIndex(output, paymentKeys);
+        }
+        output.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(SnapshotFormat.MAGIC_OFFSET, SnapshotFormat.MAGIC);
+        header.putInt(SnapshotFormat.VERSION_OFFSET, SnapshotFormat.VERSION);
+        header.putInt(SnapshotFormat.FLAGS_OFFSET, indexed ? SnapshotFormat.FLAG_INDEXED : 0);
+        header.putLong(SnapshotFormat.DEBT_COUNT_OFFSET, debtCount);
+        header.putLong(SnapshotFormat.PAYMENT_PLAN_COUNT_OFFSET, paymentPlanCount);
+        header.putLong(SnapshotFormat.PAYMENT_COUNT_OFFSET, paymentCount);
+        header.putLong(SnapshotFormat.INDEX_OFFSET_OFFSET, indexOffset);
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * Packs a record's key above its row number, so sorting the packed values orders records by key, and records with
+     * the same key by row.
+     */
+    private static long indexKey(int key, int row) {
+        return (long) key << 32 | row;
+    }
+
+    private static byte frequencyCode(InstallmentFrequency frequency) {
+        switch (frequency) {
+            case WEEKLY:
+                return SnapshotFormat.FREQUENCY_WEEKLY;
+            case BI_WEEKLY:
+                return SnapshotFormat.FREQUENCY_BI_WEEKLY;
+            default:
+                throw new IllegalArgumentException("Cannot write snapshot: no code for installment frequency "
+                        + frequency);
+        }
+    }
+
+    private static void writeIndex(RecordOutput output, long[] keys) throws IOException {
+        Arrays.parallelSort(keys);
+        for (long key : keys) {
+            output.reserve(SnapshotFormat.INDEX_ENTRY_BYTES).putInt((int) key);
+        }
+    }
+
+    /**
+     * Collects records in a direct buffer, and writes the buffer to the file whenever the next record won't fit.
+     */
+    private static class RecordOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long flushedBytes;
+
+        RecordOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Makes room for a record of the given size.
+         * @return The buffer, positioned where the record should be put.
+         */
+        ByteBuffer reserve(int recordBytes) throws IOException {
+            if (buffer.remaining() < recordBytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        long position() {
+            return flushedBytes + buffer.position();
+        }
+
+        /**
+         * Writes zeros up to the given offset.
+         */
+        void padTo(long offset) throws IOException {
+            while (position() < offset) {
+                reserve(1).put((byte) 0);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                flushedBytes += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
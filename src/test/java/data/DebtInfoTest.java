@@ -8,7 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
-import java.util.Date;
+import java.time.LocalDate;
 
 public class DebtInfoTest {
     private final PrintStream standardOut = System.out;
@@ -41,14 +41,14 @@ public class DebtInfoTest {
         DebtInfo debtInfo = new DebtInfo(debt,
                 true,
                 11.18,
-                new Date(1634965200000L)); // 10/23/2021 at 5:00
+                LocalDate.of(2021, 10, 23)); // 10/23/2021
 
         // ACT
         debtInfo.print();
 
         // ASSERT
         assertEquals("id: 17, amount: 37.5, is_in_payment_plan: true, remaining_amount: 11.18, " +
-                "next_payment_due_date: 2021-10-23T05:00:00Z", outputStreamCaptor.toString().trim());
+                "next_payment_due_date: 2021-10-23T00:00:00Z", outputStreamCaptor.toString().trim());
     }
 
     /**
@@ -0,0 +1,48 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoneyTest {
+    /**
+     * Ensure that amounts with up to four decimal places survive a round trip through minor units unchanged.
+     */
+    @Test
+    public void toMinorUnits_roundTrip() {
+        assertEquals(3_002_730L, Money.toMinorUnits(300.273));
+        assertEquals(300.273, Money.toDollars(Money.toMinorUnits(300.273)));
+        assertEquals(0.1, Money.toDollars(Money.toMinorUnits(0.1)));
+        assertEquals(-12.5, Money.toDollars(Money.toMinorUnits(-12.5)));
+    }
+
+    /**
+     * Ensure that amounts are rounded to the nearest minor unit.
+     */
+    @Test
+    public void toMinorUnits_roundsPastFourDecimalPlaces() {
+        assertEquals(12_346L, Money.toMinorUnits(1.23456));
+        assertEquals(12_345L, Money.toMinorUnits(1.23454));
+    }
+
+    /**
+     * Ensure that sums of minor units are exact where the same sums of doubles drift.
+     */
+    @Test
+    public void toMinorUnits_sumsAreExact() {
+        long sum = Money.toMinorUnits(0.1) + Money.toMinorUnits(0.2);
+        assertEquals(Money.toMinorUnits(0.3), sum);
+        assertEquals(0.3, Money.toDollars(sum));
+    }
+
+    /**
+     * Ensure that amounts which can't be represented exactly are rejected rather than silently rounded.
+     */
+    @Test
+    public void toMinorUnits_invalidAmounts() {
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinorUnits(1e15));
+    }
+}
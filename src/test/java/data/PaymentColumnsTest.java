@@ -0,0 +1,117 @@
+package data;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PaymentColumnsTest {
+    /**
+     * Ensure that payments are grouped by payment plan id, in ascending order of plan id, while payments within a plan
+     * keep the order they were given in.
+     */
+    @Test
+    public void of_groupsByPaymentPlanKeepingOrder() {
+        // ARRANGE
+        List<Payment> payments = Arrays.asList(
+                new Payment(9, 1.0, LocalDate.of(1970, 1, 1)),
+                new Payment(3, 2.0, LocalDate.of(1970, 1, 2)),
+                new Payment(9, 3.0, LocalDate.of(1970, 1, 3)),
+                new Payment(3, 4.0, LocalDate.of(1970, 1, 4)),
+                new Payment(-1, 5.0, LocalDate.of(1969, 12, 31)));
+
+        // ACT
+        PaymentColumns paymentColumns = PaymentColumns.of(payments);
+
+        // ASSERT
+        assertEquals(5, paymentColumns.size());
+        assertEquals(3, paymentColumns.groupCount());
+
+        int group = paymentColumns.findGroup(3);
+        assertEquals(1, group);
+        assertEquals(2, paymentColumns.groupEnd(group) - paymentColumns.groupStart(group));
+        assertEquals(20_000L, paymentColumns.getAmountInMinorUnits(paymentColumns.groupStart(group)));
+        assertEquals(40_000L, paymentColumns.getAmountInMinorUnits(paymentColumns.groupStart(group) + 1));
+        assertEquals(1, paymentColumns.getEpochDay(paymentColumns.groupStart(group)));
+
+        group = paymentColumns.findGroup(9);
+        assertEquals(10_000L, paymentColumns.getAmountInMinorUnits(paymentColumns.groupStart(group)));
+        assertEquals(30_000L, paymentColumns.getAmountInMinorUnits(paymentColumns.groupStart(group) + 1));
+
+        group = paymentColumns.findGroup(-1);
+        assertEquals(0, paymentColumns.groupStart(group));
+        assertEquals(-1, paymentColumns.getEpochDay(0));
+        assertEquals(-1, paymentColumns.findGroup(4));
+    }
+
+    /**
+     * Ensure that the List adapter gives back Payments equal to the ones stored, dated at the start of their day.
+     */
+    @Test
+    public void asList_roundTripsPayments() {
+        // ARRANGE
+        PaymentColumns paymentColumns = PaymentColumns.of(Arrays.asList(
+                new Payment(2, 300.273, LocalDate.of(2020, 10, 23)),
+                new Payment(1, -12.5, LocalDate.of(2020, 8, 20))));
+
+        // ACT
+        List<Payment> payments = paymentColumns.asList();
+
+        // ASSERT
+        assertEquals(2, payments.size());
+        assertEquals(1, payments.get(0).getPaymentPlanId());
+        assertEquals(-12.5, payments.get(0).getAmount());
+        assertEquals(LocalDate.of(2020, 8, 20), payments.get(0).getDate());
+        assertEquals(2, payments.get(1).getPaymentPlanId());
+        assertEquals(300.273, payments.get(1).getAmount());
+        assertEquals(LocalDate.of(2020, 10, 23), payments.get(1).getDate());
+        assertThrows(IndexOutOfBoundsException.class, () -> payments.get(2));
+    }
+
+    /**
+     * Ensure that columns of different lengths are rejected.
+     */
+    @Test
+    public void of_mismatchedColumns() {
+        // ACT && ASSERT
+        assertThrows(IllegalArgumentException.class,
+                () -> PaymentColumns.of(new int[2], new long[2], new int[1]));
+    }
+
+    /**
+     * Ensure that pre-grouped columns produce the same groups as of, and that columns out of order are rejected.
+     */
+    @Test
+    public void ofGrouped_matchesOf() {
+        // ARRANGE
+        int[] paymentPlanIds = {3, 1, 3, 2, 1};
+        long[] amounts = {10, 20, 30, 40, 50};
+        int[] epochDays = {5, 4, 3, 2, 1};
+        PaymentColumns expected = PaymentColumns.of(paymentPlanIds, amounts, epochDays);
+
+        // ACT
+        PaymentColumns actual = PaymentColumns.ofGrouped(
+                new int[] {1, 1, 2, 3, 3}, new long[] {20, 50, 40, 10, 30}, new int[] {4, 1, 2, 5, 3});
+
+        // ASSERT
+        assertEquals(expected.groupCount(), actual.groupCount());
+        for (int paymentPlanId = 0; paymentPlanId <= 4; paymentPlanId++) {
+            int group = expected.findGroup(paymentPlanId);
+            assertEquals(group, actual.findGroup(paymentPlanId));
+            if (group >= 0) {
+                assertEquals(expected.groupStart(group), actual.groupStart(group));
+                assertEquals(expected.groupEnd(group), actual.groupEnd(group));
+            }
+        }
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.getAmountInMinorUnits(row), actual.getAmountInMinorUnits(row));
+            assertEquals(expected.getEpochDay(row), actual.getEpochDay(row));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> PaymentColumns.ofGrouped(new int[] {2, 1}, new long[2], new int[2]));
+    }
+}
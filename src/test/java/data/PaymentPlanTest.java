@@ -0,0 +1,33 @@
+package data;
+
+import enums.InstallmentFrequency;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+
+public class PaymentPlanTest {
+    /**
+     * Ensure that a payment plan expecting nothing per installment is rejected when constructed, since its schedule
+     * could never move forward.
+     */
+    @Test
+    public void constructor_zeroInstallmentAmount() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            PaymentPlan paymentPlan = new PaymentPlan(1, 42, 1000.00, InstallmentFrequency.WEEKLY, 0.0,
+                    LocalDate.of(2020, 10, 23));
+        });
+    }
+
+    /**
+     * Ensure that a payment plan with a negative installment amount is rejected when constructed.
+     */
+    @Test
+    public void constructor_negativeInstallmentAmount() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            PaymentPlan paymentPlan = new PaymentPlan(1, 42, 1000.00, InstallmentFrequency.WEEKLY, -5.0,
+                    LocalDate.of(2020, 10, 23));
+        });
+    }
+}
@@ -1,6 +1,7 @@
 package enums;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -56,4 +57,13 @@ public class InstallmentFrequencyTest {
             InstallmentFrequency installmentFrequency = InstallmentFrequency.valueOf(stringToConvert);
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Ensure that each InstallmentFrequency reports the number of days between installments the schedule relies on.
+     */
+    @Test
+    public void getDaysBetweenInstallments_matchesFrequency() {
+        assertEquals(7, InstallmentFrequency.WEEKLY.getDaysBetweenInstallments());
+        assertEquals(14, InstallmentFrequency.BI_WEEKLY.getDaysBetweenInstallments());
+    }
+}
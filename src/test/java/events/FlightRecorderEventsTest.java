@@ -0,0 +1,156 @@
+package events;
+
+import data.Debt;
+import data.DebtInfo;
+import data.Payment;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import utilities.APIDataRetriever;
+import utilities.DebtAnalysisService;
+import utilities.DebtInfoWriter;
+import utilities.MockPaymentsServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlightRecorderEventsTest {
+    /**
+     * Ensure that retrieving from the API emits a fetch and an unpack event per request, whether the records are read
+     * into a List or streamed.
+     */
+    @Test
+    public void apiDataRetriever_emitsFetchAndUnpackEvents() throws Exception {
+        // ARRANGE
+        List<RecordedEvent> events;
+        try (MockPaymentsServer server = new MockPaymentsServer(
+                List.of(new Debt(10, 11.87), new Debt(11, 18.94)), List.of(), List.of());
+             Recording recording = new Recording()) {
+            APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl());
+            recording.enable("trueaccord.HttpFetch");
+            recording.enable("trueaccord.JSONUnpack");
+
+            // ACT
+            recording.start();
+            apiDataRetriever.getAllDebts();
+            try (Stream<Debt> debts = apiDataRetriever.streamAllDebts()) {
+                debts.count();
+            }
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        // ASSERT
+        List<RecordedEvent> fetches = named(events, "trueaccord.HttpFetch");
+        List<RecordedEvent> unpacks = named(events, "trueaccord.JSONUnpack");
+        assertEquals(2, fetches.size());
+        assertEquals(2, unpacks.size());
+        for (RecordedEvent fetch : fetches) {
+            assertEquals("debts", fetch.getString("endpoint"));
+            assertTrue(fetch.getBoolean("succeeded"));
+        }
+        for (RecordedEvent unpack : unpacks) {
+            assertEquals("debts", unpack.getString("endpoint"));
+            assertEquals(2, unpack.getLong("recordCount"));
+            assertTrue(unpack.getLong("bytes") > 0);
+        }
+    }
+
+    /**
+     * Ensure that a schedule event is emitted for each debt in a payment plan, and none for debts without one.
+     */
+    @Test
+    public void debtAnalysisService_emitsScheduleEvents() throws IOException {
+        // ARRANGE
+        List<Debt> debts = List.of(new Debt(4, 800.00), new Debt(50, 1000.00));
+        List<PaymentPlan> paymentPlans = List.of(
+                new PaymentPlan(1, 4, 800.00, InstallmentFrequency.WEEKLY, 200.0, LocalDate.of(2020, 10, 23)));
+        List<Payment> payments = List.of(
+                new Payment(1, 200.00, LocalDate.of(2020, 10, 23)), // 10/23/2020
+                new Payment(1, 200.00, LocalDate.of(2020, 10, 30))); // 10/30/2020
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(debts, paymentPlans, payments);
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("trueaccord.ScheduleComputation").withThreshold(Duration.ZERO);
+
+            // ACT
+            recording.start();
+            debtAnalysisService.generateDebtInfos();
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        // ASSERT
+        List<RecordedEvent> schedules = named(events, "trueaccord.ScheduleComputation");
+        assertEquals(1, schedules.size());
+        assertEquals(4, schedules.get(0).getInt("debtId"));
+        assertEquals(1, schedules.get(0).getInt("paymentPlanId"));
+        assertEquals(2, schedules.get(0).getInt("paymentCount"));
+        assertFalse(schedules.get(0).getBoolean("paidOff"));
+    }
+
+    /**
+     * Ensure that every time the writer's buffer is drained a flush event is emitted, accounting for every byte and
+     * line written, and that only the final flush flushes the stream.
+     */
+    @Test
+    public void debtInfoWriter_emitsFlushEvents() throws IOException {
+        // ARRANGE
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DebtInfoWriter writer = new DebtInfoWriter(output, 64);
+        DebtInfo debtInfo = new DebtInfo(new Debt(1, 123.45), true, 23.45, LocalDate.of(2020, 9, 28));
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("trueaccord.OutputFlush");
+
+            // ACT
+            recording.start();
+            for (int i = 0; i < 3; i++) {
+                writer.write(debtInfo);
+            }
+            writer.flush();
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        // ASSERT
+        List<RecordedEvent> flushes = named(events, "trueaccord.OutputFlush");
+        assertTrue(flushes.size() > 1);
+        assertEquals(output.size(), flushes.stream().mapToInt(flush -> flush.getInt("bytes")).sum());
+        assertEquals(3, flushes.stream().mapToInt(flush -> flush.getInt("lineCount")).sum());
+        assertEquals(1, flushes.stream().filter(flush -> flush.getBoolean("streamFlushed")).count());
+    }
+
+    private static List<RecordedEvent> readEvents(Recording recording) throws IOException {
+        Path file = Files.createTempFile("FlightRecorderEventsTest", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .sorted((first, second) -> first.getStartTime().compareTo(second.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
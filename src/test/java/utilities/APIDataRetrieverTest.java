@@ -5,20 +5,59 @@ import data.Payment;
 import data.PaymentPlan;
 import enums.InstallmentFrequency;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-import java.util.Date;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class APIDataRetrieverTest {
+    private MockPaymentsServer server;
+
+    /**
+     * Runs before each test to start a mock API serving two of each record.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new MockPaymentsServer(
+                List.of(new Debt(10, 11.87), new Debt(11, 18.94)),
+                List.of(new PaymentPlan(8, 6, 7.5, InstallmentFrequency.WEEKLY, 3.09, LocalDate.of(2020, 8, 1)),
+                        new PaymentPlan(4, 8, 15.16, InstallmentFrequency.WEEKLY, 23.42, LocalDate.of(2020, 9, 28))),
+                List.of(new Payment(3, 22.11, LocalDate.of(2020, 8, 8)),
+                        new Payment(42, 42.42, LocalDate.of(2020, 10, 1))));
+    }
+
+    /**
+     * Runs after each test to stop the mock API.
+     */
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
     /**
      * Ensure that given a valid URL the retriever will return a List of Debt objects, unpacked correctly from the API.
      */
     @Test
-    public void getAllDebts_baseCase() {
-        /*//ARRANGE
-        APIDataRetriever apiDataRetriever = new APIDataRetriever("REPLACE_ME"); // TODO: mock endpoint
+    public void getAllDebts_baseCase() throws Exception {
+        //ARRANGE
+        APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl());
 
         // ACT
         List<Debt> debts = apiDataRetriever.getAllDebts();
@@ -30,7 +69,7 @@ public class APIDataRetrieverTest {
         assertEquals(11.87, debts.get(0).getAmount());
 
         assertEquals(11, debts.get(1).getId());
-        assertEquals(18.94, debts.get(1).getAmount());*/
+        assertEquals(18.94, debts.get(1).getAmount());
     }
 
     /**
@@ -38,9 +77,9 @@ public class APIDataRetrieverTest {
      * the API.
      */
     @Test
-    public void getAllPaymentPlans_baseCase() {
-        /*//ARRANGE
-        final APIDataRetriever apiDataRetriever = new APIDataRetriever("REPLACE_ME"); // TODO: mock endpoint
+    public void getAllPaymentPlans_baseCase() throws Exception {
+        //ARRANGE
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl());
 
         // ACT
         final List<PaymentPlan> paymentPlans = apiDataRetriever.getAllPaymentPlans();
@@ -53,14 +92,14 @@ public class APIDataRetrieverTest {
         assertEquals(7.5, paymentPlans.get(0).getAmountToPay());
         assertEquals(InstallmentFrequency.WEEKLY, paymentPlans.get(0).getInstallmentFrequency());
         assertEquals(3.09, paymentPlans.get(0).getInstallmentAmount());
-        assertEquals(new Date(), paymentPlans.get(0).getStartDate()); // TODO: Fill in date
+        assertEquals(LocalDate.of(2020, 8, 1), paymentPlans.get(0).getStartDate()); // 8/1/2020
 
         assertEquals(4, paymentPlans.get(1).getId());
         assertEquals(8, paymentPlans.get(1).getDebtId());
         assertEquals(15.16, paymentPlans.get(1).getAmountToPay());
         assertEquals(InstallmentFrequency.WEEKLY, paymentPlans.get(1).getInstallmentFrequency());
         assertEquals(23.42, paymentPlans.get(1).getInstallmentAmount());
-        assertEquals(new Date(), paymentPlans.get(1).getStartDate()); // TODO: Fill in date*/
+        assertEquals(LocalDate.of(2020, 9, 28), paymentPlans.get(1).getStartDate()); // 9/28/2020
     }
 
     /**
@@ -68,9 +107,9 @@ public class APIDataRetrieverTest {
      * API.
      */
     @Test
-    public void getAllPayments_baseCase() {
-        /*//ARRANGE
-        final APIDataRetriever apiDataRetriever = new APIDataRetriever("REPLACE_ME"); // TODO: mock endpoint
+    public void getAllPayments_baseCase() throws Exception {
+        //ARRANGE
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl());
 
         // ACT
         final List<Payment> payments = apiDataRetriever.getAllPayments();
@@ -80,11 +119,11 @@ public class APIDataRetrieverTest {
 
         assertEquals(3, payments.get(0).getPaymentPlanId());
         assertEquals(22.11, payments.get(0).getAmount());
-        assertEquals(new Date(), payments.get(0).getDate()); // TODO: Fill in date
+        assertEquals(LocalDate.of(2020, 8, 8), payments.get(0).getDate()); // 8/8/2020
 
         assertEquals(42, payments.get(1).getPaymentPlanId());
         assertEquals(42.42, payments.get(1).getAmount());
-        assertEquals(new Date(), payments.get(1).getDate()); // TODO: Fill in date*/
+        assertEquals(LocalDate.of(2020, 10, 1), payments.get(1).getDate()); // 10/1/2020
     }
 
     /**
@@ -92,7 +131,11 @@ public class APIDataRetrieverTest {
      */
     @Test
     public void getAllDebts_invalidRootUrl() {
-        // stub
+        // ARRANGE
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl() + "missing/");
+
+        // ACT && ASSERT
+        assertThrows(ConnectException.class, apiDataRetriever::getAllDebts);
     }
 
     /**
@@ -100,7 +143,11 @@ public class APIDataRetrieverTest {
      */
     @Test
     public void getAllPaymentPlans_invalidRootUrl() {
-        // stub
+        // ARRANGE
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl() + "missing/");
+
+        // ACT && ASSERT
+        assertThrows(ConnectException.class, apiDataRetriever::getAllPaymentPlans);
     }
 
     /**
@@ -108,6 +155,257 @@ public class APIDataRetrieverTest {
      */
     @Test
     public void getAllPayments_invalidRootUrl() {
-        // stub
+        // ARRANGE
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl() + "missing/");
+
+        // ACT && ASSERT
+        assertThrows(ConnectException.class, apiDataRetriever::getAllPayments);
+    }
+
+    /**
+     * Ensure that retrieving in pages, with several pages in flight, returns every record in order.
+     */
+    @Test
+    public void getAll_paged() throws Exception {
+        // ARRANGE
+        PortfolioGenerator.Portfolio portfolio = new PortfolioGenerator(5).generate(500);
+        try (MockPaymentsServer pagedServer = new MockPaymentsServer(portfolio)) {
+            APIDataRetriever apiDataRetriever = new APIDataRetriever(pagedServer.getRootUrl(), 7, 3, 1);
+
+            // ACT
+            List<Debt> debts = apiDataRetriever.getAllDebts();
+            List<Payment> payments;
+            try (Stream<Payment> paymentStream = apiDataRetriever.streamAllPayments()) {
+                payments = paymentStream.collect(Collectors.toList());
+            }
+
+            // ASSERT
+            assertEquals(500, debts.size());
+            for (int i = 0; i < debts.size(); i++) {
+                assertEquals(portfolio.getAllDebts().get(i).getId(), debts.get(i).getId());
+                assertEquals(portfolio.getAllDebts().get(i).getAmount(), debts.get(i).getAmount());
+            }
+            assertEquals(portfolio.getAllPayments().size(), payments.size());
+            for (int i = 0; i < payments.size(); i++) {
+                assertEquals(portfolio.getAllPayments().get(i).getPaymentPlanId(), payments.get(i).getPaymentPlanId());
+                assertEquals(portfolio.getAllPayments().get(i).getAmount(), payments.get(i).getAmount());
+            }
+        }
+    }
+
+    /**
+     * Ensure that a server sending fewer records per page than were asked for still has every record retrieved, in
+     * order, whether the collection is read whole, streamed, or filtered by id.
+     */
+    @Test
+    public void getAll_pageSizeCapped() throws Exception {
+        // ARRANGE
+        PortfolioGenerator.Portfolio portfolio = new PortfolioGenerator(5).generate(500);
+        List<Integer> debtIds = portfolio.getAllDebts().stream().map(Debt::getId).collect(Collectors.toList());
+        try (MockPaymentsServer cappedServer = new MockPaymentsServer(portfolio)) {
+            cappedServer.setMaxPageSize(50);
+            APIDataRetriever apiDataRetriever = new APIDataRetriever(cappedServer.getRootUrl(), 100, 3, 1);
+
+            // ACT
+            List<Payment> payments = apiDataRetriever.getAllPayments();
+            long streamedDebts;
+            try (Stream<Debt> debtStream = apiDataRetriever.streamAllDebts()) {
+                streamedDebts = debtStream.count();
+            }
+            List<Debt> debtsByIds = apiDataRetriever.getDebtsByIds(debtIds);
+
+            // ASSERT
+            assertEquals(portfolio.getAllPayments().size(), payments.size());
+            for (int i = 0; i < payments.size(); i++) {
+                assertEquals(portfolio.getAllPayments().get(i).getPaymentPlanId(), payments.get(i).getPaymentPlanId());
+                assertEquals(portfolio.getAllPayments().get(i).getAmount(), payments.get(i).getAmount());
+            }
+            assertEquals(500, streamedDebts);
+            assertEquals(debtIds, debtsByIds.stream().map(Debt::getId).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Ensure that a server answering every page with the first page fails the retrieval, rather than having pages
+     * requested from it forever.
+     */
+    @Test
+    public void getAll_pageNumberIgnored() throws Exception {
+        // ARRANGE
+        PortfolioGenerator.Portfolio portfolio = new PortfolioGenerator(5).generate(500);
+        List<Integer> debtIds = portfolio.getAllDebts().stream().map(Debt::getId).collect(Collectors.toList());
+        try (MockPaymentsServer ignoringServer = new MockPaymentsServer(portfolio)) {
+            ignoringServer.setIgnoresPageNumber(true);
+            APIDataRetriever apiDataRetriever = new APIDataRetriever(ignoringServer.getRootUrl(), 100, 3, 1);
+
+            // ACT && ASSERT
+            assertThrows(IOException.class, apiDataRetriever::getAllPayments);
+            assertThrows(UncheckedIOException.class, () -> {
+                try (Stream<Debt> debtStream = apiDataRetriever.streamAllDebts()) {
+                    debtStream.count();
+                }
+            });
+            assertThrows(IOException.class, () -> apiDataRetriever.getDebtsByIds(debtIds));
+        }
+    }
+
+    /**
+     * Ensure that retrieving by id returns only the matching records, in batches of ids, including when each batch
+     * is paged, that batches and pages together stay within the cap on requests in flight, and that nothing is
+     * requested for no ids.
+     */
+    @Test
+    public void getByIds_batchesAndFilters() throws Exception {
+        // ARRANGE
+        PortfolioGenerator.Portfolio portfolio = new PortfolioGenerator(5).generate(500);
+        List<Integer> debtIds = portfolio.getAllDebts().stream()
+                .limit(150)
+                .map(Debt::getId)
+                .collect(Collectors.toList());
+        List<Integer> requestedIds = new ArrayList<>(debtIds);
+        requestedIds.add(debtIds.get(0));
+        requestedIds.add(-1);
+        Set<Integer> debtIdSet = new HashSet<>(debtIds);
+        List<PaymentPlan> expectedPaymentPlans = portfolio.getAllPaymentPlans().stream()
+                .filter(paymentPlan -> debtIdSet.contains(paymentPlan.getDebtId()))
+                .collect(Collectors.toList());
+        Set<Integer> paymentPlanIdSet = expectedPaymentPlans.stream()
+                .map(PaymentPlan::getId)
+                .collect(Collectors.toSet());
+        List<Payment> expectedPayments = portfolio.getAllPayments().stream()
+                .filter(payment -> paymentPlanIdSet.contains(payment.getPaymentPlanId()))
+                .collect(Collectors.toList());
+
+        try (MockPaymentsServer filteringServer = new MockPaymentsServer(portfolio)) {
+            APIDataRetriever apiDataRetriever = new APIDataRetriever(filteringServer.getRootUrl(), 0, 2, 1);
+            APIDataRetriever pagedRetriever = new APIDataRetriever(filteringServer.getRootUrl(), 7, 2, 1);
+            filteringServer.setLatencyMillis(1, 5);
+
+            // ACT
+            List<Debt> debts = apiDataRetriever.getDebtsByIds(requestedIds);
+            long debtRequests = filteringServer.getRequestCount();
+            List<PaymentPlan> paymentPlans = apiDataRetriever.getPaymentPlansByDebtIds(debtIds);
+            List<Payment> payments = pagedRetriever.getPaymentsByPaymentPlanIds(paymentPlanIdSet);
+            long requestsBeforeEmpty = filteringServer.getRequestCount();
+            List<Debt> noDebts = apiDataRetriever.getDebtsByIds(List.of());
+
+            // ASSERT
+            assertEquals(debtIds, debts.stream().map(Debt::getId).collect(Collectors.toList()));
+            assertEquals(2, debtRequests);
+            assertEquals(sortedIds(expectedPaymentPlans.stream().map(PaymentPlan::getId)),
+                    sortedIds(paymentPlans.stream().map(PaymentPlan::getId)));
+            assertEquals(expectedPayments.size(), payments.size());
+            assertEquals(expectedPayments.stream().mapToLong(Payment::getAmountInMinorUnits).sum(),
+                    payments.stream().mapToLong(Payment::getAmountInMinorUnits).sum());
+            assertTrue(filteringServer.getMaxRequestsInFlight() <= 2);
+            assertEquals(0, noDebts.size());
+            assertEquals(requestsBeforeEmpty, filteringServer.getRequestCount());
+        }
+    }
+
+    /**
+     * Ensure that cancelling a retrieval, whole or by id, closes the connections of its requests, so the server stops
+     * sending bodies nobody will read rather than sending them to the end. The first attempt of each request fails, so
+     * the bodies cancelled are those of retries, which cancelling the retrieval's future never reaches on its own.
+     */
+    @Test
+    public void getAllAsync_cancelClosesConnections() throws Exception {
+        // ARRANGE
+        PortfolioGenerator.Portfolio portfolio = new PortfolioGenerator(5).generate(500);
+        List<Integer> debtIds = portfolio.getAllDebts().stream().map(Debt::getId).collect(Collectors.toList());
+        try (MockPaymentsServer slowServer = new MockPaymentsServer(portfolio)) {
+            // At this rate each body takes well over a minute to send.
+            slowServer.setBandwidthBytesPerSecond(200);
+            APIDataRetriever apiDataRetriever = new APIDataRetriever(slowServer.getRootUrl(), 0, 2, 5);
+
+            for (Supplier<CompletableFuture<?>> retrieval : List.<Supplier<CompletableFuture<?>>>of(
+                    apiDataRetriever::getAllPaymentsAsync,
+                    () -> apiDataRetriever.getPaymentPlansByDebtIdsAsync(debtIds))) {
+                slowServer.setErrorRate(1);
+                long requestCount = slowServer.getRequestCount();
+                CompletableFuture<?> records = retrieval.get();
+                awaitRequests(() -> slowServer.getRequestCount() > requestCount);
+                slowServer.setErrorRate(0);
+                awaitRequests(() -> slowServer.getRequestCount() > requestCount + 1
+                        && slowServer.getRequestsInFlight() > 0);
+
+                // ACT
+                records.cancel(true);
+
+                // ASSERT
+                awaitRequests(() -> slowServer.getRequestsInFlight() == 0);
+            }
+        }
+    }
+
+    /**
+     * Ensure that a failing request is retried, and that the retrieval fails once every attempt has failed.
+     */
+    @Test
+    public void getAllDebts_retriesFailedRequests() {
+        // ARRANGE
+        server.setErrorRate(1);
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl(), 0, 1, 3);
+
+        // ACT && ASSERT
+        assertThrows(ConnectException.class, apiDataRetriever::getAllDebts);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    /**
+     * Ensure that a request whose connection drops partway through the body is retried, and that the retrieval fails
+     * with the connection failure once every attempt has failed.
+     */
+    @Test
+    public void getAllDebts_retriesTruncatedBodies() {
+        // ARRANGE
+        server.setTruncationRate(1);
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl(), 0, 1, 3);
+
+        // ACT && ASSERT
+        assertThrows(IOException.class, apiDataRetriever::getAllDebts);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    /**
+     * Ensure that a retriever with metrics records every request, both when reading whole Lists and when streaming.
+     */
+    @Test
+    public void getAll_recordsMetrics() throws Exception {
+        // ARRANGE
+        RunMetrics metrics = new RunMetrics();
+        final APIDataRetriever apiDataRetriever = new APIDataRetriever(server.getRootUrl(), 0, 1, 1, null, metrics);
+
+        // ACT
+        apiDataRetriever.getAllPaymentPlans();
+        long streamedDebts;
+        try (Stream<Debt> debts = apiDataRetriever.streamAllDebts()) {
+            streamedDebts = debts.count();
+        }
+
+        // ASSERT
+        assertEquals(2, streamedDebts);
+        assertEquals(1, (long) metrics.getRequestCounts().get("payment_plans"));
+        assertEquals(2, (long) metrics.getRecordCounts().get("payment_plans"));
+        assertEquals(1, (long) metrics.getRequestCounts().get("debts"));
+        assertEquals(2, (long) metrics.getRecordCounts().get("debts"));
+        String debtsBody = "[" + APIJSONEncoder.encode(new Debt(10, 11.87)) + ","
+                + APIJSONEncoder.encode(new Debt(11, 18.94)) + "]";
+        assertEquals(debtsBody.length(), (long) metrics.getResponseBytes().get("debts"));
+    }
+
+    /**
+     * Waits up to 10 seconds for a condition on a server's requests to hold, and fails if it does not.
+     */
+    private static void awaitRequests(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "the server's requests did not reach the expected state");
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Integer> sortedIds(Stream<Integer> ids) {
+        return ids.sorted().collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
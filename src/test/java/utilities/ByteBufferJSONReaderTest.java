@@ -0,0 +1,94 @@
+package utilities;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ByteBufferJSONReaderTest {
+    private static final byte[][] FIELDS = ByteBufferJSONReader.fieldNames("value");
+
+    /**
+     * Ensure that numbers are rounded exactly as Double.parseDouble rounds them, including ones with more digits or a
+     * larger exponent than the exact shortcut handles.
+     */
+    @Test
+    public void readDouble_matchesParseDouble() {
+        // ARRANGE
+        String[] numbers = {"0", "-0", "-0.0", "0.1", "4920.34", "1230.085", "9007199254740993", "1e22", "1e23",
+                "1.7976931348623157e308", "123456789012345678901234567890.5", "0.000000000000000000000000001",
+                "5E-324", "-12.5e+2", "1e400"};
+
+        // ACT && ASSERT
+        for (String number : numbers) {
+            ByteBufferJSONReader reader = readerOver("{\"value\": " + number + "}");
+            assertTrue(reader.nextRecord(FIELDS));
+            assertEquals(0, reader.nextField());
+            assertEquals(Double.parseDouble(number), reader.readDouble(), number);
+            assertEquals(ByteBufferJSONReader.END_OF_RECORD, reader.nextField());
+        }
+    }
+
+    /**
+     * Ensure that strings without escapes are read in place, and that escaped and non-ASCII strings are decoded.
+     */
+    @Test
+    public void readString_escapesAndUnicode() {
+        // ARRANGE
+        ByteBufferJSONReader reader = readerOver(
+                "{\"value\": \"WEEKLY\"}\n{\"value\": \"a\\\"b\\\\c\\u00e9\\n\"}\n{\"value\": \"caf\u00e9 \u2713\"}");
+
+        // ACT && ASSERT
+        assertTrue(reader.nextRecord(FIELDS));
+        reader.nextField();
+        assertEquals("WEEKLY", reader.readString().toString());
+        reader.nextField();
+        assertTrue(reader.nextRecord(FIELDS));
+        reader.nextField();
+        assertEquals("a\"b\\c\u00e9\n", reader.readString().toString());
+        reader.nextField();
+        assertTrue(reader.nextRecord(FIELDS));
+        reader.nextField();
+        assertEquals("caf\u00e9 \u2713", reader.readString().toString());
+        reader.nextField();
+        assertFalse(reader.nextRecord(FIELDS));
+    }
+
+    /**
+     * Ensure that fields that weren't asked for are skipped, whatever they hold, and that missing fields are reported.
+     */
+    @Test
+    public void nextField_skipsUnknownFields() {
+        // ARRANGE
+        ByteBufferJSONReader reader = readerOver(
+                "[{\"nested\": {\"a\": [1, {\"b\": \"}]\"}]}, \"flag\": true, \"value\": 7, \"none\": null}, {}]");
+
+        // ACT && ASSERT
+        assertTrue(reader.nextRecord(FIELDS));
+        assertEquals(ByteBufferJSONReader.UNKNOWN_FIELD, reader.nextField());
+        reader.skipValue();
+        assertEquals(ByteBufferJSONReader.UNKNOWN_FIELD, reader.nextField());
+        reader.skipValue();
+        assertEquals(0, reader.nextField());
+        assertEquals(7, reader.readInt());
+        assertEquals(ByteBufferJSONReader.UNKNOWN_FIELD, reader.nextField());
+        reader.skipValue();
+        assertEquals(ByteBufferJSONReader.END_OF_RECORD, reader.nextField());
+        reader.requireAllFields();
+        assertTrue(reader.nextRecord(FIELDS));
+        assertEquals(ByteBufferJSONReader.END_OF_RECORD, reader.nextField());
+        assertThrows(JSONException.class, reader::requireAllFields);
+        assertFalse(reader.nextRecord(FIELDS));
+    }
+
+    private static ByteBufferJSONReader readerOver(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new ByteBufferJSONReader(ByteBuffer.wrap(bytes), 0, bytes.length, 0, "test");
+    }
+}
@@ -3,6 +3,7 @@ package utilities;
 import data.Debt;
 import data.DebtInfo;
 import data.Payment;
+import data.PaymentColumns;
 import data.PaymentPlan;
 
 import enums.InstallmentFrequency;
@@ -14,10 +15,13 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class DebtAnalysisServiceTest {
     @Test
@@ -72,19 +76,19 @@ public class DebtAnalysisServiceTest {
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()),
+                        LocalDate.now()),
                 new PaymentPlan(2,
                         42,
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()),
+                        LocalDate.now()),
                 new PaymentPlan(3,
                         32,
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date())
+                        LocalDate.now())
         );
         List<Payment> allPayments = new ArrayList<>();
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
@@ -109,25 +113,25 @@ public class DebtAnalysisServiceTest {
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()),
+                        LocalDate.now()),
                 new PaymentPlan(2,
                         32,
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()),
+                        LocalDate.now()),
                 new PaymentPlan(3,
                         42,
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()),
+                        LocalDate.now()),
                 new PaymentPlan(4,
                         42,
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date())
+                        LocalDate.now())
         );
         List<Payment> allPayments = new ArrayList<>();
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
@@ -152,19 +156,19 @@ public class DebtAnalysisServiceTest {
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()),
+                        LocalDate.now()),
                 new PaymentPlan(2,
                         22,
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()),
+                        LocalDate.now()),
                 new PaymentPlan(3,
                         32,
                         3.14,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date())
+                        LocalDate.now())
         );
         List<Payment> allPayments = new ArrayList<>();
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
@@ -200,7 +204,7 @@ public class DebtAnalysisServiceTest {
                         1000.00,
                         InstallmentFrequency.WEEKLY,
                         4.0,
-                        new Date()));
+                        LocalDate.now()));
 
         List<Payment> allPayments = new ArrayList<>();
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
@@ -221,12 +225,12 @@ public class DebtAnalysisServiceTest {
                 1000.00,
                 InstallmentFrequency.WEEKLY,
                 4.0,
-                new Date()));
+                LocalDate.now()));
         List<Payment> allPayments = new ArrayList<>();
-        allPayments.add(new Payment(1, 200.00, new Date(1605675600000L))); // Date is 11/18/2020
-        allPayments.add(new Payment(1, 300.00, new Date(1606107600000L))); // Date is 11/23/2020
-        allPayments.add(new Payment(1, 300.00, new Date(1608872400000L))); // Date is 12/25/2020
-        allPayments.add(new Payment(2, 400.00, new Date(1607662800000L))); // unrelated payment
+        allPayments.add(new Payment(1, 200.00, LocalDate.of(2020, 11, 18))); // Date is 11/18/2020
+        allPayments.add(new Payment(1, 300.00, LocalDate.of(2020, 11, 23))); // Date is 11/23/2020
+        allPayments.add(new Payment(1, 300.00, LocalDate.of(2020, 12, 25))); // Date is 12/25/2020
+        allPayments.add(new Payment(2, 400.00, LocalDate.of(2020, 12, 11))); // unrelated payment
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
@@ -245,17 +249,39 @@ public class DebtAnalysisServiceTest {
                 1000.00,
                 InstallmentFrequency.WEEKLY,
                 4.0,
-                new Date()));
+                LocalDate.now()));
         List<Payment> allPayments = new ArrayList<>();
-        allPayments.add(new Payment(1, 200.59, new Date(1605675600000L))); // Date is 11/18/2020
-        allPayments.add(new Payment(1, 300.273, new Date(1606107600000L))); // Date is 11/23/2020
-        allPayments.add(new Payment(1, 302.12, new Date(1608872400000L))); // Date is 12/25/2020
+        allPayments.add(new Payment(1, 200.59, LocalDate.of(2020, 11, 18))); // Date is 11/18/2020
+        allPayments.add(new Payment(1, 300.273, LocalDate.of(2020, 11, 23))); // Date is 11/23/2020
+        allPayments.add(new Payment(1, 302.12, LocalDate.of(2020, 12, 25))); // Date is 12/25/2020
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
         assertEquals(197.017, debtAnalysisService.calculateRemainingAmount(debt));
     }
 
+    @Test
+    public void calculateRemainingAmount_noFloatingPointDrift() {
+        // ARRANGE
+        Debt debt = new Debt(42, 0.3);
+        List<Debt> allDebts = new ArrayList<>();
+        allDebts.add(debt);
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        allPaymentPlans.add(new PaymentPlan(1,
+                42,
+                0.3,
+                InstallmentFrequency.WEEKLY,
+                0.1,
+                LocalDate.now()));
+        List<Payment> allPayments = new ArrayList<>();
+        allPayments.add(new Payment(1, 0.1, LocalDate.of(2020, 11, 18))); // Date is 11/18/2020
+        allPayments.add(new Payment(1, 0.1, LocalDate.of(2020, 11, 23))); // Date is 11/23/2020
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT && ASSERT
+        assertEquals(0.1, debtAnalysisService.calculateRemainingAmount(debt));
+    }
+
     @Test
     public void calculateRemainingAmount_completelyPaid() {
         // ARRANGE
@@ -268,12 +294,12 @@ public class DebtAnalysisServiceTest {
                 1000.00,
                 InstallmentFrequency.WEEKLY,
                 4.0,
-                new Date()));
+                LocalDate.now()));
         List<Payment> allPayments = new ArrayList<>();
-        allPayments.add(new Payment(1, 250.00, new Date(1605675600000L))); // Date is 11/18/2020
-        allPayments.add(new Payment(1, 350.00, new Date(1606107600000L))); // Date is 11/23/2020
-        allPayments.add(new Payment(1, 400.00, new Date(1608872400000L))); // Date is 12/25/2020
-        allPayments.add(new Payment(2, 400.00, new Date(1607662800000L))); // unrelated payment
+        allPayments.add(new Payment(1, 250.00, LocalDate.of(2020, 11, 18))); // Date is 11/18/2020
+        allPayments.add(new Payment(1, 350.00, LocalDate.of(2020, 11, 23))); // Date is 11/23/2020
+        allPayments.add(new Payment(1, 400.00, LocalDate.of(2020, 12, 25))); // Date is 12/25/2020
+        allPayments.add(new Payment(2, 400.00, LocalDate.of(2020, 12, 11))); // unrelated payment
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
@@ -292,12 +318,12 @@ public class DebtAnalysisServiceTest {
                 1000.00,
                 InstallmentFrequency.WEEKLY,
                 4.0,
-                new Date()));
+                LocalDate.now()));
         List<Payment> allPayments = new ArrayList<>();
-        allPayments.add(new Payment(1, 500.00, new Date(1605675600000L))); // Date is 11/18/2020
-        allPayments.add(new Payment(1, 500.00, new Date(1606107600000L))); // Date is 11/23/2020
-        allPayments.add(new Payment(1, 500.00, new Date(1608872400000L))); // Date is 12/25/2020
-        allPayments.add(new Payment(2, 400.00, new Date(1607662800000L))); // unrelated payment
+        allPayments.add(new Payment(1, 500.00, LocalDate.of(2020, 11, 18))); // Date is 11/18/2020
+        allPayments.add(new Payment(1, 500.00, LocalDate.of(2020, 11, 23))); // Date is 11/23/2020
+        allPayments.add(new Payment(1, 500.00, LocalDate.of(2020, 12, 25))); // Date is 12/25/2020
+        allPayments.add(new Payment(2, 400.00, LocalDate.of(2020, 12, 11))); // unrelated payment
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
@@ -315,7 +341,7 @@ public class DebtAnalysisServiceTest {
                 1000.00,
                 InstallmentFrequency.WEEKLY,
                 4.0,
-                new Date()));
+                LocalDate.now()));
         List<Payment> allPayments = new ArrayList<>();
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
@@ -338,18 +364,18 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 300.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604034000000L))); // 10/30/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604638800000L))); // 11/6/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 30))); // 10/30/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 6))); // 11/6/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
-        assertEquals(new Date(1605243600000L), // 11/13/2020
+        assertEquals(LocalDate.of(2020, 11, 13), // 11/13/2020
                 debtAnalysisService.calculateNextPaymentDueDate(debt));
     }
 
@@ -366,18 +392,18 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.BI_WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 300.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604638800000L))); // 11/6/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1605848400000L))); // 11/20/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 6))); // 11/6/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 20))); // 11/20/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
-        assertEquals(new Date(1607058000000L), // 12/4/2020
+        assertEquals(LocalDate.of(2020, 12, 4), // 12/4/2020
                 debtAnalysisService.calculateNextPaymentDueDate(debt));
     }
 
@@ -394,14 +420,14 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.BI_WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 300.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604638800000L))); // 11/6/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1605848400000L))); // 11/20/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1607058000000L))); // 12/4/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 6))); // 11/6/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 20))); // 11/20/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 12, 4))); // 12/4/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
@@ -422,14 +448,14 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.BI_WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 400.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(6, 400.00, new Date(1604638800000L))); // 11/6/2020
-        allPayments.add(new Payment(6, 400.00, new Date(1605848400000L))); // 11/20/2020
-        allPayments.add(new Payment(6, 400.00, new Date(1607058000000L))); // 12/4/2020
+        allPayments.add(new Payment(6, 400.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 400.00, LocalDate.of(2020, 11, 6))); // 11/6/2020
+        allPayments.add(new Payment(6, 400.00, LocalDate.of(2020, 11, 20))); // 11/20/2020
+        allPayments.add(new Payment(6, 400.00, LocalDate.of(2020, 12, 4))); // 12/4/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
@@ -450,18 +476,18 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.BI_WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 300.00, new Date(1603602000000L))); // 10/25/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604725200000L))); // 11/6/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1606366800000L))); // 11/26/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 25))); // 10/25/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 7))); // 11/6/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 26))); // 11/26/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
-        assertEquals(new Date(1607058000000L), // 12/4/2020
+        assertEquals(LocalDate.of(2020, 12, 4), // 12/4/2020
                 debtAnalysisService.calculateNextPaymentDueDate(debt));
     }
 
@@ -478,17 +504,83 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.BI_WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
-        assertEquals(new Date(1603429200000L), // 10/23/2020
+        assertEquals(LocalDate.of(2020, 10, 23), // 10/23/2020
                 debtAnalysisService.calculateNextPaymentDueDate(debt));
     }
 
+    /**
+     * Ensure that a debt of nothing in a payment plan with no payments is already paid, so it has no next due date.
+     */
+    @Test
+    public void calculateNextPaymentDueDate_zeroAmountNoPayments() {
+        // ARRANGE
+        List<Debt> allDebts = new ArrayList<>();
+        Debt debt = new Debt(17, 0.00);
+        allDebts.add(debt);
+
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        PaymentPlan paymentPlan = new PaymentPlan(6,
+                17,
+                100.00,
+                InstallmentFrequency.WEEKLY,
+                25.00,
+                LocalDate.of(2020, 1, 1)); // 1/1/2020
+        allPaymentPlans.add(paymentPlan);
+        List<Payment> allPayments = new ArrayList<>();
+
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT
+        DebtInfo debtInfo = debtAnalysisService.generateDebtInfos().get(0);
+
+        // ASSERT
+        assertTrue(debtInfo.getIsInPaymentPlan());
+        assertEquals(0.0, debtInfo.getRemainingAmount());
+        assertNull(debtInfo.getNextPaymentDueDate());
+        assertNull(debtAnalysisService.calculateNextPaymentDueDate(debt));
+    }
+
+    /**
+     * Ensure that debts of nothing or less come out as they always have, both with and without payments: only a debt
+     * of nothing with no payments is paid off, while a negative payment against a debt of nothing, or a negative
+     * debt with no payments, leaves an amount remaining and the start date due.
+     */
+    @Test
+    public void generateDebtInfos_zeroAndNegativeAmounts() {
+        // ARRANGE
+        List<Debt> allDebts = List.of(new Debt(17, 0.00), new Debt(18, 0.00), new Debt(19, -5.00));
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        for (int id = 17; id <= 19; id++) {
+            allPaymentPlans.add(new PaymentPlan(id,
+                    id,
+                    100.00,
+                    InstallmentFrequency.WEEKLY,
+                    25.00,
+                    LocalDate.of(2020, 1, 1))); // 1/1/2020
+        }
+        List<Payment> allPayments = List.of(new Payment(18, -10.00, LocalDate.of(2020, 1, 2))); // 1/2/2020
+
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT
+        List<DebtInfo> debtInfos = debtAnalysisService.generateDebtInfos();
+
+        // ASSERT
+        assertEquals(0.0, debtInfos.get(0).getRemainingAmount());
+        assertNull(debtInfos.get(0).getNextPaymentDueDate());
+        assertEquals(10.0, debtInfos.get(1).getRemainingAmount());
+        assertEquals(LocalDate.of(2020, 1, 1), debtInfos.get(1).getNextPaymentDueDate());
+        assertEquals(-5.0, debtInfos.get(2).getRemainingAmount());
+        assertEquals(LocalDate.of(2020, 1, 1), debtInfos.get(2).getNextPaymentDueDate());
+    }
+
     @Test
     public void calculateNextPaymentDueDate_earlyPayments() {
         // ARRANGE
@@ -502,18 +594,18 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.BI_WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 300.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604034000000L))); // 10/30/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1605675600000L))); // 11/18/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 30))); // 10/30/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 18))); // 11/18/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
-        assertEquals(new Date(1607058000000L), // 12/4/2020
+        assertEquals(LocalDate.of(2020, 12, 4), // 12/4/2020
                 debtAnalysisService.calculateNextPaymentDueDate(debt));
     }
 
@@ -530,18 +622,18 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 300.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(6, 100.00, new Date(1604034000000L))); // 10/30/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604638800000L))); // 11/6/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 100.00, LocalDate.of(2020, 10, 30))); // 10/30/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 6))); // 11/6/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
-        assertEquals(new Date(1604638800000L), // 11/6/2020
+        assertEquals(LocalDate.of(2020, 11, 6), // 11/6/2020
                 debtAnalysisService.calculateNextPaymentDueDate(debt));
     }
 
@@ -558,17 +650,17 @@ public class DebtAnalysisServiceTest {
                 1200.00,
                 InstallmentFrequency.WEEKLY,
                 300.00,
-                new Date(1603429200000L)); // 10/23/2020
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
         allPaymentPlans.add(paymentPlan);
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(6, 600.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(6, 300.00, new Date(1604034000000L))); // 10/30/2020
+        allPayments.add(new Payment(6, 600.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 30))); // 10/30/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
-        assertEquals(new Date(1605243600000L), // 11/13/2020
+        assertEquals(LocalDate.of(2020, 11, 13), // 11/13/2020
                 debtAnalysisService.calculateNextPaymentDueDate(debt));
     }
 
@@ -585,13 +677,13 @@ public class DebtAnalysisServiceTest {
                 1000.00,
                 InstallmentFrequency.WEEKLY,
                 4.0,
-                new Date()));
+                LocalDate.now()));
         List<Payment> allPayments = new ArrayList<>();
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
         // ACT && ASSERT
         assertThrows(NullPointerException.class, () -> {
-            Date dueDate = debtAnalysisService.calculateNextPaymentDueDate(debt);
+            LocalDate dueDate = debtAnalysisService.calculateNextPaymentDueDate(debt);
         });
     }
 
@@ -609,23 +701,23 @@ public class DebtAnalysisServiceTest {
                         800.00,
                         InstallmentFrequency.WEEKLY,
                         200.0,
-                        new Date(1603429200000L)), // 10/23/2020
+                        LocalDate.of(2020, 10, 23)), // 10/23/2020
                 new PaymentPlan(2,
                         17,
                         1200.00,
                         InstallmentFrequency.BI_WEEKLY,
                         400.00,
-                        new Date(1597899600000L)) // 8/20/2020
+                        LocalDate.of(2020, 8, 20)) // 8/20/2020
         );
         List<Payment> allPayments = new ArrayList<>();
 
-        allPayments.add(new Payment(1, 200.00, new Date(1603429200000L))); // 10/23/2020
-        allPayments.add(new Payment(1, 200.00, new Date(1604034000000L))); // 10/30/2020
-        allPayments.add(new Payment(1, 200.00, new Date(1604638800000L))); // 11/6/2020
-        allPayments.add(new Payment(1, 200.00, new Date(1605243600000L))); // 11/6/2020, fully paid
+        allPayments.add(new Payment(1, 200.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(1, 200.00, LocalDate.of(2020, 10, 30))); // 10/30/2020
+        allPayments.add(new Payment(1, 200.00, LocalDate.of(2020, 11, 6))); // 11/6/2020
+        allPayments.add(new Payment(1, 200.00, LocalDate.of(2020, 11, 13))); // 11/6/2020, fully paid
 
-        allPayments.add(new Payment(2, 400.00, new Date(1598072400000L))); // 8/22/2020
-        allPayments.add(new Payment(2, 500.00, new Date(1599109200000L))); // 9/3/2020
+        allPayments.add(new Payment(2, 400.00, LocalDate.of(2020, 8, 22))); // 8/22/2020
+        allPayments.add(new Payment(2, 500.00, LocalDate.of(2020, 9, 3))); // 9/3/2020
 
         DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
 
@@ -636,7 +728,7 @@ public class DebtAnalysisServiceTest {
         DebtInfo expectedDebtInfo2 = new DebtInfo(new Debt(17, 1200.00),
                 true,
                 300.00,
-                new Date(1600318800000L)); // 9/17/2020
+                LocalDate.of(2020, 9, 17)); // 9/17/2020
         DebtInfo expectedDebtInfo3 = new DebtInfo(new Debt(50, 1000.00),
                 false,
                 1000.00,
@@ -656,7 +748,7 @@ public class DebtAnalysisServiceTest {
         assertEquals(1200.00, debtInfos.get(1).getDebt().getAmount());
         assertTrue(debtInfos.get(1).getIsInPaymentPlan());
         assertEquals(300.00, debtInfos.get(1).getRemainingAmount());
-        assertEquals(new Date(1600318800000L), debtInfos.get(1).getNextPaymentDueDate());
+        assertEquals(LocalDate.of(2020, 9, 17), debtInfos.get(1).getNextPaymentDueDate());
 
         assertEquals(50, debtInfos.get(2).getDebt().getId());
         assertEquals(1000.00, debtInfos.get(2).getDebt().getAmount());
@@ -664,4 +756,385 @@ public class DebtAnalysisServiceTest {
         assertEquals(1000.00, debtInfos.get(2).getRemainingAmount());
         assertNull(debtInfos.get(2).getNextPaymentDueDate());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void calculateNextPaymentDueDate_repeatedCallsLeavePaymentPlanUnchanged() {
+        // ARRANGE
+        List<Debt> allDebts = new ArrayList<>();
+        Debt debt = new Debt(17, 1200.00);
+        allDebts.add(debt);
+
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        PaymentPlan paymentPlan = new PaymentPlan(6,
+                17,
+                1200.00,
+                InstallmentFrequency.WEEKLY,
+                300.00,
+                LocalDate.of(2020, 10, 23)); // 10/23/2020
+        allPaymentPlans.add(paymentPlan);
+        List<Payment> allPayments = new ArrayList<>();
+
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 10, 30))); // 10/30/2020
+
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT
+        LocalDate firstDueDate = debtAnalysisService.calculateNextPaymentDueDate(debt);
+        LocalDate secondDueDate = debtAnalysisService.calculateNextPaymentDueDate(debt);
+        List<DebtInfo> debtInfos = debtAnalysisService.generateDebtInfos();
+
+        // ASSERT
+        assertEquals(LocalDate.of(2020, 11, 6), firstDueDate); // 11/6/2020
+        assertEquals(LocalDate.of(2020, 11, 6), secondDueDate);
+        assertEquals(LocalDate.of(2020, 11, 6), debtInfos.get(0).getNextPaymentDueDate());
+        assertEquals(LocalDate.of(2020, 10, 23), paymentPlan.getStartDate());
+    }
+
+    @Test
+    public void calculateNextPaymentDueDate_largeLumpSumPayment() {
+        // ARRANGE
+        List<Debt> allDebts = new ArrayList<>();
+        Debt debt = new Debt(17, 1_000_000.00);
+        allDebts.add(debt);
+
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        allPaymentPlans.add(new PaymentPlan(6,
+                17,
+                1_000_000.00,
+                InstallmentFrequency.WEEKLY,
+                0.01,
+                LocalDate.of(2020, 10, 23))); // 10/23/2020
+        List<Payment> allPayments = new ArrayList<>();
+
+        allPayments.add(new Payment(6, 100.00, LocalDate.of(2020, 10, 23))); // 10/23/2020, covers 10,000 installments
+        allPayments.add(new Payment(6, 0.005, LocalDate.of(2020, 10, 30))); // 10/30/2020, half of an installment
+
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT && ASSERT
+        assertEquals(LocalDate.of(2020, 10, 23).plusDays(70_000),
+                debtAnalysisService.calculateNextPaymentDueDate(debt));
+    }
+
+    @Test
+    public void calculateNextPaymentDueDate_refundDoesNotMoveScheduleBack() {
+        // ARRANGE
+        List<Debt> allDebts = new ArrayList<>();
+        Debt debt = new Debt(17, 1200.00);
+        allDebts.add(debt);
+
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        allPaymentPlans.add(new PaymentPlan(6,
+                17,
+                1200.00,
+                InstallmentFrequency.WEEKLY,
+                300.00,
+                LocalDate.of(2020, 10, 23))); // 10/23/2020
+        List<Payment> allPayments = new ArrayList<>();
+
+        allPayments.add(new Payment(6, 600.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        allPayments.add(new Payment(6, -300.00, LocalDate.of(2020, 10, 30))); // 10/30/2020, refunded
+        allPayments.add(new Payment(6, 300.00, LocalDate.of(2020, 11, 6))); // 11/6/2020
+
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT && ASSERT
+        assertEquals(600.00, debtAnalysisService.calculateRemainingAmount(debt));
+        assertEquals(LocalDate.of(2020, 11, 6), // 11/6/2020
+                debtAnalysisService.calculateNextPaymentDueDate(debt));
+    }
+
+    @Test
+    public void generateDebtInfosInParallel_matchesSequentialOrderAndValues() {
+        // ARRANGE
+        List<Debt> allDebts = new ArrayList<>();
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        List<Payment> allPayments = new ArrayList<>();
+        for (int id = 0; id < DebtAnalysisService.PARALLEL_THRESHOLD * 3; id++) {
+            allDebts.add(new Debt(id, 1000.00 + id));
+            if (id % 3 != 0) {
+                allPaymentPlans.add(new PaymentPlan(id,
+                        id,
+                        1000.00 + id,
+                        id % 2 == 0 ? InstallmentFrequency.WEEKLY : InstallmentFrequency.BI_WEEKLY,
+                        100.00,
+                        LocalDate.of(2020, 10, 23))); // 10/23/2020
+                for (int paymentNumber = 0; paymentNumber < id % 13; paymentNumber++) {
+                    allPayments.add(new Payment(id, 95.50, LocalDate.of(2020, 10, 23))); // 10/23/2020
+                }
+            }
+        }
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT
+        List<DebtInfo> sequentialDebtInfos = debtAnalysisService.generateDebtInfos();
+        List<DebtInfo> parallelDebtInfos = debtAnalysisService.generateDebtInfosInParallel(4);
+
+        // ASSERT
+        assertEquals(sequentialDebtInfos.getClass(), parallelDebtInfos.getClass());
+        assertEquals(sequentialDebtInfos.size(), parallelDebtInfos.size());
+        for (int index = 0; index < sequentialDebtInfos.size(); index++) {
+            DebtInfo expected = sequentialDebtInfos.get(index);
+            DebtInfo actual = parallelDebtInfos.get(index);
+            assertEquals(expected.getDebt().getId(), actual.getDebt().getId());
+            assertEquals(expected.getIsInPaymentPlan(), actual.getIsInPaymentPlan());
+            assertEquals(expected.getRemainingAmount(), actual.getRemainingAmount());
+            assertEquals(expected.getNextPaymentDueDate(), actual.getNextPaymentDueDate());
+        }
+    }
+
+    @Test
+    public void generateDebtInfosInParallel_invalidParallelism() {
+        // ARRANGE
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+        // ACT && ASSERT
+        assertThrows(IllegalArgumentException.class, () -> {
+            List<DebtInfo> debtInfos = debtAnalysisService.generateDebtInfosInParallel(0);
+        });
+    }
+
+    @Test
+    public void streamDebtInfos_matchesGenerateDebtInfos() {
+        // ARRANGE
+        List<Debt> allDebts = new ArrayList<>();
+        allDebts.add(new Debt(4, 800.00));
+        allDebts.add(new Debt(17, 1200.00));
+        allDebts.add(new Debt(50, 1000.00));
+
+        List<PaymentPlan> allPaymentPlans = Arrays.asList(
+                new PaymentPlan(1,
+                        4,
+                        800.00,
+                        InstallmentFrequency.WEEKLY,
+                        200.0,
+                        LocalDate.of(2020, 10, 23)), // 10/23/2020
+                new PaymentPlan(2,
+                        17,
+                        1200.00,
+                        InstallmentFrequency.BI_WEEKLY,
+                        400.00,
+                        LocalDate.of(2020, 8, 20)) // 8/20/2020
+        );
+        List<Payment> allPayments = new ArrayList<>();
+        allPayments.add(new Payment(1, 800.00, LocalDate.of(2020, 10, 23))); // 10/23/2020, fully paid
+        allPayments.add(new Payment(2, 400.00, LocalDate.of(2020, 8, 22))); // 8/22/2020
+        allPayments.add(new Payment(2, 500.00, LocalDate.of(2020, 9, 3))); // 9/3/2020
+
+        DebtAnalysisService streamingService = new DebtAnalysisService(allPaymentPlans, allPayments);
+        DebtAnalysisService listService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT
+        List<DebtInfo> streamedDebtInfos = streamingService.streamDebtInfos(allDebts.stream())
+                .collect(Collectors.toList());
+        List<DebtInfo> generatedDebtInfos = listService.generateDebtInfos();
+
+        // ASSERT
+        assertTrue(streamingService.generateDebtInfos().isEmpty());
+        assertEquals(generatedDebtInfos.size(), streamedDebtInfos.size());
+        for (int index = 0; index < generatedDebtInfos.size(); index++) {
+            assertEquals(generatedDebtInfos.get(index).getDebt().getId(),
+                    streamedDebtInfos.get(index).getDebt().getId());
+            assertEquals(generatedDebtInfos.get(index).getIsInPaymentPlan(),
+                    streamedDebtInfos.get(index).getIsInPaymentPlan());
+            assertEquals(generatedDebtInfos.get(index).getRemainingAmount(),
+                    streamedDebtInfos.get(index).getRemainingAmount());
+            assertEquals(generatedDebtInfos.get(index).getNextPaymentDueDate(),
+                    streamedDebtInfos.get(index).getNextPaymentDueDate());
+        }
+    }
+
+    /**
+     * Ensure that a service given payments as columns, with the payments for different plans interleaved, computes
+     * the same metadata as one given the equivalent List of Payments.
+     */
+    @Test
+    public void generateDebtInfos_paymentColumnsMatchPaymentList() {
+        // ARRANGE
+        List<Debt> allDebts = Arrays.asList(new Debt(4, 800.00), new Debt(17, 1200.00), new Debt(50, 1000.00));
+        List<PaymentPlan> allPaymentPlans = Arrays.asList(
+                new PaymentPlan(1,
+                        4,
+                        800.00,
+                        InstallmentFrequency.WEEKLY,
+                        200.0,
+                        LocalDate.of(2020, 10, 23)), // 10/23/2020
+                new PaymentPlan(2,
+                        17,
+                        1200.00,
+                        InstallmentFrequency.BI_WEEKLY,
+                        400.00,
+                        LocalDate.of(2020, 8, 20)) // 8/20/2020
+        );
+        List<Payment> allPayments = Arrays.asList(
+                new Payment(2, 400.00, LocalDate.of(2020, 8, 22)), // 8/22/2020
+                new Payment(1, 250.00, LocalDate.of(2020, 10, 23)), // 10/23/2020
+                new Payment(2, 500.00, LocalDate.of(2020, 9, 3)), // 9/3/2020
+                new Payment(1, 150.00, LocalDate.of(2020, 10, 30)) // 10/30/2020
+        );
+
+        DebtAnalysisService listService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+        DebtAnalysisService columnService = new DebtAnalysisService(allDebts, allPaymentPlans,
+                PaymentColumns.of(allPayments));
+
+        // ACT
+        List<DebtInfo> listDebtInfos = listService.generateDebtInfos();
+        List<DebtInfo> columnDebtInfos = columnService.generateDebtInfos();
+
+        // ASSERT
+        assertEquals(listDebtInfos.size(), columnDebtInfos.size());
+        for (int index = 0; index < listDebtInfos.size(); index++) {
+            assertEquals(listDebtInfos.get(index).getRemainingAmount(),
+                    columnDebtInfos.get(index).getRemainingAmount());
+            assertEquals(listDebtInfos.get(index).getNextPaymentDueDate(),
+                    columnDebtInfos.get(index).getNextPaymentDueDate());
+        }
+        assertEquals(400.0, columnDebtInfos.get(0).getRemainingAmount());
+        assertEquals(LocalDate.of(2020, 11, 6), columnDebtInfos.get(0).getNextPaymentDueDate()); // 11/6/2020
+    }
+
+    /**
+     * Ensure that streaming with metrics records every debt, counts the payments against plans that do not exist, and
+     * counts only the plans whose debt was not analyzed as orphaned, not a debt's second plan.
+     */
+    @Test
+    public void streamDebtInfos_recordsMetrics() {
+        // ARRANGE
+        List<Debt> allDebts = Arrays.asList(new Debt(4, 800.00), new Debt(50, 1000.00));
+        List<PaymentPlan> allPaymentPlans = Arrays.asList(
+                new PaymentPlan(1,
+                        4,
+                        800.00,
+                        InstallmentFrequency.WEEKLY,
+                        200.0,
+                        LocalDate.of(2020, 10, 23)), // 10/23/2020
+                new PaymentPlan(2,
+                        17,
+                        1200.00,
+                        InstallmentFrequency.BI_WEEKLY,
+                        400.00,
+                        LocalDate.of(2020, 8, 20)), // 8/20/2020
+                new PaymentPlan(3,
+                        4,
+                        800.00,
+                        InstallmentFrequency.WEEKLY,
+                        100.0,
+                        LocalDate.of(2020, 10, 23)) // 10/23/2020, a second plan for debt 4
+        );
+        List<Payment> allPayments = Arrays.asList(
+                new Payment(1, 250.00, LocalDate.of(2020, 10, 23)), // 10/23/2020
+                new Payment(9, 100.00, LocalDate.of(2020, 10, 24)), // 10/24/2020, no such plan
+                new Payment(9, 100.00, LocalDate.of(2020, 10, 31)) // 10/31/2020, no such plan
+        );
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allPaymentPlans, allPayments);
+        RunMetrics metrics = new RunMetrics();
+
+        // ACT
+        List<DebtInfo> debtInfos = debtAnalysisService.streamDebtInfos(allDebts.stream(), metrics)
+                .collect(Collectors.toList());
+        int orphanedPayments = debtAnalysisService.countOrphanedPayments();
+        metrics.recordIndexing(0, allPaymentPlans.size(), allPayments.size(), orphanedPayments);
+
+        // ASSERT
+        assertEquals(2, debtInfos.size());
+        assertEquals(550.0, debtInfos.get(0).getRemainingAmount());
+        assertEquals(2, metrics.getDebtCount());
+        assertEquals(1, metrics.getOrphanedPaymentPlanCount());
+        assertTrue(metrics.getDebtLatencyMaxNanos() > 0);
+        assertEquals(2, orphanedPayments);
+    }
+
+    /**
+     * Ensure that looking up a debt evaluates only that debt, the same way generateDebtInfos does, and that a second
+     * lookup is served from the cache.
+     */
+    @Test
+    public void getDebtInfo_evaluatesOnlyRequestedDebt() {
+        // ARRANGE
+        List<Debt> allDebts = Arrays.asList(new Debt(4, 800.00), new Debt(50, 1000.00), new Debt(51, 12.50));
+        List<PaymentPlan> allPaymentPlans = Arrays.asList(
+                new PaymentPlan(1,
+                        4,
+                        800.00,
+                        InstallmentFrequency.WEEKLY,
+                        200.0,
+                        LocalDate.of(2020, 10, 23))); // 10/23/2020
+        List<Payment> allPayments = Arrays.asList(
+                new Payment(1, 250.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+
+        // ACT
+        DebtInfo first = debtAnalysisService.getDebtInfo(4);
+        DebtInfo second = debtAnalysisService.getDebtInfo(4);
+        DebtInfo unknown = debtAnalysisService.getDebtInfo(5);
+
+        // ASSERT
+        DebtInfo expected = debtAnalysisService.generateDebtInfos().get(0);
+        assertEquals(expected.getRemainingAmount(), first.getRemainingAmount());
+        assertEquals(expected.getNextPaymentDueDate(), first.getNextPaymentDueDate());
+        assertTrue(first == second);
+        assertNull(unknown);
+        assertEquals(1, debtAnalysisService.debtInfoCacheStats().missCount());
+        assertEquals(1, debtAnalysisService.debtInfoCacheStats().hitCount());
+    }
+
+    /**
+     * Ensure that a bulk lookup returns the requested debts in the order asked for, leaving out unknown ids, and
+     * evaluates nothing else.
+     */
+    @Test
+    public void getDebtInfos_returnsRequestedDebtsInOrder() {
+        // ARRANGE
+        List<Debt> allDebts = Arrays.asList(new Debt(4, 800.00), new Debt(50, 1000.00), new Debt(51, 12.50));
+        DebtAnalysisService debtAnalysisService =
+                new DebtAnalysisService(allDebts, new ArrayList<>(), new ArrayList<>());
+
+        // ACT
+        Map<Integer, DebtInfo> debtInfos = debtAnalysisService.getDebtInfos(Arrays.asList(51, 7, 4));
+
+        // ASSERT
+        assertEquals(Arrays.asList(51, 4), new ArrayList<>(debtInfos.keySet()));
+        assertEquals(12.50, debtInfos.get(51).getRemainingAmount());
+        assertEquals(800.00, debtInfos.get(4).getRemainingAmount());
+        assertEquals(2, debtAnalysisService.debtInfoCacheStats().loadCount());
+        assertThrows(NullPointerException.class, () -> debtAnalysisService.getDebtInfos(Arrays.asList(4, null)));
+    }
+
+    /**
+     * Ensure that lookups from many threads at once agree with generateDebtInfos, and that the cache stays bounded by
+     * evicting DebtInfos once it is full.
+     */
+    @Test
+    public void getDebtInfo_concurrentLookupsEvictWhenFull() {
+        // ARRANGE
+        int debtCount = DebtAnalysisService.DEBT_INFO_CACHE_SIZE * 2;
+        List<Debt> allDebts = new ArrayList<>();
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        List<Payment> allPayments = new ArrayList<>();
+        for (int id = 0; id < debtCount; id++) {
+            allDebts.add(new Debt(id, 100.00 + id));
+            if (id % 2 == 0) {
+                allPaymentPlans.add(new PaymentPlan(id, id, 100.00 + id, InstallmentFrequency.WEEKLY, 25.0,
+                        LocalDate.of(2020, 1, 1)));
+                allPayments.add(new Payment(id, 30.00, LocalDate.of(2020, 1, 2)));
+            }
+        }
+        DebtAnalysisService debtAnalysisService = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments);
+        List<DebtInfo> expected = debtAnalysisService.generateDebtInfos();
+
+        // ACT
+        List<DebtInfo> debtInfos = IntStream.range(0, debtCount).parallel()
+                .mapToObj(debtAnalysisService::getDebtInfo)
+                .collect(Collectors.toList());
+
+        // ASSERT
+        for (int i = 0; i < debtCount; i++) {
+            assertEquals(expected.get(i).getRemainingAmount(), debtInfos.get(i).getRemainingAmount());
+            assertEquals(expected.get(i).getNextPaymentDueDate(), debtInfos.get(i).getNextPaymentDueDate());
+        }
+        assertEquals(debtCount, debtAnalysisService.debtInfoCacheStats().missCount());
+        assertTrue(debtAnalysisService.debtInfoCacheStats().evictionCount() >= debtCount / 2);
+    }
+}
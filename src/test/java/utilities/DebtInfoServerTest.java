@@ -0,0 +1,175 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import interfaces.DataRetriever;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DebtInfoServerTest {
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ChangingDataRetriever dataRetriever = new ChangingDataRetriever();
+    private DebtInfoServer server;
+
+    /**
+     * Runs before each test to start a server over two debts, one of them in a payment plan, that only refreshes when
+     * told to.
+     */
+    @BeforeEach
+    public void setUp() throws Exception {
+        dataRetriever.debts = List.of(new Debt(4, 800.00), new Debt(50, 1000.00));
+        dataRetriever.paymentPlans = List.of(
+                new PaymentPlan(1, 4, 800.00, InstallmentFrequency.WEEKLY, 200.0, LocalDate.of(2020, 10, 23)));
+        dataRetriever.payments = List.of(new Payment(1, 200.00, LocalDate.of(2020, 10, 23)));
+        server = new DebtInfoServer(dataRetriever, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                Duration.ofHours(1));
+    }
+
+    /**
+     * Runs after each test to stop the server.
+     */
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Ensure that every DebtInfo is served as a JSON array, in the order the debts were retrieved.
+     */
+    @Test
+    public void get_allDebtInfos() throws Exception {
+        // ACT
+        HttpResponse<String> response = get("debt_infos", null);
+
+        // ASSERT
+        assertEquals(200, response.statusCode());
+        assertEquals("[{\"amount\":800.0,\"id\":4,\"is_in_payment_plan\":true,"
+                + "\"next_payment_due_date\":\"2020-10-30T00:00:00Z\",\"remaining_amount\":600.0},"
+                + "{\"amount\":1000.0,\"id\":50,\"is_in_payment_plan\":false,"
+                + "\"next_payment_due_date\":null,\"remaining_amount\":1000.0}]", response.body());
+    }
+
+    /**
+     * Ensure that a single DebtInfo is served by debt id, and that unknown debts, bad ids, unknown paths, and other
+     * methods are answered with the matching status codes.
+     */
+    @Test
+    public void get_singleDebtInfo() throws Exception {
+        // ACT
+        HttpResponse<String> found = get("debt_infos/50", null);
+        HttpResponse<String> unknownDebt = get("debt_infos/51", null);
+        HttpResponse<String> badId = get("debt_infos/fifty", null);
+        HttpResponse<String> unknownPath = get("debts", null);
+        HttpResponse<String> post = httpClient.send(HttpRequest.newBuilder(URI.create(server.getRootUrl()
+                + "debt_infos/50")).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        // ASSERT
+        assertEquals(200, found.statusCode());
+        assertEquals("{\"amount\":1000.0,\"id\":50,\"is_in_payment_plan\":false,"
+                + "\"next_payment_due_date\":null,\"remaining_amount\":1000.0}", found.body());
+        assertEquals(404, unknownDebt.statusCode());
+        assertEquals(400, badId.statusCode());
+        assertEquals(404, unknownPath.statusCode());
+        assertEquals(405, post.statusCode());
+        assertEquals(1000.0, server.getDebtInfo(50).getRemainingAmount());
+        assertNull(server.getDebtInfo(51));
+    }
+
+    /**
+     * Ensure that a refresh swaps in the new data, and that a poller holding the old ETag is sent the new data while
+     * one holding the new ETag is told nothing has changed.
+     */
+    @Test
+    public void refresh_swapsSnapshot() throws Exception {
+        // ARRANGE
+        String oldETag = get("debt_infos", null).headers().firstValue("ETag").orElseThrow();
+        dataRetriever.payments = List.of(
+                new Payment(1, 200.00, LocalDate.of(2020, 10, 23)),
+                new Payment(1, 600.00, LocalDate.of(2020, 10, 30)));
+
+        // ACT
+        server.refresh();
+        HttpResponse<String> changed = get("debt_infos/4", oldETag);
+        String newETag = changed.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<String> unchanged = get("debt_infos/4", newETag);
+
+        // ASSERT
+        assertNotEquals(oldETag, newETag);
+        assertEquals(200, changed.statusCode());
+        assertEquals("{\"amount\":800.0,\"id\":4,\"is_in_payment_plan\":true,"
+                + "\"next_payment_due_date\":null,\"remaining_amount\":0.0}", changed.body());
+        assertEquals(304, unchanged.statusCode());
+        assertEquals("", unchanged.body());
+    }
+
+    /**
+     * Ensure that when a refresh fails, the data from the last successful refresh goes on being served.
+     */
+    @Test
+    public void refresh_failureKeepsSnapshot() throws Exception {
+        // ARRANGE
+        dataRetriever.failure = new ConnectException("refused");
+
+        // ACT && ASSERT
+        assertThrows(ConnectException.class, server::refresh);
+        assertEquals(2, server.getDebtInfos().size());
+        assertEquals(200, get("debt_infos/4", null).statusCode());
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(server.getRootUrl() + path));
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * A DataRetriever whose data can be changed, or made to fail, between refreshes.
+     */
+    private static class ChangingDataRetriever implements DataRetriever {
+        private volatile List<Debt> debts;
+        private volatile List<PaymentPlan> paymentPlans;
+        private volatile List<Payment> payments;
+        private volatile Exception failure;
+
+        @Override
+        public List<Debt> getAllDebts() throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+            return debts;
+        }
+
+        @Override
+        public List<PaymentPlan> getAllPaymentPlans() {
+            return paymentPlans;
+        }
+
+        @Override
+        public List<Payment> getAllPayments() {
+            return payments;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package utilities;
+
+import data.Debt;
+import data.DebtInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DebtInfoWriterTest {
+    /**
+     * Ensure that the writer renders exactly the same lines as DebtInfo.print, across amounts with and without
+     * fractions, amounts rendered in scientific notation, and dates on either side of the epoch and outside of four
+     * digit years.
+     */
+    @Test
+    public void writeAll_matchesPrint() throws IOException {
+        // ARRANGE
+        List<DebtInfo> debtInfos = new ArrayList<>();
+        debtInfos.add(new DebtInfo(new Debt(0, 123.46), true, 20.96, LocalDate.of(2020, 10, 12)));
+        debtInfos.add(new DebtInfo(new Debt(17, 37.50), false, 37.5, null));
+        debtInfos.add(new DebtInfo(new Debt(-3, 0.0), true, 0.0, null));
+        debtInfos.add(new DebtInfo(new Debt(4, 300.273), true, -0.0001, LocalDate.of(2021, 10, 23)));
+        debtInfos.add(new DebtInfo(new Debt(5, 12_345_678.9), false, 0.0005, LocalDate.of(1969, 12, 30)));
+        debtInfos.add(new DebtInfo(new Debt(Integer.MAX_VALUE, 9_999_999.9999), true, 1e-9, LocalDate.of(1970, 1, 1)));
+        debtInfos.add(new DebtInfo(new Debt(Integer.MIN_VALUE, -42.0), true, Math.PI, LocalDate.of(9999, 12, 31)));
+        debtInfos.add(new DebtInfo(new Debt(8, 1.0), true, -0.0, LocalDate.of(10000, 1, 1)));
+
+        Random random = new Random(20201012L);
+        for (int index = 0; index < 1_000; index++) {
+            long amountInMinorUnits = (long) (random.nextDouble() * 1e11);
+            long remainingInMinorUnits = random.nextInt(100_000_000) - 50_000_000;
+            long dueDate = (long) (random.nextDouble() * 2_000_000) - 500_000;
+            debtInfos.add(new DebtInfo(new Debt(random.nextInt(), amountInMinorUnits / 10_000.0), random.nextBoolean(),
+                    remainingInMinorUnits / 10_000.0, random.nextBoolean() ? LocalDate.ofEpochDay(dueDate) : null));
+        }
+
+        ByteArrayOutputStream writerOutput = new ByteArrayOutputStream();
+        DebtInfoWriter debtInfoWriter = new DebtInfoWriter(writerOutput, 64);
+
+        // ACT
+        debtInfoWriter.writeAll(debtInfos);
+        debtInfoWriter.flush();
+
+        // ASSERT
+        assertEquals(printAll(debtInfos), writerOutput.toString(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Ensure that nothing reaches the underlying stream until the buffer fills up or is flushed.
+     */
+    @Test
+    public void write_buffersUntilFlushed() throws IOException {
+        // ARRANGE
+        ByteArrayOutputStream writerOutput = new ByteArrayOutputStream();
+        DebtInfoWriter debtInfoWriter = new DebtInfoWriter(writerOutput);
+        DebtInfo debtInfo = new DebtInfo(new Debt(17, 37.50), false, 37.5, null);
+
+        // ACT
+        debtInfoWriter.write(debtInfo);
+        int bytesBeforeFlush = writerOutput.size();
+        debtInfoWriter.flush();
+
+        // ASSERT
+        assertEquals(0, bytesBeforeFlush);
+        assertEquals("id: 17, amount: 37.5, is_in_payment_plan: false, remaining_amount: 37.5, "
+                + "next_payment_due_date: null" + System.lineSeparator(),
+                writerOutput.toString(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Ensure that a writer can't be constructed with a buffer too small to hold a single value.
+     */
+    @Test
+    public void constructor_bufferTooSmall() {
+        // ACT && ASSERT
+        assertThrows(IllegalArgumentException.class, () -> new DebtInfoWriter(new ByteArrayOutputStream(), 8));
+    }
+
+    private static String printAll(List<DebtInfo> debtInfos) {
+        PrintStream standardOut = System.out;
+        ByteArrayOutputStream printOutput = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printOutput));
+        try {
+            debtInfos.forEach(DebtInfo::print);
+        } finally {
+            System.setOut(standardOut);
+        }
+        return printOutput.toString(StandardCharsets.US_ASCII);
+    }
+}
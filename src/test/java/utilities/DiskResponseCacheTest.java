@@ -0,0 +1,176 @@
+package utilities;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiskResponseCacheTest {
+    private static final URI DEBTS_URI = URI.create("http://localhost/debts");
+    private static final Instant NOW = Instant.parse("2020-10-23T12:00:00Z");
+
+    private Path directory;
+
+    /**
+     * Runs before each test to give it an empty cache directory.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("DiskResponseCacheTest");
+    }
+
+    /**
+     * Runs after each test to remove the cache directory and everything in it.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Ensure that a body read to the end is stored with its headers, and can be read back exactly as it was received.
+     */
+    @Test
+    public void store_bodyReadToEnd() throws IOException {
+        // ARRANGE
+        DiskResponseCache cache = cacheAt(NOW, Duration.ZERO);
+        byte[] body = "[{\"id\": 0, \"amount\": 123.46}]\n".getBytes(StandardCharsets.UTF_8);
+
+        // ACT
+        try (InputStream cachingBody = cache.store(DEBTS_URI, "\"v1\"", "Fri, 23 Oct 2020 12:00:00 GMT",
+                new ByteArrayInputStream(body))) {
+            cachingBody.readAllBytes();
+        }
+        DiskResponseCache.Entry entry = cache.lookup(DEBTS_URI);
+
+        // ASSERT
+        assertEquals("\"v1\"", entry.getEtag());
+        assertEquals("Fri, 23 Oct 2020 12:00:00 GMT", entry.getLastModified());
+        try (InputStream cachedBody = entry.openBody()) {
+            assertArrayEquals(body, cachedBody.readAllBytes());
+        }
+        assertNull(cache.lookup(URI.create("http://localhost/payments")));
+    }
+
+    /**
+     * Ensure that a body closed with only a short tail left unread, such as a JSON reader stopping at the closing
+     * bracket, is still stored in full.
+     */
+    @Test
+    public void store_shortUnreadTail() throws IOException {
+        // ARRANGE
+        DiskResponseCache cache = cacheAt(NOW, Duration.ZERO);
+        byte[] body = "[]\n\n".getBytes(StandardCharsets.UTF_8);
+
+        // ACT
+        try (InputStream cachingBody = cache.store(DEBTS_URI, null, null, new ByteArrayInputStream(body))) {
+            cachingBody.read(new byte[2]);
+        }
+
+        // ASSERT
+        try (InputStream cachedBody = cache.lookup(DEBTS_URI).openBody()) {
+            assertArrayEquals(body, cachedBody.readAllBytes());
+        }
+    }
+
+    /**
+     * Ensure that a body closed with a short tail left unread is not stored if the tail holds more than whitespace,
+     * since the reader stopped before the data did.
+     */
+    @Test
+    public void store_unreadDataNotStored() throws IOException {
+        // ARRANGE
+        DiskResponseCache cache = cacheAt(NOW, Duration.ZERO);
+        byte[] body = "[]\n[{\"id\": 0}]\n".getBytes(StandardCharsets.UTF_8);
+
+        // ACT
+        try (InputStream cachingBody = cache.store(DEBTS_URI, null, null, new ByteArrayInputStream(body))) {
+            cachingBody.read(new byte[2]);
+        }
+
+        // ASSERT
+        assertNull(cache.lookup(DEBTS_URI));
+    }
+
+    /**
+     * Ensure that an abandoned download doesn't replace the entry already in the cache, and leaves no files behind.
+     */
+    @Test
+    public void store_abandonedBodyKeepsExistingEntry() throws IOException {
+        // ARRANGE
+        DiskResponseCache cache = cacheAt(NOW, Duration.ZERO);
+        try (InputStream cachingBody = cache.store(DEBTS_URI, "\"v1\"", null,
+                new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)))) {
+            cachingBody.readAllBytes();
+        }
+
+        // ACT
+        try (InputStream cachingBody = cache.store(DEBTS_URI, "\"v2\"", null,
+                new ByteArrayInputStream(new byte[100_000]))) {
+            cachingBody.read(new byte[10]);
+        }
+
+        // ASSERT
+        DiskResponseCache.Entry entry = cache.lookup(DEBTS_URI);
+        assertEquals("\"v1\"", entry.getEtag());
+        try (InputStream cachedBody = entry.openBody()) {
+            assertArrayEquals("[]".getBytes(StandardCharsets.UTF_8), cachedBody.readAllBytes());
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    /**
+     * Ensure that an entry is fresh until it is older than the maximum staleness, and that revalidating it makes it
+     * fresh again.
+     */
+    @Test
+    public void isFresh_maxStaleness() throws IOException {
+        // ARRANGE
+        try (InputStream cachingBody = cacheAt(NOW, Duration.ZERO).store(DEBTS_URI, "\"v1\"", null,
+                new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)))) {
+            cachingBody.readAllBytes();
+        }
+        DiskResponseCache soonAfter = cacheAt(NOW.plusSeconds(60), Duration.ofMinutes(5));
+        DiskResponseCache longAfter = cacheAt(NOW.plusSeconds(600), Duration.ofMinutes(5));
+
+        // ACT
+        boolean freshSoonAfter = soonAfter.isFresh(soonAfter.lookup(DEBTS_URI));
+        boolean freshLongAfter = longAfter.isFresh(longAfter.lookup(DEBTS_URI));
+        longAfter.markRevalidated(longAfter.lookup(DEBTS_URI));
+
+        // ASSERT
+        assertTrue(freshSoonAfter);
+        assertFalse(freshLongAfter);
+        assertTrue(longAfter.isFresh(longAfter.lookup(DEBTS_URI)));
+        assertEquals("\"v1\"", longAfter.lookup(DEBTS_URI).getEtag());
+    }
+
+    private DiskResponseCache cacheAt(Instant now, Duration maxStaleness) throws IOException {
+        return new DiskResponseCache(directory, maxStaleness, false, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,99 @@
+package utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EpochDayParserTest {
+    /**
+     * Ensure that every day from year 1000 to 9999, including leap days, parses to the same epoch day java.time gives.
+     */
+    @Test
+    public void parseEpochDay_matchesLocalDate() throws ParseException {
+        // ARRANGE
+        LocalDate date = LocalDate.of(1000, 1, 1);
+        LocalDate end = LocalDate.of(9999, 12, 31);
+
+        // ACT && ASSERT
+        for (; !date.isAfter(end); date = date.plusDays(1)) {
+            assertEquals(date.toEpochDay(), EpochDayParser.parseEpochDay(date.toString()));
+        }
+    }
+
+    /**
+     * Ensure that every day of the years before 1000 parses to the same epoch day java.time gives, including January
+     * and February of year 0, which fall in the era before it.
+     */
+    @Test
+    public void parseEpochDay_earliestYears() throws ParseException {
+        // ARRANGE
+        LocalDate date = LocalDate.of(0, 1, 1);
+        LocalDate end = LocalDate.of(999, 12, 31);
+
+        // ACT && ASSERT
+        assertEquals(-719_528, EpochDayParser.parseEpochDay("0000-01-01"));
+        assertEquals(-719_468, EpochDayParser.parseEpochDay("0000-03-01"));
+        for (; !date.isAfter(end); date = date.plusDays(1)) {
+            assertEquals(date.toEpochDay(), EpochDayParser.parseEpochDay(date.toString()));
+        }
+    }
+
+    /**
+     * Ensure that ISO 8601 date-times resolve to the day the instant falls on in UTC, including offsets that move it
+     * onto the day before or after.
+     */
+    @Test
+    public void parseEpochDay_isoDateTime() throws ParseException {
+        // ARRANGE
+        String[] dateTimes = {
+                "2020-09-01T00:00:00Z",
+                "2020-09-01T23:59:59.999Z",
+                "2020-09-01T16:30Z",
+                "2020-09-01T20:00:00-05:00",
+                "2020-09-01T01:00:00+02:00",
+                "2020-09-01T01:00:00.5+0200",
+                "2020-12-31T22:00:00-03",
+                "2020-02-29T12:00:00+00:00"
+        };
+
+        // ACT && ASSERT
+        for (String dateTime : dateTimes) {
+            long expected = OffsetDateTime.parse(dateTime.replace("+0200", "+02:00").replace("-03", "-03:00"))
+                    .withOffsetSameInstant(ZoneOffset.UTC).toLocalDate().toEpochDay();
+            assertEquals(expected, EpochDayParser.parseEpochDay(dateTime), dateTime);
+        }
+    }
+
+    /**
+     * Ensure that malformed dates and dates that don't exist are rejected with a ParseException pointing at the
+     * offending character.
+     */
+    @Test
+    public void parseEpochDay_malformed() {
+        // ACT && ASSERT
+        assertEquals(4, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2020/09/01")).getErrorOffset());
+        assertEquals(8, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2021-02-29")).getErrorOffset());
+        assertEquals(5, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2020-13-01")).getErrorOffset());
+        assertEquals(9, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2020-09-1")).getErrorOffset());
+        assertEquals(10, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2020-09-01 00:00:00Z")).getErrorOffset());
+        assertEquals(19, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2020-09-01T00:00:00")).getErrorOffset());
+        assertEquals(11, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2020-09-01T24:00:00Z")).getErrorOffset());
+        assertEquals(20, assertThrows(ParseException.class,
+                () -> EpochDayParser.parseEpochDay("2020-09-01T00:00:00Zjunk")).getErrorOffset());
+        assertThrows(ParseException.class, () -> EpochDayParser.parseEpochDay(""));
+        assertThrows(ParseException.class, () -> EpochDayParser.parseEpochDay(null));
+    }
+}
@@ -0,0 +1,47 @@
+package utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FuturesTest {
+    /**
+     * Ensure that the first future to fail ends the wait straight away, without waiting out the deadline for the
+     * others, that its exception is thrown unwrapped, and that the others are cancelled.
+     */
+    @Test
+    public void awaitAll_failsFast() {
+        // ARRANGE
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        CompletableFuture<Void> failed = CompletableFuture.runAsync(() -> {
+            throw new CompletionException(new ConnectException("refused"));
+        });
+
+        // ACT && ASSERT
+        assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(ConnectException.class, () -> Futures.awaitAll(60, pending, failed)));
+        assertTrue(pending.isCancelled());
+    }
+
+    /**
+     * Ensure that futures still running when the deadline passes are cancelled.
+     */
+    @Test
+    public void awaitAll_timeoutCancels() {
+        // ARRANGE
+        CompletableFuture<Void> pending = new CompletableFuture<>();
+        CompletableFuture<Void> completed = CompletableFuture.completedFuture(null);
+
+        // ACT && ASSERT
+        assertThrows(TimeoutException.class, () -> Futures.awaitAll(0, pending, completed));
+        assertTrue(pending.isCancelled());
+    }
+}
@@ -0,0 +1,50 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import interfaces.DataRetriever;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class IOExecutorTest {
+    /**
+     * Ensure that a DataRetriever's default asynchronous retrievals run their blocking method on the IOExecutor pool,
+     * not on the common ForkJoinPool.
+     */
+    @Test
+    public void get_runsDefaultAsyncRetrievals() throws Exception {
+        // ARRANGE
+        Thread[] retrievingThread = new Thread[1];
+        DataRetriever dataRetriever = new DataRetriever() {
+            @Override
+            public List<Debt> getAllDebts() {
+                retrievingThread[0] = Thread.currentThread();
+                return List.of(new Debt(1, 10.00));
+            }
+
+            @Override
+            public List<PaymentPlan> getAllPaymentPlans() {
+                return List.of();
+            }
+
+            @Override
+            public List<Payment> getAllPayments() {
+                return List.of();
+            }
+        };
+
+        // ACT
+        List<Debt> debts = dataRetriever.getAllDebtsAsync().get();
+
+        // ASSERT
+        assertEquals(1, debts.size());
+        assertEquals("IOExecutor", retrievingThread[0].getName());
+        assertFalse(retrievingThread[0] instanceof ForkJoinWorkerThread);
+    }
+}
@@ -0,0 +1,147 @@
+package utilities;
+
+import data.Debt;
+import data.DebtInfo;
+import data.Payment;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalDebtAnalysisServiceTest {
+    @Test
+    public void constructor_nullAllPayments() {
+        // ACT && ASSERT
+        assertThrows(NullPointerException.class, () -> {
+            IncrementalDebtAnalysisService service = new IncrementalDebtAnalysisService(
+                    new ArrayList<>(), new ArrayList<>(), null);
+        });
+    }
+
+    /**
+     * Ensure that records added one at a time, with debts, plans, and payments interleaved in a random order, end up
+     * with the same metadata DebtAnalysisService computes from all of them at once.
+     */
+    @Test
+    public void snapshot_shuffledAdditionsMatchDebtAnalysisService() {
+        // ARRANGE
+        List<Debt> allDebts = new ArrayList<>();
+        List<PaymentPlan> allPaymentPlans = new ArrayList<>();
+        List<Payment> allPayments = new ArrayList<>();
+        for (int id = 0; id < 300; id++) {
+            allDebts.add(new Debt(id, 1000.00 + id));
+            if (id % 3 != 0) {
+                allPaymentPlans.add(new PaymentPlan(id,
+                        id,
+                        1000.00 + id,
+                        id % 2 == 0 ? InstallmentFrequency.WEEKLY : InstallmentFrequency.BI_WEEKLY,
+                        100.00,
+                        LocalDate.of(2020, 10, 23))); // 10/23/2020
+                for (int paymentNumber = 0; paymentNumber < id % 13; paymentNumber++) {
+                    double amount = paymentNumber == 2 && id % 5 == 0 ? -50.00 : 95.50;
+                    allPayments.add(new Payment(id, amount, LocalDate.of(2020, 10, 23))); // 10/23/2020
+                }
+            }
+        }
+        // Debts of nothing or less, with and without payments, in payment plans.
+        allDebts.add(new Debt(300, 0.00));
+        allDebts.add(new Debt(301, 0.00));
+        allDebts.add(new Debt(302, -5.00));
+        allDebts.add(new Debt(303, -5.00));
+        for (int id = 300; id <= 303; id++) {
+            allPaymentPlans.add(new PaymentPlan(id, id, 100.00, InstallmentFrequency.WEEKLY, 25.00,
+                    LocalDate.of(2020, 1, 1))); // 1/1/2020
+        }
+        allPayments.add(new Payment(301, -10.00, LocalDate.of(2020, 1, 1))); // 1/1/2020
+        allPayments.add(new Payment(303, -10.00, LocalDate.of(2020, 1, 1))); // 1/1/2020
+        List<DebtInfo> expected = new DebtAnalysisService(allDebts, allPaymentPlans, allPayments).generateDebtInfos();
+
+        // Payments are shuffled among the other records, but keep their order relative to each other.
+        List<Runnable> additions = new ArrayList<>();
+        IncrementalDebtAnalysisService service = new IncrementalDebtAnalysisService();
+        allDebts.forEach(debt -> additions.add(() -> service.addDebt(debt)));
+        allPaymentPlans.forEach(paymentPlan -> additions.add(() -> service.addPaymentPlan(paymentPlan)));
+        Collections.shuffle(additions, new Random(42));
+        Random random = new Random(7);
+        int index = additions.size() / 2;
+        for (Payment payment : allPayments) {
+            index += random.nextInt(Math.min(3, additions.size() - index + 1));
+            additions.add(index++, () -> service.addPayment(payment));
+        }
+
+        // ACT
+        additions.forEach(Runnable::run);
+        List<DebtInfo> actual = service.snapshot();
+
+        // ASSERT
+        assertEquals(expected.size(), actual.size());
+        for (DebtInfo expectedDebtInfo : expected) {
+            DebtInfo actualDebtInfo = service.getDebtInfo(expectedDebtInfo.getDebt().getId());
+            assertEquals(expectedDebtInfo.getIsInPaymentPlan(), actualDebtInfo.getIsInPaymentPlan());
+            assertEquals(expectedDebtInfo.getRemainingAmount(), actualDebtInfo.getRemainingAmount());
+            assertEquals(expectedDebtInfo.getNextPaymentDueDate(), actualDebtInfo.getNextPaymentDueDate());
+        }
+    }
+
+    /**
+     * Ensure that a payment updates the metadata of its debt, and that a snapshot taken before it is left unchanged.
+     */
+    @Test
+    public void addPayment_updatesDebtButNotEarlierSnapshot() {
+        // ARRANGE
+        Debt debt = new Debt(4, 800.00);
+        IncrementalDebtAnalysisService service = new IncrementalDebtAnalysisService(
+                Collections.singletonList(debt),
+                Collections.singletonList(new PaymentPlan(1,
+                        4,
+                        800.00,
+                        InstallmentFrequency.WEEKLY,
+                        200.00,
+                        LocalDate.of(2020, 10, 23))), // 10/23/2020
+                Collections.singletonList(new Payment(1, 200.00, LocalDate.of(2020, 10, 23)))); // 10/23/2020
+        List<DebtInfo> before = service.snapshot();
+
+        // ACT
+        service.addPayment(new Payment(1, 600.00, LocalDate.of(2020, 10, 30))); // 10/30/2020, fully paid
+        List<DebtInfo> after = service.snapshot();
+
+        // ASSERT
+        assertEquals(600.00, before.get(0).getRemainingAmount());
+        assertEquals(LocalDate.of(2020, 10, 30), before.get(0).getNextPaymentDueDate()); // 10/30/2020
+        assertEquals(0.0, after.get(0).getRemainingAmount());
+        assertNull(after.get(0).getNextPaymentDueDate());
+        assertTrue(after.get(0).getIsInPaymentPlan());
+        assertEquals(after.get(0).getRemainingAmount(), service.getDebtInfo(4).getRemainingAmount());
+    }
+
+    /**
+     * Ensure that a debt without a payment plan is reported as such, and that unknown debts have no metadata.
+     */
+    @Test
+    public void getDebtInfo_noPaymentPlanAndUnknownDebt() {
+        // ARRANGE
+        IncrementalDebtAnalysisService service = new IncrementalDebtAnalysisService();
+
+        // ACT
+        service.addPayment(new Payment(9, 100.00, LocalDate.of(2020, 10, 23))); // 10/23/2020
+        service.addDebt(new Debt(12, 250.00));
+
+        // ASSERT
+        assertFalse(service.getDebtInfo(12).getIsInPaymentPlan());
+        assertEquals(250.00, service.getDebtInfo(12).getRemainingAmount());
+        assertNull(service.getDebtInfo(12).getNextPaymentDueDate());
+        assertNull(service.getDebtInfo(13));
+        assertEquals(1, service.snapshot().size());
+    }
+}
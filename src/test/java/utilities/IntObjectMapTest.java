@@ -0,0 +1,62 @@
+package utilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IntObjectMapTest {
+    /**
+     * Ensure that values can be found again after the map has grown well past its initial capacity.
+     */
+    @Test
+    public void get_afterManyResizes() {
+        // ARRANGE
+        IntObjectMap<String> map = new IntObjectMap<>(1);
+
+        // ACT
+        for (int key = -500; key < 500; key++) {
+            map.put(key * 31, "value" + key);
+        }
+
+        // ASSERT
+        assertEquals(1000, map.size());
+        for (int key = -500; key < 500; key++) {
+            assertEquals("value" + key, map.get(key * 31));
+        }
+        assertNull(map.get(1));
+    }
+
+    /**
+     * Ensure that putIfAbsent keeps the first value stored against a key, while put replaces it.
+     */
+    @Test
+    public void putIfAbsent_keepsFirstValue() {
+        // ARRANGE
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        // ACT
+        map.putIfAbsent(42, "first");
+        String existing = map.putIfAbsent(42, "second");
+
+        // ASSERT
+        assertEquals("first", existing);
+        assertEquals("first", map.get(42));
+        assertEquals("first", map.put(42, "third"));
+        assertEquals("third", map.get(42));
+        assertEquals(1, map.size());
+    }
+
+    /**
+     * Ensure that null values are rejected, since they are used to mark empty slots.
+     */
+    @Test
+    public void put_nullValue() {
+        // ARRANGE
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        // ACT && ASSERT
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+}
@@ -0,0 +1,94 @@
+package utilities;
+
+import org.json.JSONException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+public class JSONArrayStreamReaderTest {
+    private static InputStream streamOf(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ensure that every element of an array is decoded, in order.
+     */
+    @Test
+    public void readAll_baseCase() throws ParseException {
+        // ARRANGE
+        JSONArrayStreamReader<Integer> reader = new JSONArrayStreamReader<>(
+                streamOf(" [ {\"id\": 3}, {\"id\": 1},\n{\"id\": 2} ] "),
+                json -> json.getInt("id"));
+
+        // ACT
+        List<Integer> ids = reader.readAll();
+
+        // ASSERT
+        assertEquals(Arrays.asList(3, 1, 2), ids);
+        assertFalse(reader.hasNext());
+    }
+
+    /**
+     * Ensure that elements are handed out one at a time, so a caller can stop reading part way through.
+     */
+    @Test
+    public void next_oneElementAtATime() throws ParseException {
+        // ARRANGE
+        JSONArrayStreamReader<String> reader = new JSONArrayStreamReader<>(
+                streamOf("[{\"name\": \"first\"}, {\"name\": \"second\"}]"),
+                json -> json.getString("name"));
+
+        // ACT && ASSERT
+        assertTrue(reader.hasNext());
+        assertEquals("first", reader.next());
+        assertTrue(reader.hasNext());
+        assertEquals("second", reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    /**
+     * Ensure that an empty array has no elements.
+     */
+    @Test
+    public void readAll_emptyArray() throws ParseException {
+        // ARRANGE
+        JSONArrayStreamReader<Integer> reader = new JSONArrayStreamReader<>(streamOf("[ ]"), json -> json.getInt("id"));
+
+        // ACT && ASSERT
+        assertTrue(reader.readAll().isEmpty());
+    }
+
+    /**
+     * Ensure that a body that is not an array is rejected.
+     */
+    @Test
+    public void constructor_notAnArray() {
+        assertThrows(JSONException.class, () -> {
+            JSONArrayStreamReader<Integer> reader = new JSONArrayStreamReader<>(
+                    streamOf("{\"id\": 1}"), json -> json.getInt("id"));
+        });
+    }
+
+    /**
+     * Ensure that a missing separator between elements is rejected.
+     */
+    @Test
+    public void readAll_missingSeparator() {
+        // ARRANGE
+        JSONArrayStreamReader<Integer> reader = new JSONArrayStreamReader<>(
+                streamOf("[{\"id\": 1} {\"id\": 2}]"), json -> json.getInt("id"));
+
+        // ACT && ASSERT
+        assertThrows(JSONException.class, reader::readAll);
+    }
+}
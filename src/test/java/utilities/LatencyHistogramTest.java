@@ -0,0 +1,77 @@
+package utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LatencyHistogramTest {
+    /**
+     * Ensure that every value falls in a bucket whose bounds contain it, and that the bounds are no more than 12.5%
+     * apart, across the whole range of longs.
+     */
+    @Test
+    public void bucketOf_boundsContainValue() {
+        // ARRANGE
+        Random random = new Random(11);
+
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong() >>> (1 + random.nextInt(63));
+
+            // ACT
+            int bucket = LatencyHistogram.bucketOf(value);
+
+            // ASSERT
+            long upperBound = LatencyHistogram.upperBoundOf(bucket);
+            long lowerBound = bucket == 0 ? 0 : LatencyHistogram.upperBoundOf(bucket - 1) + 1;
+            assertTrue(lowerBound <= value && value <= upperBound, value + " not in bucket " + bucket);
+            assertTrue(upperBound - lowerBound <= Math.max(lowerBound / 8, 0), "bucket " + bucket + " too wide");
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Ensure that percentiles are reported to within a bucket of the exact value, and never above the maximum.
+     */
+    @Test
+    public void getPercentile_withinBucketOfExact() {
+        // ARRANGE
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        // ACT
+        long median = histogram.getPercentile(0.5);
+        long p99 = histogram.getPercentile(0.99);
+        long max = histogram.getPercentile(1);
+
+        // ASSERT
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(500_500.0, histogram.getMean());
+        assertTrue(median >= 500_000 && median <= 500_000 * 1.125, "median was " + median);
+        assertTrue(p99 >= 990_000 && p99 <= 990_000 * 1.125, "p99 was " + p99);
+        assertEquals(1_000_000, max);
+        assertEquals(1_000_000, histogram.getMax());
+    }
+
+    /**
+     * Ensure that an empty histogram reports zeros, and that negative values and fractions are handled.
+     */
+    @Test
+    public void record_edgeCases() {
+        // ARRANGE
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // ACT && ASSERT
+        assertEquals(0, histogram.getPercentile(0.5));
+        assertEquals(0.0, histogram.getMean());
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentile(1));
+        assertEquals(1, histogram.getCount());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(1.5));
+    }
+}
@@ -0,0 +1,157 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import org.json.JSONException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedFileDataRetrieverTest {
+    private Path directory;
+
+    /**
+     * Runs before each test to give it an empty directory to write files to.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("MappedFileDataRetrieverTest");
+    }
+
+    /**
+     * Runs after each test to remove the directory and everything in it.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Ensure that files in the format the API returns are read into the same data objects the API retriever gives.
+     */
+    @Test
+    public void getAll_jsonArrays() throws IOException, ParseException {
+        // ARRANGE
+        MappedFileDataRetriever retriever = new MappedFileDataRetriever(
+                write("debts.json", "[{\"amount\":123.46,\"id\":0},{\"amount\":100,\"id\":1}]"),
+                write("payment_plans.json", "[{\"amount_to_pay\":102.5,\"debt_id\":0,\"id\":0,"
+                        + "\"installment_amount\":51.25,\"installment_frequency\":\"WEEKLY\","
+                        + "\"start_date\":\"2020-09-28\"}]\n"),
+                write("payments.json", "[\n  {\"amount\": 51.25, \"date\": \"2020-09-29\", \"payment_plan_id\": 0},\n"
+                        + "  {\"amount\": 1e1, \"date\": \"2020-10-29T23:00:00-05:00\", \"payment_plan_id\": 0}\n]"));
+
+        // ACT
+        List<Debt> debts = retriever.getAllDebts();
+        List<PaymentPlan> paymentPlans = retriever.getAllPaymentPlans();
+        List<Payment> payments = retriever.getAllPayments();
+
+        // ASSERT
+        assertEquals(2, debts.size());
+        assertEquals(0, debts.get(0).getId());
+        assertEquals(123.46, debts.get(0).getAmount());
+        assertEquals(100.0, debts.get(1).getAmount());
+        assertEquals(1, paymentPlans.size());
+        assertEquals(102.5, paymentPlans.get(0).getAmountToPay());
+        assertEquals(InstallmentFrequency.WEEKLY, paymentPlans.get(0).getInstallmentFrequency());
+        assertEquals(51.25, paymentPlans.get(0).getInstallmentAmount());
+        assertEquals(LocalDate.of(2020, 9, 28), paymentPlans.get(0).getStartDate()); // 9/28/2020
+        assertEquals(2, payments.size());
+        assertEquals(51.25, payments.get(0).getAmount());
+        assertEquals(10.0, payments.get(1).getAmount());
+        assertEquals(LocalDate.of(2020, 10, 30), payments.get(1).getDate()); // 10/30/2020 in UTC
+    }
+
+    /**
+     * Ensure that files split into many small chunks, in both formats, are read completely and in order, including
+     * when string values hold characters that look like the end of a record.
+     */
+    @Test
+    public void getAllDebts_splitAcrossChunks() throws IOException, ParseException {
+        // ARRANGE
+        StringBuilder array = new StringBuilder("[");
+        StringBuilder lines = new StringBuilder();
+        for (int id = 0; id < 2_000; id++) {
+            String record = "{\"id\": " + id + ", \"note\": \"},{\\\"id\\\": -1}\\n\", \"tags\": [{\"a\": [1, 2]}],"
+                    + " \"amount\": " + id + ".25}";
+            array.append(id == 0 ? "" : ",\n").append(record);
+            lines.append(record).append('\n');
+        }
+        array.append(']');
+        Path arrayFile = write("debts.json", array.toString());
+        Path linesFile = write("debts.ndjson", lines.toString());
+
+        // ACT
+        List<Debt> fromArray = new MappedFileDataRetriever(arrayFile, arrayFile, arrayFile, 7, 64).getAllDebts();
+        List<Debt> fromLines = new MappedFileDataRetriever(linesFile, linesFile, linesFile, 7, 64).getAllDebts();
+
+        // ASSERT
+        assertEquals(2_000, fromArray.size());
+        assertEquals(2_000, fromLines.size());
+        for (int id = 0; id < 2_000; id++) {
+            assertEquals(id, fromArray.get(id).getId());
+            assertEquals(id + 0.25, fromArray.get(id).getAmount());
+            assertEquals(id, fromLines.get(id).getId());
+            assertEquals(id + 0.25, fromLines.get(id).getAmount());
+        }
+    }
+
+    /**
+     * Ensure that malformed files, records missing a field, and invalid dates are reported.
+     */
+    @Test
+    public void getAll_malformed() throws IOException {
+        // ARRANGE
+        Path truncated = write("truncated.json", "[{\"id\": 0, \"amount\": 1");
+        Path missingField = write("missing.json", "[{\"id\": 0}]");
+        Path notJson = write("text.json", "id,amount\n0,1\n");
+        Path badDate = write("payments.json", "[{\"payment_plan_id\": 0, \"amount\": 1, \"date\": \"2021-02-29\"}]");
+
+        // ACT && ASSERT
+        assertThrows(JSONException.class,
+                () -> new MappedFileDataRetriever(truncated, truncated, truncated).getAllDebts());
+        JSONException missing = assertThrows(JSONException.class,
+                () -> new MappedFileDataRetriever(missingField, missingField, missingField).getAllDebts());
+        assertTrue(missing.getMessage().contains("\"amount\""));
+        assertThrows(JSONException.class, () -> new MappedFileDataRetriever(notJson, notJson, notJson).getAllDebts());
+        assertThrows(ParseException.class,
+                () -> new MappedFileDataRetriever(badDate, badDate, badDate).getAllPayments());
+    }
+
+    /**
+     * Ensure that an empty file, or an empty array, holds no records.
+     */
+    @Test
+    public void getAllDebts_empty() throws IOException, ParseException {
+        // ARRANGE
+        Path empty = write("empty.json", "");
+        Path emptyArray = write("empty_array.json", " [ ]\n");
+
+        // ACT && ASSERT
+        assertTrue(new MappedFileDataRetriever(empty, empty, empty).getAllDebts().isEmpty());
+        assertTrue(new MappedFileDataRetriever(emptyArray, emptyArray, emptyArray).getAllDebts().isEmpty());
+    }
+
+    private Path write(String fileName, String contents) throws IOException {
+        return Files.write(directory.resolve(fileName), contents.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,147 @@
+package utilities;
+
+import data.Debt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MockPaymentsServerTest {
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private MockPaymentsServer server;
+
+    /**
+     * Runs before each test to start a server with 25 debts and nothing else.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        List<Debt> debts = new ArrayList<>();
+        for (int id = 0; id < 25; id++) {
+            debts.add(new Debt(id, id + 0.5));
+        }
+        server = new MockPaymentsServer(debts, List.of(), List.of());
+    }
+
+    /**
+     * Runs after each test to stop the server.
+     */
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Ensure that pages are sliced as requested, that the maximum page size caps them, and that the size of the whole
+     * collection is reported either way.
+     */
+    @Test
+    public void get_pagination() throws Exception {
+        // ACT
+        HttpResponse<String> thirdPage = get("debts?_page=3&_limit=10");
+        HttpResponse<String> pastTheEnd = get("debts?_page=4&_limit=10");
+        server.setMaxPageSize(2);
+        HttpResponse<String> capped = get("debts");
+
+        // ASSERT
+        assertEquals(200, thirdPage.statusCode());
+        assertEquals("[{\"amount\":20.5,\"id\":20},{\"amount\":21.5,\"id\":21},{\"amount\":22.5,\"id\":22},"
+                + "{\"amount\":23.5,\"id\":23},{\"amount\":24.5,\"id\":24}]", thirdPage.body());
+        assertEquals("25", thirdPage.headers().firstValue("X-Total-Count").orElse(null));
+        assertEquals("[]", pastTheEnd.body());
+        assertEquals("[{\"amount\":0.5,\"id\":0},{\"amount\":1.5,\"id\":1}]", capped.body());
+        assertEquals("25", capped.headers().firstValue("X-Total-Count").orElse(null));
+    }
+
+    /**
+     * Ensure that unknown paths, bad page numbers, and injected errors are answered with the matching status codes.
+     */
+    @Test
+    public void get_errors() throws Exception {
+        // ACT
+        int unknownPath = get("creditors").statusCode();
+        int badPage = get("debts?_page=0&_limit=10").statusCode();
+        server.setErrorRate(1);
+        int injectedError = get("debts").statusCode();
+
+        // ASSERT
+        assertEquals(404, unknownPath);
+        assertEquals(400, badPage);
+        assertEquals(503, injectedError);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    /**
+     * Ensure that collections are filtered on their id fields before paging, and that the total counts only the
+     * records that matched.
+     */
+    @Test
+    public void get_filtering() throws Exception {
+        // ACT
+        HttpResponse<String> filtered = get("debts?id=3&id=5&id=99");
+        HttpResponse<String> filteredPage = get("debts?id=3&id=5&_limit=1");
+        int unknownField = get("debts?amount=1.5").statusCode();
+        int badValue = get("debts?id=three").statusCode();
+
+        // ASSERT
+        assertEquals("[{\"amount\":3.5,\"id\":3},{\"amount\":5.5,\"id\":5}]", filtered.body());
+        assertEquals("2", filtered.headers().firstValue("X-Total-Count").orElse(null));
+        assertEquals("[{\"amount\":3.5,\"id\":3}]", filteredPage.body());
+        assertEquals("2", filteredPage.headers().firstValue("X-Total-Count").orElse(null));
+        assertEquals(400, unknownField);
+        assertEquals(400, badValue);
+    }
+
+    /**
+     * Ensure that responses are delayed by the latency, and written no faster than the bandwidth limit.
+     */
+    @Test
+    public void get_latencyAndBandwidth() throws Exception {
+        // ARRANGE
+        int bodyLength = get("debts").body().length();
+
+        // ACT
+        server.setLatencyMillis(200, 200);
+        long latencyStart = System.nanoTime();
+        get("debts");
+        long latencyMillis = (System.nanoTime() - latencyStart) / 1_000_000;
+
+        server.setLatencyMillis(0, 0);
+        server.setBandwidthBytesPerSecond(bodyLength * 4L);
+        long bandwidthStart = System.nanoTime();
+        String body = get("debts").body();
+        long bandwidthMillis = (System.nanoTime() - bandwidthStart) / 1_000_000;
+
+        // ASSERT
+        assertTrue(latencyMillis >= 200, "took " + latencyMillis + "ms");
+        assertEquals(bodyLength, body.length());
+        assertTrue(bandwidthMillis >= 200, "took " + bandwidthMillis + "ms");
+    }
+
+    /**
+     * Ensure that settings that make no sense are refused.
+     */
+    @Test
+    public void setters_invalidSettings() {
+        // ACT && ASSERT
+        assertThrows(IllegalArgumentException.class, () -> server.setLatencyMillis(10, 5));
+        assertThrows(IllegalArgumentException.class, () -> server.setBandwidthBytesPerSecond(-1));
+        assertThrows(IllegalArgumentException.class, () -> server.setErrorRate(1.5));
+        assertThrows(IllegalArgumentException.class, () -> server.setMaxPageSize(-1));
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.getRootUrl() + path)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,171 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentPlan;
+import interfaces.Distribution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PortfolioGeneratorTest {
+    private Path directory;
+
+    /**
+     * Runs before each test to give it an empty directory to write files to.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("PortfolioGeneratorTest");
+    }
+
+    /**
+     * Runs after each test to remove the directory and everything in it.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Ensure that the same seed always generates the same portfolio, and a different seed a different one.
+     */
+    @Test
+    public void generate_reproducibleFromSeed() {
+        // ACT
+        PortfolioGenerator.Portfolio first = new PortfolioGenerator(42).generate(500);
+        PortfolioGenerator.Portfolio second = new PortfolioGenerator(42).generate(500);
+        PortfolioGenerator.Portfolio other = new PortfolioGenerator(43).generate(500);
+
+        // ASSERT
+        assertEquals(500, first.getAllDebts().size());
+        assertTrue(first.getAllPaymentPlans().size() > 0);
+        assertTrue(first.getAllPayments().size() > 0);
+        assertEquals(describe(first), describe(second));
+        assertNotEquals(describe(first), describe(other));
+    }
+
+    /**
+     * Ensure that a portfolio written as JSON reads back as exactly the portfolio generated into memory.
+     */
+    @Test
+    public void writeJson_matchesGenerate() throws IOException, ParseException {
+        // ARRANGE
+        PortfolioGenerator generator = new PortfolioGenerator(7);
+
+        // ACT
+        generator.writeJson(2_000, directory);
+        MappedFileDataRetriever retriever = new MappedFileDataRetriever(
+                directory.resolve(PortfolioGenerator.DEBTS_FILE),
+                directory.resolve(PortfolioGenerator.PAYMENT_PLANS_FILE),
+                directory.resolve(PortfolioGenerator.PAYMENTS_FILE));
+        List<String> written = describe(retriever.getAllDebts(), retriever.getAllPaymentPlans(),
+                retriever.getAllPayments());
+
+        // ASSERT
+        assertEquals(describe(generator.generate(2_000)), written);
+    }
+
+    /**
+     * Ensure that the probabilities are respected at their extremes: no plans, or plans whose payments are all missed.
+     */
+    @Test
+    public void generate_probabilityExtremes() {
+        // ARRANGE
+        PortfolioGenerator noPlans = new PortfolioGenerator(1, Distribution.constant(100), 0, 0.5,
+                Distribution.constant(0.1), Distribution.constant(10), 0, Distribution.constant(1), 0);
+        PortfolioGenerator allMissed = new PortfolioGenerator(1, Distribution.constant(100), 1, 1,
+                Distribution.constant(0.1), Distribution.constant(10), 0, Distribution.constant(1), 1);
+
+        // ACT
+        PortfolioGenerator.Portfolio withoutPlans = noPlans.generate(100);
+        PortfolioGenerator.Portfolio withoutPayments = allMissed.generate(100);
+
+        // ASSERT
+        assertEquals(100, withoutPlans.getAllDebts().size());
+        assertTrue(withoutPlans.getAllPaymentPlans().isEmpty());
+        assertTrue(withoutPlans.getAllPayments().isEmpty());
+        assertEquals(100, withoutPayments.getAllPaymentPlans().size());
+        assertTrue(withoutPayments.getAllPayments().isEmpty());
+    }
+
+    /**
+     * Ensure that payments, lump sums included, stop once a debt is paid off and never pay more than it is worth.
+     */
+    @Test
+    public void generate_neverOverpaysDebt() {
+        // ARRANGE
+        PortfolioGenerator generator = new PortfolioGenerator(3, Distribution.uniform(10, 1_000), 1, 0.5,
+                Distribution.uniform(0.1, 0.3), Distribution.constant(50), 0.5, Distribution.uniform(2, 10), 0.1);
+
+        // ACT
+        PortfolioGenerator.Portfolio portfolio = generator.generate(1_000);
+
+        // ASSERT
+        Map<Integer, Double> totalsByPaymentPlanId = new HashMap<>();
+        for (Payment payment : portfolio.getAllPayments()) {
+            totalsByPaymentPlanId.merge(payment.getPaymentPlanId(), payment.getAmount(), Double::sum);
+        }
+        int paidOff = 0;
+        for (PaymentPlan paymentPlan : portfolio.getAllPaymentPlans()) {
+            double total = totalsByPaymentPlanId.getOrDefault(paymentPlan.getId(), 0.0);
+            assertTrue(total <= paymentPlan.getAmountToPay() + 0.001);
+            if (Math.abs(total - paymentPlan.getAmountToPay()) < 0.001) {
+                paidOff++;
+            }
+        }
+        assertTrue(paidOff > 0);
+    }
+
+    /**
+     * Ensure that settings that cannot generate a portfolio are refused.
+     */
+    @Test
+    public void constructor_invalidSettings() {
+        // ACT && ASSERT
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioGenerator(1, Distribution.constant(100), 1.5,
+                0.5, Distribution.constant(0.1), Distribution.constant(10), 0, Distribution.constant(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioGenerator(1, Distribution.constant(100), 0.5,
+                0.5, Distribution.constant(0.1), Distribution.constant(10), 0, Distribution.constant(1), Double.NaN));
+        assertThrows(NullPointerException.class, () -> new PortfolioGenerator(1, null, 0.5,
+                0.5, Distribution.constant(0.1), Distribution.constant(10), 0, Distribution.constant(1), 0));
+        assertThrows(IllegalArgumentException.class, () -> Distribution.uniform(2, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioGenerator(1).generate(-1));
+    }
+
+    private static List<String> describe(PortfolioGenerator.Portfolio portfolio) {
+        return describe(portfolio.getAllDebts(), portfolio.getAllPaymentPlans(), portfolio.getAllPayments());
+    }
+
+    private static List<String> describe(List<Debt> debts, List<PaymentPlan> paymentPlans, List<Payment> payments) {
+        return Stream.of(
+                debts.stream().map(debt -> debt.getId() + " " + debt.getAmount()),
+                paymentPlans.stream().map(paymentPlan -> paymentPlan.getId() + " " + paymentPlan.getDebtId() + " "
+                        + paymentPlan.getAmountToPay() + " " + paymentPlan.getInstallmentFrequency() + " "
+                        + paymentPlan.getInstallmentAmount() + " " + paymentPlan.getStartDate()),
+                payments.stream().map(payment -> payment.getPaymentPlanId() + " " + payment.getAmount() + " "
+                        + payment.getDate()))
+                .flatMap(lines -> lines)
+                .collect(Collectors.toList());
+    }
+}
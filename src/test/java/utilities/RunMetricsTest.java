@@ -0,0 +1,105 @@
+package utilities;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RunMetricsTest {
+    /**
+     * Ensure that recorded metrics are added up per endpoint, and reported in the summary.
+     */
+    @Test
+    public void getSummary_reportsRecordedMetrics() {
+        // ARRANGE
+        RunMetrics metrics = new RunMetrics();
+
+        // ACT
+        metrics.recordRequest("debts", 2_000_000);
+        metrics.recordRequest("debts", 3_000_000);
+        metrics.recordFailedRequest("debts");
+        metrics.recordUnpack("debts", 1_000_000, 10, 200);
+        metrics.recordIndexing(4_000_000, 3, 7, 2);
+        metrics.recordDebt(1_000, 1);
+        metrics.recordDebt(3_000, 0);
+        metrics.recordFailure(new ConnectException("refused"));
+        String summary = metrics.getSummary();
+
+        // ASSERT
+        assertEquals(Map.of("debts", 2L), metrics.getRequestCounts());
+        assertEquals(Map.of("debts", 1L), metrics.getFailedRequestCounts());
+        assertEquals(Map.of("debts", 5L), metrics.getFetchMillis());
+        assertEquals(Map.of("debts", 200L), metrics.getResponseBytes());
+        assertEquals(Map.of("debts", 10L), metrics.getRecordCounts());
+        assertEquals(2, metrics.getDebtCount());
+        assertEquals(2, metrics.getOrphanedPaymentPlanCount());
+        assertEquals(4, metrics.getIndexingMillis());
+        assertEquals(0, metrics.getTotalDebtEvaluationMillis());
+        assertEquals(2, metrics.getOrphanedPaymentCount());
+        assertEquals(2_000.0, metrics.getDebtLatencyMeanNanos());
+        assertEquals(3_000, metrics.getDebtLatencyMaxNanos());
+        assertTrue(summary.contains("debts: 2 requests (1 failed), 200 bytes, fetch 5 ms, unpack 1 ms, 10 records"),
+                summary);
+        assertTrue(summary.contains("2 debts, 3 payment plans (2 orphaned), 7 payments (2 orphaned)"), summary);
+        assertTrue(summary.contains("failed: java.net.ConnectException: refused"), summary);
+    }
+
+    /**
+     * Ensure that output written through timeOutput reaches the underlying stream and is counted.
+     */
+    @Test
+    public void timeOutput_countsBytes() throws IOException {
+        // ARRANGE
+        RunMetrics metrics = new RunMetrics();
+        ByteArrayOutputStream destination = new ByteArrayOutputStream();
+
+        // ACT
+        OutputStream output = metrics.timeOutput(destination);
+        output.write("hello\n".getBytes(StandardCharsets.US_ASCII));
+        output.write('!');
+        output.flush();
+
+        // ASSERT
+        assertEquals("hello\n!", destination.toString(StandardCharsets.US_ASCII));
+        assertEquals(7, metrics.getOutputBytes());
+    }
+
+    /**
+     * Ensure that registered metrics can be read over JMX, and that registering again replaces the old metrics.
+     */
+    @Test
+    public void register_readableOverJmx() throws Exception {
+        // ARRANGE
+        RunMetrics first = new RunMetrics();
+        RunMetrics second = new RunMetrics();
+        second.recordRequest("payments", 1_000_000);
+        second.recordDebt(500, 1);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(RunMetrics.OBJECT_NAME);
+
+        try {
+            // ACT
+            first.register();
+            second.register();
+
+            // ASSERT
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "DebtCount"));
+            TabularData requestCounts = (TabularData) mBeanServer.getAttribute(objectName, "RequestCounts");
+            assertEquals(1, requestCounts.size());
+            assertTrue(((String) mBeanServer.getAttribute(objectName, "Summary")).startsWith("Run summary"));
+        } finally {
+            mBeanServer.unregisterMBean(objectName);
+        }
+    }
+}
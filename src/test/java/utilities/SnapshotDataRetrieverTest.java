@@ -0,0 +1,207 @@
+package utilities;
+
+import data.Debt;
+import data.Payment;
+import data.PaymentColumns;
+import data.PaymentPlan;
+import enums.InstallmentFrequency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SnapshotDataRetrieverTest {
+    private Path directory;
+    private List<Debt> debts;
+    private List<PaymentPlan> paymentPlans;
+    private List<Payment> payments;
+
+    /**
+     * Runs before each test to give it an empty directory, and a small portfolio to write to it.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("SnapshotDataRetrieverTest");
+
+        debts = new ArrayList<>();
+        paymentPlans = new ArrayList<>();
+        payments = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            // Ids are written out of order, so the index has something to sort.
+            int debtId = (id * 7919) % 500;
+            debts.add(new Debt(debtId, 1000.00 + debtId + 0.1234));
+            if (debtId % 4 != 0) {
+                paymentPlans.add(new PaymentPlan(debtId + 10_000,
+                        debtId,
+                        1000.00 + debtId,
+                        debtId % 2 == 0 ? InstallmentFrequency.WEEKLY : InstallmentFrequency.BI_WEEKLY,
+                        100.25,
+                        LocalDate.of(2020, 10, 23).plusDays(debtId))); // 10/23/2020 onwards
+            }
+        }
+        for (int paymentNumber = 0; paymentNumber < 2_000; paymentNumber++) {
+            payments.add(new Payment(10_000 + (paymentNumber * 31) % 500,
+                    paymentNumber % 3 == 0 ? -5.5 : 95.5 + paymentNumber,
+                    LocalDate.of(2020, 10, 23).plusDays(paymentNumber))); // 10/23/2020 onwards
+        }
+    }
+
+    /**
+     * Runs after each test to remove the directory and everything in it.
+     */
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Ensure that every record reads back exactly as it was written, in the same order, including when sections are
+     * mapped in several pieces.
+     */
+    @Test
+    public void getAll_roundTrip() throws IOException {
+        // ARRANGE
+        Path file = directory.resolve("portfolio.snapshot");
+        new SnapshotWriter(file).write(debts, paymentPlans, payments);
+
+        // ACT
+        SnapshotDataRetriever retriever = new SnapshotDataRetriever(file, 100);
+
+        // ASSERT
+        assertTrue(retriever.isIndexed());
+        assertDebtsEqual(debts, retriever.getAllDebts());
+        assertPaymentPlansEqual(paymentPlans, retriever.getAllPaymentPlans());
+        assertPaymentsEqual(payments, retriever.getAllPayments());
+    }
+
+    /**
+     * Ensure that lookups by key find the same records with and without an index, including keys that have no records.
+     */
+    @Test
+    public void find_indexedMatchesScan() throws Exception {
+        // ARRANGE
+        Path indexedFile = directory.resolve("indexed.snapshot");
+        Path unindexedFile = directory.resolve("unindexed.snapshot");
+        new SnapshotWriter(indexedFile).write(debts, paymentPlans, payments);
+        SnapshotDataRetriever indexed = new SnapshotDataRetriever(indexedFile, 64);
+        new SnapshotWriter(unindexedFile, false).write(indexed);
+
+        // ACT
+        SnapshotDataRetriever unindexed = new SnapshotDataRetriever(unindexedFile);
+
+        // ASSERT
+        assertFalse(unindexed.isIndexed());
+        for (int debtId = -1; debtId <= 500; debtId++) {
+            assertDebtsEqual(Arrays.asList(indexed.findDebt(debtId)), Arrays.asList(unindexed.findDebt(debtId)));
+            assertPaymentPlansEqual(Arrays.asList(indexed.findPaymentPlan(debtId)),
+                    Arrays.asList(unindexed.findPaymentPlan(debtId)));
+            assertPaymentsEqual(unindexed.findPayments(debtId + 10_000), indexed.findPayments(debtId + 10_000));
+        }
+        assertEquals(1000.1234 + 17, indexed.findDebt(17).getAmount());
+        assertNull(indexed.findPaymentPlan(16));
+        assertEquals(4, indexed.findPayments(10_003).size());
+        assertTrue(indexed.findPayments(Integer.MAX_VALUE).isEmpty());
+    }
+
+    /**
+     * Ensure that payments copied straight into columns match the columns built from Payment objects.
+     */
+    @Test
+    public void getPaymentColumns_matchesPaymentList() throws IOException {
+        // ARRANGE
+        Path file = directory.resolve("portfolio.snapshot");
+        new SnapshotWriter(file).write(debts, paymentPlans, payments);
+        PaymentColumns expected = PaymentColumns.of(payments);
+
+        // ACT
+        PaymentColumns actual = new SnapshotDataRetriever(file).getPaymentColumns();
+
+        // ASSERT
+        assertPaymentsEqual(expected.asList(), actual.asList());
+        assertEquals(expected.groupCount(), actual.groupCount());
+    }
+
+    /**
+     * Ensure that files that aren't snapshots, snapshots from another version of the format, and truncated snapshots
+     * are rejected when they are loaded.
+     */
+    @Test
+    public void constructor_invalidFiles() throws IOException {
+        // ARRANGE
+        Path file = directory.resolve("portfolio.snapshot");
+        new SnapshotWriter(file).write(debts, paymentPlans, payments);
+        byte[] snapshot = Files.readAllBytes(file);
+
+        Path notSnapshot = Files.write(directory.resolve("debts.json"), "[{\"id\": 0, \"amount\": 1}]".getBytes());
+        byte[] otherVersion = snapshot.clone();
+        ByteBuffer.wrap(otherVersion).order(ByteOrder.LITTLE_ENDIAN).putInt(SnapshotFormat.VERSION_OFFSET, 1);
+        Path otherVersionFile = Files.write(directory.resolve("other_version.snapshot"), otherVersion);
+        Path truncatedFile = Files.write(directory.resolve("truncated.snapshot"),
+                Arrays.copyOf(snapshot, snapshot.length - 1));
+
+        // ACT && ASSERT
+        assertThrows(IOException.class, () -> new SnapshotDataRetriever(notSnapshot));
+        IOException versionException = assertThrows(IOException.class,
+                () -> new SnapshotDataRetriever(otherVersionFile));
+        assertTrue(versionException.getMessage().contains("version 1"));
+        assertThrows(IOException.class, () -> new SnapshotDataRetriever(truncatedFile));
+    }
+
+    private static void assertDebtsEqual(List<Debt> expected, List<Debt> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int index = 0; index < expected.size(); index++) {
+            if (expected.get(index) == null) {
+                assertNull(actual.get(index));
+                continue;
+            }
+            assertEquals(expected.get(index).getId(), actual.get(index).getId());
+            assertEquals(expected.get(index).getAmountInMinorUnits(), actual.get(index).getAmountInMinorUnits());
+        }
+    }
+
+    private static void assertPaymentPlansEqual(List<PaymentPlan> expected, List<PaymentPlan> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int index = 0; index < expected.size(); index++) {
+            if (expected.get(index) == null) {
+                assertNull(actual.get(index));
+                continue;
+            }
+            assertEquals(expected.get(index).getId(), actual.get(index).getId());
+            assertEquals(expected.get(index).getDebtId(), actual.get(index).getDebtId());
+            assertEquals(expected.get(index).getAmountToPay(), actual.get(index).getAmountToPay());
+            assertEquals(expected.get(index).getInstallmentFrequency(), actual.get(index).getInstallmentFrequency());
+            assertEquals(expected.get(index).getInstallmentAmount(), actual.get(index).getInstallmentAmount());
+            assertEquals(expected.get(index).getStartDate(), actual.get(index).getStartDate());
+        }
+    }
+
+    private static void assertPaymentsEqual(List<Payment> expected, List<Payment> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int index = 0; index < expected.size(); index++) {
+            assertEquals(expected.get(index).getPaymentPlanId(), actual.get(index).getPaymentPlanId());
+            assertEquals(expected.get(index).getAmount(), actual.get(index).getAmount());
+            assertEquals(expected.get(index).getDate(), actual.get(index).getDate());
+        }
+    }
+}